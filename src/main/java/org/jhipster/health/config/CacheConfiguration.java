@@ -2,6 +2,11 @@ package org.jhipster.health.config;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ehcache.InstrumentedEhcache;
+import net.sf.ehcache.config.MemoryUnit;
+import org.jhipster.health.service.PointsHistoryService;
+import org.jhipster.health.service.SearchAnalyticsService;
+import org.jhipster.health.service.SearchCacheService;
+import org.jhipster.health.service.WeightTrendService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -62,12 +67,45 @@ public class CacheConfiguration {
             net.sf.ehcache.Cache cache = cacheManager.getCache(name);
             if (cache != null) {
                 cache.getCacheConfiguration().setTimeToLiveSeconds(jHipsterProperties.getCache().getTimeToLiveSeconds());
+                String maxBytesLocalHeap = jHipsterProperties.getCache().getEhcache().getRegions()
+                    .get(entity.getJavaType().getSimpleName());
+                if (maxBytesLocalHeap != null) {
+                    if (cache.getCacheConfiguration().getMaxBytesLocalHeap() == 0) {
+                        log.warn("Cache region {} has no byte budget in ehcache.xml, ignoring {}", name, maxBytesLocalHeap);
+                    } else {
+                        log.debug("Sizing cache region {} to {}", name, maxBytesLocalHeap);
+                        cache.getCacheConfiguration().setMaxBytesLocalHeap(MemoryUnit.parseSizeInBytes(maxBytesLocalHeap));
+                    }
+                }
                 net.sf.ehcache.Ehcache decoratedCache = InstrumentedEhcache.instrument(metricRegistry, cache);
                 cacheManager.replaceCacheWithDecoratedCache(cache, decoratedCache);
             }
         }
+        configureRegion(SearchCacheService.CACHE_NAME, jHipsterProperties.getSearch().getCache().getMaxBytesLocalHeap(),
+            jHipsterProperties.getSearch().getCache().getTimeToLiveInSeconds());
+        configureRegion(WeightTrendService.CACHE_NAME, jHipsterProperties.getWeightTrend().getMaxBytesLocalHeap(),
+            jHipsterProperties.getWeightTrend().getTimeToLiveInSeconds());
+        configureRegion(PointsHistoryService.CACHE_NAME, jHipsterProperties.getPointsHistory().getMaxBytesLocalHeap(),
+            jHipsterProperties.getPointsHistory().getTimeToLiveInSeconds());
+        configureRegion(SearchAnalyticsService.CACHE_NAME, jHipsterProperties.getAnalytics().getMaxBytesLocalHeap(),
+            jHipsterProperties.getAnalytics().getTimeToLiveInSeconds());
         EhCacheCacheManager ehCacheManager = new EhCacheCacheManager();
         ehCacheManager.setCacheManager(cacheManager);
         return ehCacheManager;
     }
+
+    /**
+     * Size a cache region of the services from the jhipster.* properties, and register its metrics like the ones of
+     * the entities.
+     */
+    private void configureRegion(String name, String maxBytesLocalHeap, int timeToLiveInSeconds) {
+        net.sf.ehcache.Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return;
+        }
+        log.debug("Sizing cache region {} to {}", name, maxBytesLocalHeap);
+        cache.getCacheConfiguration().setTimeToLiveSeconds(timeToLiveInSeconds);
+        cache.getCacheConfiguration().setMaxBytesLocalHeap(MemoryUnit.parseSizeInBytes(maxBytesLocalHeap));
+        cacheManager.replaceCacheWithDecoratedCache(cache, InstrumentedEhcache.instrument(metricRegistry, cache));
+    }
 }
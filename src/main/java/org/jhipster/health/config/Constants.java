@@ -13,6 +13,8 @@ public final class Constants {
     public static final String SPRING_PROFILE_CLOUD = "cloud";
     // Spring profile used when deploying to Heroku
     public static final String SPRING_PROFILE_HEROKU = "heroku";
+    // Spring profile running the search engine in the application, instead of connecting to an Elasticsearch cluster
+    public static final String SPRING_PROFILE_EMBEDDED_SEARCH = "embedded-search";
 
     public static final String SYSTEM_ACCOUNT = "system";
 
@@ -2,6 +2,7 @@ package org.jhipster.health.config;
 
 import org.jhipster.health.config.liquibase.AsyncSpringLiquibase;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.datatype.hibernate4.Hibernate4Module;
 import com.zaxxer.hikari.HikariConfig;
@@ -34,6 +35,11 @@ import java.util.Arrays;
 @EnableElasticsearchRepositories("org.jhipster.health.repository.search")
 public class DatabaseConfiguration {
 
+    /**
+     * Name of the pool, prefixing its metrics.
+     */
+    private static final String POOL_NAME = "21points";
+
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
     @Inject
@@ -67,11 +73,72 @@ public class DatabaseConfiguration {
             config.addDataSourceProperty("password", ""); // HikariCP doesn't allow null password
         }
 
+        configurePool(config, dataSourceProperties.getDriverClassName(), jHipsterProperties.getDatasource());
+
         if (metricRegistry != null) {
             config.setMetricRegistry(metricRegistry);
         }
         return new HikariDataSource(config);
     }
+
+    /**
+     * Size the pool, from the number of cores unless "jhipster.datasource.maximumPoolSize" is set, and set its
+     * timeouts and the PostgreSQL statement cache. The settings are logged, and registered in the metrics.
+     *
+     * @throws ApplicationContextException if a setting is out of its range
+     */
+    void configurePool(HikariConfig config, String driverClassName, JHipsterProperties.Datasource datasource) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // one connection per core waiting on I/O and one running, plus one for the disk, as advised by HikariCP
+        int maximumPoolSize = datasource.getMaximumPoolSize() > 0 ? datasource.getMaximumPoolSize() : cores * 2 + 1;
+        if (datasource.getMaximumPoolSize() < 0) {
+            throw new ApplicationContextException("jhipster.datasource.maximumPoolSize must be 0 (auto-tuned), " +
+                "or positive");
+        }
+        if (datasource.getConnectionTimeout() < 250) {
+            throw new ApplicationContextException("jhipster.datasource.connectionTimeout must be at least 250 ms");
+        }
+        if (datasource.getLeakDetectionThreshold() != 0 && datasource.getLeakDetectionThreshold() < 2000) {
+            throw new ApplicationContextException("jhipster.datasource.leakDetectionThreshold must be 0, " +
+                "or at least 2000 ms");
+        }
+        if (datasource.getPrepareThreshold() < 0 || datasource.getPreparedStatementCacheQueries() < 0) {
+            throw new ApplicationContextException("jhipster.datasource.prepareThreshold and " +
+                "preparedStatementCacheQueries must not be negative");
+        }
+        config.setPoolName(POOL_NAME);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setConnectionTimeout(datasource.getConnectionTimeout());
+        config.setLeakDetectionThreshold(datasource.getLeakDetectionThreshold());
+        boolean postgresql = driverClassName != null && driverClassName.startsWith("org.postgresql.");
+        if (postgresql) {
+            config.addDataSourceProperty("prepareThreshold", datasource.getPrepareThreshold());
+            config.addDataSourceProperty("preparedStatementCacheQueries",
+                datasource.getPreparedStatementCacheQueries());
+        }
+        log.info("Database connection pool: {} connections{} on {} cores, connection timeout {} ms, leak detection " +
+                "threshold {} ms{}", maximumPoolSize, datasource.getMaximumPoolSize() > 0 ? "" : " (auto-tuned)", cores,
+            datasource.getConnectionTimeout(), datasource.getLeakDetectionThreshold(),
+            postgresql ? ", prepare threshold " + datasource.getPrepareThreshold() + ", "
+                + datasource.getPreparedStatementCacheQueries() + " prepared statements per connection" : "");
+
+        if (metricRegistry != null) {
+            registerSetting("maximumPoolSize", maximumPoolSize);
+            registerSetting("connectionTimeout", datasource.getConnectionTimeout());
+            registerSetting("leakDetectionThreshold", datasource.getLeakDetectionThreshold());
+            if (postgresql) {
+                registerSetting("prepareThreshold", datasource.getPrepareThreshold());
+                registerSetting("preparedStatementCacheQueries", datasource.getPreparedStatementCacheQueries());
+            }
+        }
+    }
+
+    private void registerSetting(String name, Number value) {
+        String metricName = MetricRegistry.name(POOL_NAME, "pool", "settings", name);
+        metricRegistry.remove(metricName);
+        metricRegistry.register(metricName, (Gauge<Number>) () -> value);
+    }
+
     @Bean
     public SpringLiquibase liquibase(DataSource dataSource, DataSourceProperties dataSourceProperties,
         LiquibaseProperties liquibaseProperties) {
@@ -0,0 +1,53 @@
+package org.jhipster.health.config;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.node.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import static org.elasticsearch.node.NodeBuilder.nodeBuilder;
+
+/**
+ * Search engine running in the application, for the deployments without an Elasticsearch cluster.
+ * <p>
+ * The node uses the local transport and discovery, so it does not look for other nodes or open any port, and the
+ * search repositories, the searches and the aggregations reach it without a network hop. Its Lucene indices are
+ * memory-mapped from the local disk by default. The "prod" profile otherwise connects to the cluster nodes of
+ * "spring.data.elasticsearch".
+ * </p>
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_EMBEDDED_SEARCH)
+public class EmbeddedSearchConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(EmbeddedSearchConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    public Node embeddedSearchNode(JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Search.Embedded embedded = jHipsterProperties.getSearch().getEmbedded();
+        log.info("Starting an embedded search node, with {} indices in {}", embedded.getStoreType(),
+            embedded.getDataPath());
+        return nodeBuilder()
+            .local(true)
+            .data(true)
+            .clusterName(embedded.getClusterName())
+            .settings(ImmutableSettings.settingsBuilder()
+                .put("http.enabled", false)
+                .put("discovery.zen.ping.multicast.enabled", false)
+                .put("path.data", embedded.getDataPath())
+                .put("index.store.type", embedded.getStoreType())
+                // a single node: replicas would never be allocated
+                .put("index.number_of_shards", 1)
+                .put("index.number_of_replicas", 0))
+            .node();
+    }
+
+    @Bean
+    public Client client(Node embeddedSearchNode) {
+        return embeddedSearchNode.client();
+    }
+}
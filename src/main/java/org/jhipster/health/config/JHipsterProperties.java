@@ -1,6 +1,8 @@
 package org.jhipster.health.config;
 
 import javax.validation.constraints.NotNull;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
@@ -31,6 +33,20 @@ public class JHipsterProperties {
 
     private final Metrics metrics = new Metrics();
 
+    private final Search search = new Search();
+
+    private final Audit audit = new Audit();
+
+    private final Dashboard dashboard = new Dashboard();
+
+    private final WeightTrend weightTrend = new WeightTrend();
+
+    private final BloodPressureAlerts bloodPressureAlerts = new BloodPressureAlerts();
+
+    private final PointsHistory pointsHistory = new PointsHistory();
+
+    private final Analytics analytics = new Analytics();
+
     private final CorsConfiguration cors = new CorsConfiguration();
 
 
@@ -67,6 +83,34 @@ public class JHipsterProperties {
         return metrics;
     }
 
+    public Search getSearch() {
+        return search;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Dashboard getDashboard() {
+        return dashboard;
+    }
+
+    public WeightTrend getWeightTrend() {
+        return weightTrend;
+    }
+
+    public BloodPressureAlerts getBloodPressureAlerts() {
+        return bloodPressureAlerts;
+    }
+
+    public PointsHistory getPointsHistory() {
+        return pointsHistory;
+    }
+
+    public Analytics getAnalytics() {
+        return analytics;
+    }
+
     public CorsConfiguration getCors() {
         return cors;
     }
@@ -137,6 +181,19 @@ public class JHipsterProperties {
 
         private boolean useServerPrepStmts = true;
 
+        /**
+         * 0 sizes the pool from the number of cores of the server.
+         */
+        private int maximumPoolSize = 0;
+
+        private long connectionTimeout = 5000;
+
+        private long leakDetectionThreshold = 60000;
+
+        private int prepareThreshold = 3;
+
+        private int preparedStatementCacheQueries = 256;
+
         public boolean isCachePrepStmts() {
             return cachePrepStmts;
         }
@@ -168,6 +225,46 @@ public class JHipsterProperties {
         public void setUseServerPrepStmts(boolean useServerPrepStmts) {
             this.useServerPrepStmts = useServerPrepStmts;
         }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(long connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public long getLeakDetectionThreshold() {
+            return leakDetectionThreshold;
+        }
+
+        public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+            this.leakDetectionThreshold = leakDetectionThreshold;
+        }
+
+        public int getPrepareThreshold() {
+            return prepareThreshold;
+        }
+
+        public void setPrepareThreshold(int prepareThreshold) {
+            this.prepareThreshold = prepareThreshold;
+        }
+
+        public int getPreparedStatementCacheQueries() {
+            return preparedStatementCacheQueries;
+        }
+
+        public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+            this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+        }
     }
 
     public static class Cache {
@@ -192,6 +289,11 @@ public class JHipsterProperties {
 
             private String maxBytesLocalHeap = "16M";
 
+            /**
+             * Byte budget of each entity cache region, keyed by the entity name (e.g. Point: 8M).
+             */
+            private final Map<String, String> regions = new HashMap<>();
+
             public String getMaxBytesLocalHeap() {
                 return maxBytesLocalHeap;
             }
@@ -199,6 +301,10 @@ public class JHipsterProperties {
             public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
                 this.maxBytesLocalHeap = maxBytesLocalHeap;
             }
+
+            public Map<String, String> getRegions() {
+                return regions;
+            }
         }
     }
 
@@ -243,6 +349,14 @@ public class JHipsterProperties {
 
                 private int tokenValidityInSeconds = 1800;
 
+                private int userDetailsCacheSize = 10000;
+
+                private int userDetailsCacheTimeToLiveInSeconds = 60;
+
+                private String signatureAlgorithm = "MD5";
+
+                private int verifiedTokenCacheSize = 10000;
+
                 public String getSecret() {
                     return secret;
                 }
@@ -258,6 +372,38 @@ public class JHipsterProperties {
                 public void setTokenValidityInSeconds(int tokenValidityInSeconds) {
                     this.tokenValidityInSeconds = tokenValidityInSeconds;
                 }
+
+                public int getUserDetailsCacheSize() {
+                    return userDetailsCacheSize;
+                }
+
+                public void setUserDetailsCacheSize(int userDetailsCacheSize) {
+                    this.userDetailsCacheSize = userDetailsCacheSize;
+                }
+
+                public int getUserDetailsCacheTimeToLiveInSeconds() {
+                    return userDetailsCacheTimeToLiveInSeconds;
+                }
+
+                public void setUserDetailsCacheTimeToLiveInSeconds(int userDetailsCacheTimeToLiveInSeconds) {
+                    this.userDetailsCacheTimeToLiveInSeconds = userDetailsCacheTimeToLiveInSeconds;
+                }
+
+                public String getSignatureAlgorithm() {
+                    return signatureAlgorithm;
+                }
+
+                public void setSignatureAlgorithm(String signatureAlgorithm) {
+                    this.signatureAlgorithm = signatureAlgorithm;
+                }
+
+                public int getVerifiedTokenCacheSize() {
+                    return verifiedTokenCacheSize;
+                }
+
+                public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+                    this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+                }
             }
         }
         public static class Rememberme {
@@ -348,6 +494,506 @@ public class JHipsterProperties {
         }
     }
 
+    public static class Search {
+
+        private final Outbox outbox = new Outbox();
+
+        private final Reindex reindex = new Reindex();
+
+        private final Query query = new Query();
+
+        private final Cache cache = new Cache();
+
+        private final Embedded embedded = new Embedded();
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public Query getQuery() {
+            return query;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public Embedded getEmbedded() {
+            return embedded;
+        }
+
+        public static class Embedded {
+
+            private String clusterName = "21points-embedded";
+
+            private String dataPath = "data/elasticsearch";
+
+            private String storeType = "mmapfs";
+
+            public String getClusterName() {
+                return clusterName;
+            }
+
+            public void setClusterName(String clusterName) {
+                this.clusterName = clusterName;
+            }
+
+            public String getDataPath() {
+                return dataPath;
+            }
+
+            public void setDataPath(String dataPath) {
+                this.dataPath = dataPath;
+            }
+
+            public String getStoreType() {
+                return storeType;
+            }
+
+            public void setStoreType(String storeType) {
+                this.storeType = storeType;
+            }
+        }
+
+        public static class Cache {
+
+            private boolean enabled = true;
+
+            /**
+             * Byte budget of the "searchResults" cache region.
+             */
+            private String maxBytesLocalHeap = "4M";
+
+            private int timeToLiveInSeconds = 60;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getMaxBytesLocalHeap() {
+                return maxBytesLocalHeap;
+            }
+
+            public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+                this.maxBytesLocalHeap = maxBytesLocalHeap;
+            }
+
+            public int getTimeToLiveInSeconds() {
+                return timeToLiveInSeconds;
+            }
+
+            public void setTimeToLiveInSeconds(int timeToLiveInSeconds) {
+                this.timeToLiveInSeconds = timeToLiveInSeconds;
+            }
+        }
+
+        public static class Query {
+
+            private int maxResultWindow = 1000;
+
+            public int getMaxResultWindow() {
+                return maxResultWindow;
+            }
+
+            public void setMaxResultWindow(int maxResultWindow) {
+                this.maxResultWindow = maxResultWindow;
+            }
+        }
+
+        public static class Reindex {
+
+            private boolean scheduled = false;
+
+            private String cron = "0 0 3 * * SUN";
+
+            private int chunkSize = 1000;
+
+            private int pauseSeconds = 300;
+
+            public boolean isScheduled() {
+                return scheduled;
+            }
+
+            public void setScheduled(boolean scheduled) {
+                this.scheduled = scheduled;
+            }
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+
+            public int getPauseSeconds() {
+                return pauseSeconds;
+            }
+
+            public void setPauseSeconds(int pauseSeconds) {
+                this.pauseSeconds = pauseSeconds;
+            }
+        }
+
+        public static class Outbox {
+
+            private boolean drain = true;
+
+            private long delay = 1000;
+
+            private int batchSize = 500;
+
+            private int maxBackoffSeconds = 300;
+
+            private int maxAttempts = 10;
+
+            private int leaseSeconds = 300;
+
+            public boolean isDrain() {
+                return drain;
+            }
+
+            public void setDrain(boolean drain) {
+                this.drain = drain;
+            }
+
+            public long getDelay() {
+                return delay;
+            }
+
+            public void setDelay(long delay) {
+                this.delay = delay;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxBackoffSeconds() {
+                return maxBackoffSeconds;
+            }
+
+            public void setMaxBackoffSeconds(int maxBackoffSeconds) {
+                this.maxBackoffSeconds = maxBackoffSeconds;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public int getLeaseSeconds() {
+                return leaseSeconds;
+            }
+
+            public void setLeaseSeconds(int leaseSeconds) {
+                this.leaseSeconds = leaseSeconds;
+            }
+        }
+    }
+
+    public static class Dashboard {
+
+        private int poolSize = 8;
+
+        private int queueCapacity = 100;
+
+        private long timeout = 5000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class WeightTrend {
+
+        /**
+         * Byte budget of the "weightTrends" cache region.
+         */
+        private String maxBytesLocalHeap = "2M";
+
+        private double halfLifeInDays = 7;
+
+        private int timeToLiveInSeconds = 300;
+
+        public String getMaxBytesLocalHeap() {
+            return maxBytesLocalHeap;
+        }
+
+        public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+            this.maxBytesLocalHeap = maxBytesLocalHeap;
+        }
+
+        public double getHalfLifeInDays() {
+            return halfLifeInDays;
+        }
+
+        public void setHalfLifeInDays(double halfLifeInDays) {
+            this.halfLifeInDays = halfLifeInDays;
+        }
+
+        public int getTimeToLiveInSeconds() {
+            return timeToLiveInSeconds;
+        }
+
+        public void setTimeToLiveInSeconds(int timeToLiveInSeconds) {
+            this.timeToLiveInSeconds = timeToLiveInSeconds;
+        }
+    }
+
+    public static class BloodPressureAlerts {
+
+        private boolean enabled = true;
+
+        private int queueCapacity = 1000;
+
+        private long drainInterval = 60000;
+
+        private int baselineDays = 90;
+
+        private int minReadings = 5;
+
+        private double threshold = 3;
+
+        private int cacheSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getDrainInterval() {
+            return drainInterval;
+        }
+
+        public void setDrainInterval(long drainInterval) {
+            this.drainInterval = drainInterval;
+        }
+
+        public int getBaselineDays() {
+            return baselineDays;
+        }
+
+        public void setBaselineDays(int baselineDays) {
+            this.baselineDays = baselineDays;
+        }
+
+        public int getMinReadings() {
+            return minReadings;
+        }
+
+        public void setMinReadings(int minReadings) {
+            this.minReadings = minReadings;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(double threshold) {
+            this.threshold = threshold;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    public static class PointsHistory {
+
+        /**
+         * Byte budget of the "pointsHistories" cache region.
+         */
+        private String maxBytesLocalHeap = "2M";
+
+        private int maxWeeks = 520;
+
+        private int timeToLiveInSeconds = 300;
+
+        public String getMaxBytesLocalHeap() {
+            return maxBytesLocalHeap;
+        }
+
+        public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+            this.maxBytesLocalHeap = maxBytesLocalHeap;
+        }
+
+        public int getMaxWeeks() {
+            return maxWeeks;
+        }
+
+        public void setMaxWeeks(int maxWeeks) {
+            this.maxWeeks = maxWeeks;
+        }
+
+        public int getTimeToLiveInSeconds() {
+            return timeToLiveInSeconds;
+        }
+
+        public void setTimeToLiveInSeconds(int timeToLiveInSeconds) {
+            this.timeToLiveInSeconds = timeToLiveInSeconds;
+        }
+    }
+
+    public static class Analytics {
+
+        /**
+         * Byte budget of the "analyticsResults" cache region.
+         */
+        private String maxBytesLocalHeap = "1M";
+
+        private int timeToLiveInSeconds = 300;
+
+        private int maxBuckets = 1000;
+
+        public String getMaxBytesLocalHeap() {
+            return maxBytesLocalHeap;
+        }
+
+        public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+            this.maxBytesLocalHeap = maxBytesLocalHeap;
+        }
+
+        public int getTimeToLiveInSeconds() {
+            return timeToLiveInSeconds;
+        }
+
+        public void setTimeToLiveInSeconds(int timeToLiveInSeconds) {
+            this.timeToLiveInSeconds = timeToLiveInSeconds;
+        }
+
+        public int getMaxBuckets() {
+            return maxBuckets;
+        }
+
+        public void setMaxBuckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+    }
+
+    public static class Audit {
+
+        /**
+         * What to do with a new audit event when the buffer is full.
+         */
+        public enum OverflowPolicy {
+            /** Discard the new event. */
+            DROP_NEWEST,
+            /** Discard the oldest buffered event to make room for the new one. */
+            DROP_OLDEST,
+            /** Persist the new event synchronously, on the caller's thread. */
+            WRITE_THROUGH
+        }
+
+        private int bufferSize = 10000;
+
+        private int batchSize = 100;
+
+        private long flushInterval = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        private int retentionMonths = 12;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+    }
+
     public static class Metrics {
 
         private final Jmx jmx = new Jmx();
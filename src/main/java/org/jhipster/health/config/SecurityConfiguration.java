@@ -34,6 +34,9 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     @Inject
     private TokenProvider tokenProvider;
 
+    @Inject
+    private UserDetailsCache userDetailsCache;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -107,7 +110,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     }
 
     private XAuthTokenConfigurer securityConfigurerAdapter() {
-      return new XAuthTokenConfigurer(userDetailsService, tokenProvider);
+      return new XAuthTokenConfigurer(userDetailsService, tokenProvider, userDetailsCache);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package org.jhipster.health.config;
 
 import org.jhipster.health.security.xauth.TokenProvider;
+import org.jhipster.health.security.xauth.UserDetailsCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,8 +13,14 @@ public class XAuthConfiguration {
 
     @Bean
     public TokenProvider tokenProvider(JHipsterProperties jHipsterProperties) {
-        String secret = jHipsterProperties.getSecurity().getAuthentication().getXauth().getSecret();
-        int validityInSeconds = jHipsterProperties.getSecurity().getAuthentication().getXauth().getTokenValidityInSeconds();
-        return new TokenProvider(secret, validityInSeconds);
+        JHipsterProperties.Security.Authentication.Xauth xauth = jHipsterProperties.getSecurity().getAuthentication().getXauth();
+        return new TokenProvider(xauth.getSecret(), xauth.getTokenValidityInSeconds(),
+            xauth.getSignatureAlgorithm(), xauth.getVerifiedTokenCacheSize());
+    }
+
+    @Bean
+    public UserDetailsCache userDetailsCache(JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Security.Authentication.Xauth xauth = jHipsterProperties.getSecurity().getAuthentication().getXauth();
+        return new UserDetailsCache(xauth.getUserDetailsCacheSize(), xauth.getUserDetailsCacheTimeToLiveInSeconds());
     }
 }
@@ -0,0 +1,198 @@
+package org.jhipster.health.config.audit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.config.JHipsterProperties.Audit.OverflowPolicy;
+import org.jhipster.health.domain.PersistentAuditEvent;
+import org.jhipster.health.repository.PersistenceAuditEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists audit events in the background.
+ * <p>
+ * Events are queued in a bounded buffer and written in batches, one transaction per batch, on the
+ * "taskExecutor" of AsyncConfiguration. A flush is started every "jhipster.audit.flushInterval"
+ * milliseconds, or as soon as a full batch is buffered. When the buffer is full, the
+ * "jhipster.audit.overflowPolicy" decides which event is lost, if any.
+ * </p>
+ */
+@Component
+public class AsyncAuditEventWriter {
+
+    private final Logger log = LoggerFactory.getLogger(AsyncAuditEventWriter.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    private BlockingQueue<PersistentAuditEvent> buffer;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Meter droppedMeter = new Meter();
+
+    private Meter writtenMeter = new Meter();
+
+    private Meter failedMeter = new Meter();
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(jHipsterProperties.getAudit().getBufferSize());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (metricRegistry != null) {
+            droppedMeter = metricRegistry.meter(MetricRegistry.name(AsyncAuditEventWriter.class, "dropped"));
+            writtenMeter = metricRegistry.meter(MetricRegistry.name(AsyncAuditEventWriter.class, "written"));
+            failedMeter = metricRegistry.meter(MetricRegistry.name(AsyncAuditEventWriter.class, "failed"));
+            metricRegistry.register(MetricRegistry.name(AsyncAuditEventWriter.class, "buffered"),
+                (Gauge<Integer>) () -> buffer.size());
+            metricRegistry.register(MetricRegistry.name(AsyncAuditEventWriter.class, "lag-millis"),
+                (Gauge<Long>) this::getLagMillis);
+        }
+    }
+
+    /**
+     * Queue an event to be persisted.
+     */
+    public void write(PersistentAuditEvent event) {
+        if (!buffer.offer(event)) {
+            OverflowPolicy overflowPolicy = jHipsterProperties.getAudit().getOverflowPolicy();
+            if (overflowPolicy == OverflowPolicy.WRITE_THROUGH) {
+                save(Collections.singletonList(event));
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                buffer.poll();
+                droppedMeter.mark();
+                if (buffer.offer(event)) {
+                    requestFlushIfFull();
+                    return;
+                }
+            }
+            droppedMeter.mark();
+            log.debug("Audit event buffer is full, dropped an event of {}", event.getPrincipal());
+            return;
+        }
+        requestFlushIfFull();
+    }
+
+    /**
+     * The buffered events are flushed regularly.
+     * <p>
+     * This is scheduled to get fired every "jhipster.audit.flushInterval" milliseconds (every second by default).
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${jhipster.audit.flushInterval:1000}")
+    public void requestFlush() {
+        if (!buffer.isEmpty() && flushing.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                flushing.set(false);
+                log.warn("Could not schedule an audit event flush: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write all the buffered events, {@code jhipster.audit.batchSize} per transaction.
+     */
+    public void flush() {
+        int batchSize = jHipsterProperties.getAudit().getBatchSize();
+        List<PersistentAuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            save(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.debug("Flushing {} buffered audit events", buffer.size());
+        flush();
+    }
+
+    public long getLagMillis() {
+        PersistentAuditEvent oldest = buffer.peek();
+        if (oldest == null || oldest.getAuditEventDate() == null) {
+            return 0L;
+        }
+        return Math.max(0L, Duration.between(oldest.getAuditEventDate(), LocalDateTime.now()).toMillis());
+    }
+
+    private void requestFlushIfFull() {
+        if (buffer.size() >= jHipsterProperties.getAudit().getBatchSize()) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Save a batch in one transaction. If it fails, the events are saved one by one, so that only the ones at fault
+     * are lost.
+     */
+    private void save(List<PersistentAuditEvent> events) {
+        try {
+            transactionTemplate.execute(status -> persistenceAuditEventRepository.save(events));
+            writtenMeter.mark(events.size());
+        } catch (RuntimeException e) {
+            log.debug("Could not persist a batch of {} audit events, retrying one by one: {}", events.size(),
+                e.getMessage());
+            for (PersistentAuditEvent event : events) {
+                // the failed transaction may have assigned an id that was never written
+                event.setId(null);
+                try {
+                    transactionTemplate.execute(status -> persistenceAuditEventRepository.save(event));
+                    writtenMeter.mark();
+                } catch (RuntimeException eventException) {
+                    failedMeter.mark();
+                    log.error("Could not persist the audit event {} of {}: {}", event.getAuditEventType(),
+                        event.getPrincipal(), eventException.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.jhipster.health.config.liquibase;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Set the monthly partition key of the audit events written before it existed, on any database.
+ * <p>
+ * The events are updated one month at a time, with a range on their date, so each update only touches the events
+ * of its month.
+ * </p>
+ */
+public class AuditEventMonthBackfill implements CustomTaskChange {
+
+    private static final String FIND_RANGE = "select min(event_date), max(event_date) " +
+        "from jhi_persistent_audit_event where event_month is null";
+
+    private static final String UPDATE_MONTH = "update jhi_persistent_audit_event set event_month = ? " +
+        "where event_month is null and event_date >= ? and event_date < ?";
+
+    private int updatedEvents;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try (Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery(FIND_RANGE)) {
+            Timestamp first = range.next() ? range.getTimestamp(1) : null;
+            if (first == null) {
+                return;
+            }
+            LocalDate lastMonth = range.getTimestamp(2).toLocalDateTime().toLocalDate().withDayOfMonth(1);
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_MONTH)) {
+                for (LocalDate month = first.toLocalDateTime().toLocalDate().withDayOfMonth(1);
+                     !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                    update.setDate(1, Date.valueOf(month));
+                    update.setTimestamp(2, Timestamp.valueOf(month.atStartOfDay()));
+                    update.setTimestamp(3, Timestamp.valueOf(month.plusMonths(1).atStartOfDay()));
+                    updatedEvents += update.executeUpdate();
+                }
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Could not set the month of the audit events", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Set the month of " + updatedEvents + " audit events";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -3,6 +3,7 @@ package org.jhipster.health.domain;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
 import org.springframework.data.elasticsearch.annotations.Document;
 
 import javax.persistence.*;
@@ -23,7 +24,8 @@ import java.util.Objects;
 public class BloodPressure implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bloodPressureSequenceGenerator")
+    @SequenceGenerator(name = "bloodPressureSequenceGenerator", sequenceName = "reading_sequence", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -38,6 +40,13 @@ public class BloodPressure implements Serializable {
     @Column(name = "diastolic", nullable = false)
     private Integer diastolic;
 
+    /**
+     * Set from the pressures on every write, and indexed with the user to list the readings of a category.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", length = 20)
+    private BloodPressureCategory category;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -83,6 +92,20 @@ public class BloodPressure implements Serializable {
         this.diastolic = diastolic;
     }
 
+    public BloodPressureCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(BloodPressureCategory category) {
+        this.category = category;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateCategory() {
+        category = systolic == null || diastolic == null ? null : BloodPressureCategory.classify(systolic, diastolic);
+    }
+
     public User getUser() {
         return user;
     }
@@ -115,6 +138,7 @@ public class BloodPressure implements Serializable {
             ", timestamp='" + timestamp + "'" +
             ", systolic='" + systolic + "'" +
             ", diastolic='" + diastolic + "'" +
+            ", category='" + category + "'" +
             '}';
     }
 }
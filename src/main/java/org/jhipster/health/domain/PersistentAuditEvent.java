@@ -1,5 +1,8 @@
 package org.jhipster.health.domain;
 
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -15,7 +18,9 @@ import java.util.Map;
 public class PersistentAuditEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persistentAuditEventSequenceGenerator")
+    @SequenceGenerator(name = "persistentAuditEventSequenceGenerator",
+        sequenceName = "persistent_audit_event_sequence", allocationSize = 50)
     @Column(name = "event_id")
     private Long id;
 
@@ -25,10 +30,18 @@ public class PersistentAuditEvent {
 
     @Column(name = "event_date")
     private LocalDateTime auditEventDate;
+
+    /**
+     * Partition key: the first day of the month of the event date.
+     */
+    @Column(name = "event_month")
+    private LocalDate eventMonth;
+
     @Column(name = "event_type")
     private String auditEventType;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @MapKeyColumn(name = "name")
     @Column(name = "value")
     @CollectionTable(name = "jhi_persistent_audit_evt_data", joinColumns=@JoinColumn(name="event_id"))
@@ -58,6 +71,20 @@ public class PersistentAuditEvent {
         this.auditEventDate = auditEventDate;
     }
 
+    public LocalDate getEventMonth() {
+        return eventMonth;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateEventMonth() {
+        eventMonth = auditEventDate == null ? null : monthOf(auditEventDate);
+    }
+
+    public static LocalDate monthOf(LocalDateTime date) {
+        return date.toLocalDate().withDayOfMonth(1);
+    }
+
     public String getAuditEventType() {
         return auditEventType;
     }
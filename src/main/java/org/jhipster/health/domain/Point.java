@@ -21,7 +21,8 @@ import java.util.Objects;
 public class Point implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pointSequenceGenerator")
+    @SequenceGenerator(name = "pointSequenceGenerator", sequenceName = "reading_sequence", allocationSize = 50)
     private Long id;
 
     @Column(name = "date")
@@ -0,0 +1,102 @@
+package org.jhipster.health.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A PointWeeklySummary: the running total of a user's points for one week,
+ * maintained alongside every Point write.
+ */
+@Entity
+@Table(name = "point_weekly_summary",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "week_start"}))
+public class PointWeeklySummary implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @NotNull
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @NotNull
+    @Column(name = "points", nullable = false)
+    private Integer points;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    public PointWeeklySummary() {}
+
+    public PointWeeklySummary(LocalDate weekStart, Integer points, User user) {
+        this.weekStart = weekStart;
+        this.points = points;
+        this.user = user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public Integer getPoints() {
+        return points;
+    }
+
+    public void setPoints(Integer points) {
+        this.points = points;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PointWeeklySummary pointWeeklySummary = (PointWeeklySummary) o;
+        return Objects.equals(id, pointWeeklySummary.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PointWeeklySummary{" +
+            "id=" + id +
+            ", weekStart='" + weekStart + "'" +
+            ", points='" + points + "'" +
+            '}';
+    }
+}
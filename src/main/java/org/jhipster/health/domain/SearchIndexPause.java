@@ -0,0 +1,73 @@
+package org.jhipster.health.domain;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A SearchIndexPause: the search outbox entries of this entity are not drained by any node until the given date,
+ * while its index is rebuilt.
+ */
+@Entity
+@Table(name = "search_index_pause")
+public class SearchIndexPause implements Serializable {
+
+    @NotNull
+    @Id
+    @Column(name = "entity_type", length = 50)
+    private String entityType;
+
+    @NotNull
+    @Column(name = "paused_until", nullable = false)
+    private ZonedDateTime pausedUntil;
+
+    public SearchIndexPause() {}
+
+    public SearchIndexPause(String entityType, ZonedDateTime pausedUntil) {
+        this.entityType = entityType;
+        this.pausedUntil = pausedUntil;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public ZonedDateTime getPausedUntil() {
+        return pausedUntil;
+    }
+
+    public void setPausedUntil(ZonedDateTime pausedUntil) {
+        this.pausedUntil = pausedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SearchIndexPause searchIndexPause = (SearchIndexPause) o;
+        return Objects.equals(entityType, searchIndexPause.entityType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(entityType);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchIndexPause{" +
+            "entityType='" + entityType + "'" +
+            ", pausedUntil='" + pausedUntil + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,149 @@
+package org.jhipster.health.domain;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A SearchOutboxEntry: an entity whose search index must be synchronized with the database,
+ * written in the same transaction as the entity itself. Created, updated and deleted entities get the same entry:
+ * the index is made to match the database, whatever the write was.
+ */
+@Entity
+@Table(name = "search_outbox")
+public class SearchOutboxEntry implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @NotNull
+    @Column(name = "entity_type", length = 50, nullable = false)
+    private String entityType;
+
+    @NotNull
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private ZonedDateTime createdDate;
+
+    @NotNull
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @NotNull
+    @Column(name = "next_attempt_date", nullable = false)
+    private ZonedDateTime nextAttemptDate;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @NotNull
+    @Column(name = "dead_letter", nullable = false)
+    private Boolean deadLetter = false;
+
+    public SearchOutboxEntry() {}
+
+    public SearchOutboxEntry(String entityType, Long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.createdDate = ZonedDateTime.now();
+        this.nextAttemptDate = createdDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public ZonedDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(ZonedDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public ZonedDateTime getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public void setNextAttemptDate(ZonedDateTime nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public Boolean getDeadLetter() {
+        return deadLetter;
+    }
+
+    public void setDeadLetter(Boolean deadLetter) {
+        this.deadLetter = deadLetter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SearchOutboxEntry searchOutboxEntry = (SearchOutboxEntry) o;
+        return Objects.equals(id, searchOutboxEntry.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchOutboxEntry{" +
+            "id=" + id +
+            ", entityType='" + entityType + "'" +
+            ", entityId='" + entityId + "'" +
+            ", attempts='" + attempts + "'" +
+            ", deadLetter='" + deadLetter + "'" +
+            '}';
+    }
+}
@@ -22,7 +22,8 @@ import java.util.Objects;
 public class Weight implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weightSequenceGenerator")
+    @SequenceGenerator(name = "weightSequenceGenerator", sequenceName = "reading_sequence", allocationSize = 50)
     private Long id;
 
     @NotNull
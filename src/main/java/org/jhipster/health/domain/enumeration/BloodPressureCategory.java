@@ -0,0 +1,29 @@
+package org.jhipster.health.domain.enumeration;
+
+/**
+ * The BloodPressureCategory enumeration, after the ACC/AHA guideline: a reading falls in the highest category
+ * reached by either its systolic or its diastolic pressure.
+ */
+public enum BloodPressureCategory {
+    NORMAL, ELEVATED, STAGE_1, STAGE_2, CRISIS;
+
+    public static BloodPressureCategory classify(int systolic, int diastolic) {
+        if (systolic > 180 || diastolic > 120) {
+            return CRISIS;
+        }
+        if (systolic >= 140 || diastolic >= 90) {
+            return STAGE_2;
+        }
+        if (systolic >= 130 || diastolic >= 80) {
+            return STAGE_1;
+        }
+        if (systolic >= 120) {
+            return ELEVATED;
+        }
+        return NORMAL;
+    }
+
+    public boolean isHypertensive() {
+        return compareTo(STAGE_1) >= 0;
+    }
+}
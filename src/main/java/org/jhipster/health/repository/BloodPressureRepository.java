@@ -1,11 +1,16 @@
 package org.jhipster.health.repository;
 
 import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for the BloodPressure entity.
@@ -16,4 +21,56 @@ public interface BloodPressureRepository extends JpaRepository<BloodPressure,Lon
     List<BloodPressure> findByUserIsCurrentUser();
     List<BloodPressure> findAllByTimestampBetweenOrderByTimestampDesc(ZonedDateTime firstDate,
                                                                       ZonedDateTime secondDate);
+
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "and bloodPressure.timestamp between ?1 and ?2 order by bloodPressure.timestamp desc")
+    List<BloodPressure> findAllForCurrentUserByTimestampBetween(ZonedDateTime firstDate, ZonedDateTime secondDate);
+
+    @Query("select bloodPressure.user.login from BloodPressure bloodPressure where bloodPressure.id = ?1")
+    String findUserLoginById(Long id);
+
+    List<BloodPressure> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<BloodPressure> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.timestamp <= ?1 " +
+        "and (bloodPressure.timestamp < ?1 or bloodPressure.id < ?2) order by bloodPressure.timestamp desc, bloodPressure.id desc")
+    List<BloodPressure> findAllBefore(ZonedDateTime timestamp, Long id, Pageable pageable);
+
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "order by bloodPressure.timestamp desc, bloodPressure.id desc")
+    List<BloodPressure> findAllForCurrentUserOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "and bloodPressure.timestamp <= ?1 and (bloodPressure.timestamp < ?1 or bloodPressure.id < ?2) " +
+        "order by bloodPressure.timestamp desc, bloodPressure.id desc")
+    List<BloodPressure> findAllForCurrentUserBefore(ZonedDateTime timestamp, Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(bloodPressure.id, bloodPressure.timestamp, bloodPressure.systolic, bloodPressure.diastolic) " +
+        "from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "order by bloodPressure.timestamp, bloodPressure.id")
+    Stream<List<?>> streamAllForCurrentUser();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(bloodPressure.timestamp, bloodPressure.systolic, bloodPressure.diastolic) " +
+        "from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "and bloodPressure.timestamp between ?1 and ?2 order by bloodPressure.timestamp, bloodPressure.id")
+    Stream<List<?>> streamForCurrentUserByTimestampBetween(ZonedDateTime firstDate, ZonedDateTime secondDate);
+
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.username} " +
+        "and bloodPressure.category in ?1 order by bloodPressure.timestamp desc, bloodPressure.id desc")
+    List<BloodPressure> findAllForCurrentUserByCategoryIn(Collection<BloodPressureCategory> categories, Pageable pageable);
+
+    /**
+     * Count, mean and mean of the squares of the pressures of a user in a period, as
+     * [count, systolic, systolic^2, diastolic, diastolic^2].
+     */
+    @Query("select count(bloodPressure), avg(cast(bloodPressure.systolic as double)), " +
+        "avg(cast(bloodPressure.systolic as double) * bloodPressure.systolic), " +
+        "avg(cast(bloodPressure.diastolic as double)), " +
+        "avg(cast(bloodPressure.diastolic as double) * bloodPressure.diastolic) " +
+        "from BloodPressure bloodPressure where bloodPressure.user.id = ?1 " +
+        "and bloodPressure.timestamp >= ?2 and bloodPressure.timestamp < ?3")
+    List<Object[]> findStatisticsByUserIdAndTimestampBetween(Long userId, ZonedDateTime from, ZonedDateTime to);
 }
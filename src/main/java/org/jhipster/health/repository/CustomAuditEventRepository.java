@@ -1,5 +1,6 @@
 package org.jhipster.health.repository;
 
+import org.jhipster.health.config.audit.AsyncAuditEventWriter;
 import org.jhipster.health.config.audit.AuditEventConverter;
 import org.jhipster.health.domain.PersistentAuditEvent;
 
@@ -7,8 +8,6 @@ import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
 import java.time.Instant;
@@ -19,6 +18,9 @@ import java.util.List;
 
 /**
  * Wraps an implementation of Spring Boot's AuditEventRepository.
+ * <p>
+ * New events are handed to the AsyncAuditEventWriter, so they are persisted in batches off the request thread.
+ * </p>
  */
 @Repository
 public class CustomAuditEventRepository {
@@ -26,6 +28,9 @@ public class CustomAuditEventRepository {
     @Inject
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
+    @Inject
+    private AsyncAuditEventWriter asyncAuditEventWriter;
+
     @Bean
     public AuditEventRepository auditEventRepository() {
         return new AuditEventRepository() {
@@ -52,7 +57,6 @@ public class CustomAuditEventRepository {
             }
 
             @Override
-            @Transactional(propagation = Propagation.REQUIRES_NEW)
             public void add(AuditEvent event) {
                 if (!AUTHORIZATION_FAILURE.equals(event.getType()) &&
                     !ANONYMOUS_USER.equals(event.getPrincipal().toString())) {
@@ -63,7 +67,7 @@ public class CustomAuditEventRepository {
                     Instant instant = Instant.ofEpochMilli(event.getTimestamp().getTime());
                     persistentAuditEvent.setAuditEventDate(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
                     persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-                    persistenceAuditEventRepository.save(persistentAuditEvent);
+                    asyncAuditEventWriter.write(persistentAuditEvent);
                 }
             }
         };
@@ -2,8 +2,11 @@ package org.jhipster.health.repository;
 
 import org.jhipster.health.domain.PersistentAuditEvent;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -16,5 +19,11 @@ public interface PersistenceAuditEventRepository extends JpaRepository<Persisten
 
     List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfter(String principal, LocalDateTime after);
 
-    List<PersistentAuditEvent> findAllByAuditEventDateBetween(LocalDateTime fromDate, LocalDateTime toDate);
+    @Query("select distinct event.eventMonth from PersistentAuditEvent event where event.eventMonth < ?1 " +
+        "order by event.eventMonth")
+    List<LocalDate> findEventMonthsBefore(LocalDate month);
+
+    @Modifying
+    @Query("delete from PersistentAuditEvent event where event.eventMonth = ?1")
+    int deleteAllByEventMonth(LocalDate month);
 }
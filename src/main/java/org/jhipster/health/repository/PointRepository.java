@@ -6,8 +6,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for the Point entity.
@@ -23,4 +25,37 @@ public interface PointRepository extends JpaRepository<Point,Long> {
     Page<Point> findAllByOrderByDateDesc(Pageable pageable);
 
     List<Point> findAllByDateBetween(LocalDate firstDate, LocalDate secondDate);
+
+    @Query("select distinct point.user.id from Point point where point.user.id > ?1 order by point.user.id")
+    List<Long> findUserIdsAfter(Long userId, Pageable pageable);
+
+    @Query("select point.user.id, point.date, " +
+        "sum(coalesce(point.exercise, 0) + coalesce(point.meals, 0) + coalesce(point.alcohol, 0)) from Point point " +
+        "where point.user.id in ?1 group by point.user.id, point.date")
+    List<Object[]> sumPointsByUserAndDate(List<Long> userIds);
+
+    @Query("select point.user.login from Point point where point.id = ?1")
+    String findUserLoginById(Long id);
+
+    List<Point> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // the keyset pages skip the points without a date: the cursor holds the date of the last point
+    List<Point> findAllByDateNotNullOrderByDateDescIdDesc(Pageable pageable);
+
+    @Query("select point from Point point where point.date <= ?1 and (point.date < ?1 or point.id < ?2) " +
+        "order by point.date desc, point.id desc")
+    List<Point> findAllBefore(LocalDate date, Long id, Pageable pageable);
+
+    @Query("select point from Point point where point.user.login = ?#{principal.username} " +
+        "and point.date is not null order by point.date desc, point.id desc")
+    List<Point> findAllForCurrentUserOrderByDateDescIdDesc(Pageable pageable);
+
+    @Query("select point from Point point where point.user.login = ?#{principal.username} " +
+        "and point.date <= ?1 and (point.date < ?1 or point.id < ?2) order by point.date desc, point.id desc")
+    List<Point> findAllForCurrentUserBefore(LocalDate date, Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(point.id, point.date, point.exercise, point.meals, point.alcohol, point.notes) " +
+        "from Point point where point.user.login = ?#{principal.username} order by point.date, point.id")
+    Stream<List<?>> streamAllForCurrentUser();
 }
@@ -0,0 +1,45 @@
+package org.jhipster.health.repository;
+
+import org.jhipster.health.domain.PointWeeklySummary;
+
+import org.springframework.data.jpa.repository.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for the PointWeeklySummary entity.
+ */
+public interface PointWeeklySummaryRepository extends JpaRepository<PointWeeklySummary,Long> {
+
+    @Query("select summary from PointWeeklySummary summary " +
+        "where summary.user.login = ?#{principal.username} and summary.weekStart = ?1")
+    Optional<PointWeeklySummary> findOneForCurrentUserByWeekStart(LocalDate weekStart);
+
+    @Query("select summary from PointWeeklySummary summary " +
+        "where summary.user.login = ?#{principal.username} and summary.weekStart between ?1 and ?2 " +
+        "order by summary.weekStart")
+    List<PointWeeklySummary> findAllForCurrentUserByWeekStartBetween(LocalDate firstWeek, LocalDate lastWeek);
+
+    @Query("select summary.weekStart, summary.points from PointWeeklySummary summary " +
+        "where summary.user.login = ?#{principal.username} and summary.points <> 0 order by summary.weekStart")
+    List<Object[]> findWeeklyPointsForCurrentUser();
+
+    @Query("select summary.user.id, summary.weekStart, summary.points from PointWeeklySummary summary " +
+        "where summary.user.id in ?1")
+    List<Object[]> findWeeklyPointsByUserIdIn(List<Long> userIds);
+
+    @Modifying
+    @Query("update PointWeeklySummary summary set summary.points = summary.points + ?3 " +
+        "where summary.user.id = ?1 and summary.weekStart = ?2")
+    int addPoints(Long userId, LocalDate weekStart, int points);
+
+    @Modifying
+    @Query("delete from PointWeeklySummary summary where summary.user.id in ?1")
+    int deleteAllByUserIdIn(List<Long> userIds);
+
+    @Query("select distinct summary.user.id from PointWeeklySummary summary where summary.user.id not in " +
+        "(select distinct point.user.id from Point point where point.user is not null) order by summary.user.id")
+    List<Long> findUserIdsWithoutPoints();
+}
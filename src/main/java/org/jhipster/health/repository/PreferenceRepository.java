@@ -2,13 +2,24 @@ package org.jhipster.health.repository;
 
 import org.jhipster.health.domain.Preference;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the Preference entity.
  */
 public interface PreferenceRepository extends JpaRepository<Preference,Long> {
 
+    List<Preference> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select preference.id, preference.weeklyGoal, preference.weightUnits from User owner " +
+        "join owner.preference preference where owner.login = ?#{principal.username}")
+    List<Object[]> findAllValuesForCurrentUser();
+
+    @Query("select preference from User owner join owner.preference preference " +
+        "where owner.login = ?#{principal.username}")
+    Optional<Preference> findOneForCurrentUser();
 }
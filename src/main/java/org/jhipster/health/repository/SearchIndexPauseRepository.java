@@ -0,0 +1,17 @@
+package org.jhipster.health.repository;
+
+import org.jhipster.health.domain.SearchIndexPause;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Spring Data JPA repository for the SearchIndexPause entity.
+ */
+public interface SearchIndexPauseRepository extends JpaRepository<SearchIndexPause, String> {
+
+    @Modifying
+    @Query("delete from SearchIndexPause pause where pause.entityType = ?1")
+    int deleteByEntityType(String entityType);
+}
@@ -0,0 +1,45 @@
+package org.jhipster.health.repository;
+
+import org.jhipster.health.domain.SearchOutboxEntry;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for the SearchOutboxEntry entity.
+ */
+public interface SearchOutboxEntryRepository extends JpaRepository<SearchOutboxEntry,Long> {
+
+    /**
+     * Find the due entries, except the ones of the entities whose index is being rebuilt.
+     */
+    @Query("select entry.id from SearchOutboxEntry entry " +
+        "where entry.nextAttemptDate < ?1 and entry.deadLetter = false and entry.entityType not in " +
+        "(select pause.entityType from SearchIndexPause pause where pause.pausedUntil > ?1) " +
+        "order by entry.id")
+    List<Long> findIdsToClaim(ZonedDateTime dateTime, Pageable pageable);
+
+    /**
+     * Claim the entries that are still due: an entry claimed by another node in the meantime has a later next
+     * attempt date, and is not claimed again until that node's lease expires.
+     */
+    @Modifying
+    @Query("update SearchOutboxEntry entry set entry.claimToken = ?1, entry.nextAttemptDate = ?2 " +
+        "where entry.id in ?3 and entry.nextAttemptDate < ?4 and entry.deadLetter = false")
+    int claim(String claimToken, ZonedDateTime leaseEnd, Collection<Long> ids, ZonedDateTime dateTime);
+
+    List<SearchOutboxEntry> findAllByClaimToken(String claimToken);
+
+    @Modifying
+    @Query("delete from SearchOutboxEntry entry where entry.claimToken = ?1 and entry.id in ?2")
+    int deleteClaimed(String claimToken, Collection<Long> ids);
+
+    long countByDeadLetter(Boolean deadLetter);
+
+    Optional<SearchOutboxEntry> findFirstByDeadLetterOrderByIdAsc(Boolean deadLetter);
+}
@@ -3,9 +3,13 @@ package org.jhipster.health.repository;
 import org.jhipster.health.domain.User;
 
 import java.time.ZonedDateTime;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +30,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findOneById(Long userId);
 
+    Optional<User> findOneByPreferenceId(Long preferenceId);
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<User> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
     @Override
     void delete(User t);
 
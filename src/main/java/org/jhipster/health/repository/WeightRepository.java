@@ -6,8 +6,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for the Weight entity.
@@ -20,4 +22,45 @@ public interface WeightRepository extends JpaRepository<Weight,Long> {
     Page<Weight> findAllByOrderByTimestampDesc(Pageable pageable);
 
     List<Weight> findAllByTimestampBetweenOrderByTimestampDesc(ZonedDateTime firstDate, ZonedDateTime secondDate);
+
+    @Query("select weight from Weight weight where weight.user.login = ?#{principal.username} " +
+        "and weight.timestamp between ?1 and ?2 order by weight.timestamp desc")
+    List<Weight> findAllForCurrentUserByTimestampBetween(ZonedDateTime firstDate, ZonedDateTime secondDate);
+
+    @Query("select weight.user.login from Weight weight where weight.id = ?1")
+    String findUserLoginById(Long id);
+
+    List<Weight> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Weight> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query("select weight from Weight weight where weight.timestamp <= ?1 " +
+        "and (weight.timestamp < ?1 or weight.id < ?2) order by weight.timestamp desc, weight.id desc")
+    List<Weight> findAllBefore(ZonedDateTime timestamp, Long id, Pageable pageable);
+
+    @Query("select weight from Weight weight where weight.user.login = ?#{principal.username} " +
+        "order by weight.timestamp desc, weight.id desc")
+    List<Weight> findAllForCurrentUserOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query("select weight from Weight weight where weight.user.login = ?#{principal.username} " +
+        "and weight.timestamp <= ?1 and (weight.timestamp < ?1 or weight.id < ?2) " +
+        "order by weight.timestamp desc, weight.id desc")
+    List<Weight> findAllForCurrentUserBefore(ZonedDateTime timestamp, Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(weight.id, weight.timestamp, weight.weight) from Weight weight " +
+        "where weight.user.login = ?#{principal.username} order by weight.timestamp, weight.id")
+    Stream<List<?>> streamAllForCurrentUser();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(weight.timestamp, weight.weight) from Weight weight " +
+        "where weight.user.login = ?#{principal.username} and weight.timestamp between ?1 and ?2 " +
+        "order by weight.timestamp, weight.id")
+    Stream<List<?>> streamForCurrentUserByTimestampBetween(ZonedDateTime firstDate, ZonedDateTime secondDate);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new list(weight.timestamp, weight.weight) from Weight weight " +
+        "where weight.user.login = ?#{principal.username} and weight.timestamp >= ?1 " +
+        "order by weight.timestamp, weight.id")
+    Stream<List<?>> streamForCurrentUserSince(ZonedDateTime firstDate);
 }
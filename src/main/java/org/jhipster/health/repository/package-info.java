@@ -1,4 +1,8 @@
 /**
  * Spring Data JPA repositories.
+ * <p>
+ * The streaming queries select one list per row: the streams of Spring Data JPA only return the first selected
+ * value of each row.
+ * </p>
  */
 package org.jhipster.health.repository;
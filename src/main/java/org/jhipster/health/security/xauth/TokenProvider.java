@@ -3,17 +3,73 @@ package org.jhipster.health.security.xauth;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.codec.Hex;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class TokenProvider {
 
+    public static final String MD5 = "MD5";
+
+    public static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final byte SEPARATOR = ':';
+
     private final String secretKey;
     private final int tokenValidity;
+    private final String signatureAlgorithm;
+    private final int verifiedTokenCacheSize;
+
+    private final ThreadLocal<MessageDigest> digests;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Tokens whose signature has already been checked, with the password hash they were checked against:
+     * a password change produces a different hash, so the token is verified again (and rejected).
+     */
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
     public TokenProvider(String secretKey, int tokenValidity) {
+        this(secretKey, tokenValidity, MD5, 10000);
+    }
+
+    public TokenProvider(String secretKey, int tokenValidity, String signatureAlgorithm, int verifiedTokenCacheSize) {
         this.secretKey = secretKey;
         this.tokenValidity = tokenValidity;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+        if (HMAC_SHA256.equals(signatureAlgorithm)) {
+            SecretKeySpec keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+            this.digests = null;
+            this.macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(HMAC_SHA256);
+                    mac.init(keySpec);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("No " + HMAC_SHA256 + " algorithm available!", e);
+                }
+            });
+        } else if (MD5.equals(signatureAlgorithm)) {
+            this.macs = null;
+            this.digests = ThreadLocal.withInitial(() -> {
+                try {
+                    return MessageDigest.getInstance(MD5);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("No MD5 algorithm available!");
+                }
+            });
+        } else {
+            throw new IllegalArgumentException("Unsupported token signature algorithm: " + signatureAlgorithm);
+        }
+        // fail fast rather than on the first request
+        computeSignature("", 0L, "");
     }
 
     public Token createToken(UserDetails userDetails) {
@@ -23,18 +79,28 @@ public class TokenProvider {
     }
 
     public String computeSignature(UserDetails userDetails, long expires) {
+        return computeSignature(userDetails.getUsername(), expires, userDetails.getPassword());
+    }
+
+    private String computeSignature(String username, long expires, String password) {
+        if (macs != null) {
+            // the secret is the MAC key, so the fields are fed directly without building a string
+            Mac mac = macs.get();
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update(SEPARATOR);
+            mac.update(Long.toString(expires).getBytes(StandardCharsets.US_ASCII));
+            mac.update(SEPARATOR);
+            mac.update(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+            return new String(Hex.encode(mac.doFinal()));
+        }
         StringBuilder signatureBuilder = new StringBuilder();
-        signatureBuilder.append(userDetails.getUsername()).append(":");
+        signatureBuilder.append(username).append(":");
         signatureBuilder.append(expires).append(":");
-        signatureBuilder.append(userDetails.getPassword()).append(":");
+        signatureBuilder.append(password).append(":");
         signatureBuilder.append(secretKey);
 
-        MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("No MD5 algorithm available!");
-        }
+        MessageDigest digest = digests.get();
+        digest.reset();
         return new String(Hex.encode(digest.digest(signatureBuilder.toString().getBytes())));
     }
 
@@ -47,11 +113,58 @@ public class TokenProvider {
     }
 
     public boolean validateToken(String authToken, UserDetails userDetails) {
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = verifiedTokens.get(authToken);
+        if (verified != null) {
+            if (verified.expires < now) {
+                verifiedTokens.remove(authToken, verified);
+                return false;
+            }
+            if (verified.matches(userDetails)) {
+                return true;
+            }
+        }
         String[] parts = authToken.split(":");
-        long expires = Long.parseLong(parts[1]);
+        if (parts.length != 3) {
+            return false;
+        }
+        long expires;
+        try {
+            expires = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expires < now) {
+            return false;
+        }
         String signature = parts[2];
         String signatureToMatch = computeSignature(userDetails, expires);
-        return expires >= System.currentTimeMillis() && constantTimeEquals(signature, signatureToMatch);
+        if (!constantTimeEquals(signature, signatureToMatch)) {
+            return false;
+        }
+        remember(authToken, new VerifiedToken(expires, userDetails.getUsername(), userDetails.getPassword()), now);
+        return true;
+    }
+
+    /**
+     * Forgets every verified token, for instance after the signing secret has been rotated.
+     */
+    public void clearVerifiedTokens() {
+        verifiedTokens.clear();
+    }
+
+    private void remember(String authToken, VerifiedToken verified, long now) {
+        if (verifiedTokenCacheSize <= 0) {
+            return;
+        }
+        if (verifiedTokens.size() >= verifiedTokenCacheSize) {
+            verifiedTokens.values().removeIf(entry -> entry.expires < now);
+            if (verifiedTokens.size() >= verifiedTokenCacheSize) {
+                // every entry is still live: start over rather than tracking recency on the hot path
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(authToken, verified);
     }
 
     /**
@@ -70,4 +183,24 @@ public class TokenProvider {
         }
     }
 
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    private static final class VerifiedToken {
+
+        private final long expires;
+        private final String username;
+        private final String password;
+
+        private VerifiedToken(long expires, String username, String password) {
+            this.expires = expires;
+            this.username = username;
+            this.password = password;
+        }
+
+        private boolean matches(UserDetails userDetails) {
+            return username.equals(userDetails.getUsername()) && Objects.equals(password, userDetails.getPassword());
+        }
+    }
 }
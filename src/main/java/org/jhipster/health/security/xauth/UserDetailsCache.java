@@ -0,0 +1,94 @@
+package org.jhipster.health.security.xauth;
+
+import org.jhipster.health.service.util.EvictionUtil;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, time-limited cache of the UserDetails resolved for x-auth-token requests, keyed by login.
+ * <p>
+ * A cached entry carries the password hash the token signatures are checked against, so it must be
+ * evicted whenever the user's password, authorities or activation change.
+ * </p>
+ * <p>
+ * Only the changes made on this node evict the user. After a change made on another node, the entry is used until
+ * it expires, "jhipster.security.authentication.xauth.userDetailsCacheTimeToLiveInSeconds" after it was cached at
+ * most: a deactivated user, or one whose authorities changed, is authenticated as before until then, and so are the
+ * tokens signed with a previous password. Only the tokens signed with a new password do not match the entry, and
+ * load the user again.
+ * </p>
+ */
+public class UserDetailsCache {
+
+    private final int maxSize;
+
+    private final long timeToLiveInMillis;
+
+    private final Map<String, Entry> entries;
+
+    public UserDetailsCache(int maxSize, int timeToLiveInSeconds) {
+        this.maxSize = maxSize;
+        this.timeToLiveInMillis = 1000L * timeToLiveInSeconds;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDetailsCache.this.maxSize;
+            }
+        };
+    }
+
+    public UserDetails get(String login) {
+        String key = login.toLowerCase();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expires <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.details;
+        }
+    }
+
+    public void put(String login, UserDetails details) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(login.toLowerCase(), new Entry(details, System.currentTimeMillis() + timeToLiveInMillis));
+        }
+    }
+
+    /**
+     * Evict the user now and, when called in a transaction, again once it completes, so a request
+     * running concurrently cannot cache the user as it was before the change.
+     */
+    public void evict(String login) {
+        if (login == null) {
+            return;
+        }
+        EvictionUtil.evictNowAndAfterCompletion(() -> remove(login));
+    }
+
+    private void remove(String login) {
+        synchronized (entries) {
+            entries.remove(login.toLowerCase());
+        }
+    }
+
+    private static class Entry {
+
+        private final UserDetails details;
+
+        private final long expires;
+
+        Entry(UserDetails details, long expires) {
+            this.details = details;
+            this.expires = expires;
+        }
+    }
+}
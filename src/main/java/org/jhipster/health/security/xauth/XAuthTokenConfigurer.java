@@ -12,14 +12,18 @@ public class XAuthTokenConfigurer extends SecurityConfigurerAdapter<DefaultSecur
 
     private UserDetailsService detailsService;
 
-    public XAuthTokenConfigurer(UserDetailsService detailsService, TokenProvider tokenProvider) {
+    private UserDetailsCache userDetailsCache;
+
+    public XAuthTokenConfigurer(UserDetailsService detailsService, TokenProvider tokenProvider,
+                                UserDetailsCache userDetailsCache) {
         this.detailsService = detailsService;
         this.tokenProvider = tokenProvider;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public void configure(HttpSecurity http) throws Exception {
-        XAuthTokenFilter customFilter = new XAuthTokenFilter(detailsService, tokenProvider);
+        XAuthTokenFilter customFilter = new XAuthTokenFilter(detailsService, tokenProvider, userDetailsCache);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
@@ -26,9 +26,13 @@ public class XAuthTokenFilter extends GenericFilterBean {
 
     private TokenProvider tokenProvider;
 
-    public XAuthTokenFilter(UserDetailsService detailsService, TokenProvider tokenProvider) {
+    private UserDetailsCache userDetailsCache;
+
+    public XAuthTokenFilter(UserDetailsService detailsService, TokenProvider tokenProvider,
+                            UserDetailsCache userDetailsCache) {
         this.detailsService = detailsService;
         this.tokenProvider = tokenProvider;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
@@ -38,8 +42,17 @@ public class XAuthTokenFilter extends GenericFilterBean {
             String authToken = httpServletRequest.getHeader(XAUTH_TOKEN_HEADER_NAME);
             if (StringUtils.hasText(authToken)) {
                 String username = this.tokenProvider.getUserNameFromToken(authToken);
-                UserDetails details = this.detailsService.loadUserByUsername(username);
-                if (this.tokenProvider.validateToken(authToken, details)) {
+                UserDetails details = this.userDetailsCache.get(username);
+                boolean valid = details != null && this.tokenProvider.validateToken(authToken, details);
+                if (!valid) {
+                    // not cached, or cached before the password was changed on another node: check the database
+                    details = this.detailsService.loadUserByUsername(username);
+                    valid = this.tokenProvider.validateToken(authToken, details);
+                    if (valid) {
+                        this.userDetailsCache.put(username, details);
+                    }
+                }
+                if (valid) {
                     UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(details, details.getPassword(), details.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(token);
                 }
@@ -0,0 +1,74 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.repository.PersistenceAuditEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service class for removing the audit events older than the retention period.
+ * <p>
+ * Events are removed a whole month (partition) at a time, one transaction per month, and their data
+ * is removed with them by the database.
+ * </p>
+ */
+@Service
+public class AuditEventRetentionService {
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventRetentionService.class);
+
+    @Inject
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Months entirely older than "jhipster.audit.retentionMonths" are deleted.
+     * <p/>
+     * <p>
+     * This is scheduled to get fired everyday, at 01:30 (am).
+     * </p>
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void removeExpiredAuditEvents() {
+        int retentionMonths = jHipsterProperties.getAudit().getRetentionMonths();
+        if (retentionMonths <= 0) {
+            return;
+        }
+        removeAuditEventsBefore(LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths));
+    }
+
+    /**
+     * Delete the months of audit events before the given month.
+     *
+     * @return the number of deleted events
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int removeAuditEventsBefore(LocalDate month) {
+        List<LocalDate> expiredMonths = persistenceAuditEventRepository.findEventMonthsBefore(month);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+        for (LocalDate expiredMonth : expiredMonths) {
+            Integer events = transactionTemplate.execute(status ->
+                persistenceAuditEventRepository.deleteAllByEventMonth(expiredMonth));
+            log.info("Deleted {} audit events of {}", events, expiredMonth);
+            deleted += events;
+        }
+        return deleted;
+    }
+}
@@ -3,14 +3,20 @@ package org.jhipster.health.service;
 import org.jhipster.health.config.audit.AuditEventConverter;
 import org.jhipster.health.domain.PersistentAuditEvent;
 import org.jhipster.health.repository.PersistenceAuditEventRepository;
+import org.jhipster.health.web.rest.util.KeysetCursor;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service for managing audit events.
@@ -18,37 +24,149 @@ import java.util.Optional;
  * <p>
  * This is the default implementation to support SpringBoot Actuator AuditEventRepository
  * </p>
+ * <p>
+ * Listings are read one keyset page at a time, or streamed, newest first, so that no request holds a whole
+ * range of events in memory. Events are converted only once they are returned.
+ * </p>
+ * <p>
+ * The queries only hold the predicates of the filters that are set, so that each combination of filters gets
+ * its own plan, on the (principal, event_date) or the (event_month, event_date) index.
+ * </p>
  */
 @Service
 @Transactional
 public class AuditEventService {
 
+    private static final int STREAM_PAGE_SIZE = 500;
+
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private AuditEventConverter auditEventConverter;
 
+    private EntityManager entityManager;
+
     @Inject
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventConverter auditEventConverter,
+        EntityManager entityManager) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.entityManager = entityManager;
     }
 
-    public List<AuditEvent> findAll() {
-        return auditEventConverter.convertToAuditEvent(persistenceAuditEventRepository.findAll());
+    /**
+     * Find a page of events matching the filters, which are all optional.
+     *
+     * @param after the position of the last event of the previous page, or null for the first page
+     * @param size the maximum number of events of the page
+     */
+    @Transactional(readOnly = true)
+    public AuditEventPage findAll(String principal, String type, LocalDateTime fromDate, LocalDateTime toDate,
+                                  KeysetCursor<LocalDateTime> after, int size) {
+        // one extra row tells whether there is a next page, without a count query
+        List<PersistentAuditEvent> persistentAuditEvents = findPage(principal, type, fromDate, toDate,
+            after == null ? null : after.getKey(), after == null ? null : after.getId(), size + 1);
+        String nextCursor = null;
+        if (persistentAuditEvents.size() > size) {
+            persistentAuditEvents = persistentAuditEvents.subList(0, size);
+            PersistentAuditEvent last = persistentAuditEvents.get(size - 1);
+            nextCursor = KeysetCursor.format(last.getAuditEventDate(), last.getId());
+        }
+        return new AuditEventPage(auditEventConverter.convertToAuditEvent(persistentAuditEvents), nextCursor);
     }
 
-    public List<AuditEvent> findByDates(LocalDateTime fromDate, LocalDateTime toDate) {
-        List<PersistentAuditEvent> persistentAuditEvents =
-            persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate);
-
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+    /**
+     * Pass every event matching the filters to the consumer, newest first.
+     * <p>
+     * The events are read {@value #STREAM_PAGE_SIZE} at a time, with the same keyset pagination as the pages,
+     * and detached once converted, so the persistence context does not grow with the number of events.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(String principal, String type, LocalDateTime fromDate, LocalDateTime toDate,
+                          Consumer<AuditEvent> consumer) {
+        List<PersistentAuditEvent> persistentAuditEvents = findPage(principal, type, fromDate, toDate, null, null,
+            STREAM_PAGE_SIZE);
+        while (!persistentAuditEvents.isEmpty()) {
+            for (PersistentAuditEvent persistentAuditEvent : persistentAuditEvents) {
+                consumer.accept(auditEventConverter.convertToAuditEvent(persistentAuditEvent));
+                entityManager.detach(persistentAuditEvent);
+            }
+            if (persistentAuditEvents.size() < STREAM_PAGE_SIZE) {
+                break;
+            }
+            PersistentAuditEvent last = persistentAuditEvents.get(persistentAuditEvents.size() - 1);
+            persistentAuditEvents = findPage(principal, type, fromDate, toDate, last.getAuditEventDate(),
+                last.getId(), STREAM_PAGE_SIZE);
+        }
     }
 
     public Optional<AuditEvent> find(Long id) {
         return Optional.ofNullable(persistenceAuditEventRepository.findOne(id)).map
             (auditEventConverter::convertToAuditEvent);
     }
+
+    /**
+     * Find the events matching the filters that are set, newest first, before the given event if any. The date
+     * range is also restricted to its months (partitions).
+     */
+    private List<PersistentAuditEvent> findPage(String principal, String type, LocalDateTime fromDate,
+                                                LocalDateTime toDate, LocalDateTime beforeDate, Long beforeId,
+                                                int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PersistentAuditEvent> query = builder.createQuery(PersistentAuditEvent.class);
+        Root<PersistentAuditEvent> event = query.from(PersistentAuditEvent.class);
+        Path<LocalDateTime> date = event.get("auditEventDate");
+        Path<LocalDate> month = event.get("eventMonth");
+        Path<Long> id = event.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        if (principal != null) {
+            predicates.add(builder.equal(event.get("principal"), principal));
+        }
+        if (type != null) {
+            predicates.add(builder.equal(event.get("auditEventType"), type));
+        }
+        if (fromDate != null) {
+            predicates.add(builder.greaterThanOrEqualTo(date, fromDate));
+            predicates.add(builder.greaterThanOrEqualTo(month, PersistentAuditEvent.monthOf(fromDate)));
+        }
+        if (toDate != null) {
+            predicates.add(builder.lessThanOrEqualTo(date, toDate));
+            predicates.add(builder.lessThanOrEqualTo(month, PersistentAuditEvent.monthOf(toDate)));
+        }
+        if (beforeDate != null) {
+            // the leading range on the date lets the index seek to the cursor
+            predicates.add(builder.lessThanOrEqualTo(date, beforeDate));
+            predicates.add(builder.or(builder.lessThan(date, beforeDate), builder.lessThan(id, beforeId)));
+        }
+        query.select(event)
+            .where(predicates.toArray(new Predicate[predicates.size()]))
+            .orderBy(builder.desc(date), builder.desc(id));
+        return entityManager.createQuery(query).setMaxResults(size).getResultList();
+    }
+
+    /**
+     * A page of events, with the cursor of the next page if there is one.
+     */
+    public static class AuditEventPage {
+
+        private final List<AuditEvent> content;
+
+        private final String nextCursor;
+
+        public AuditEventPage(List<AuditEvent> content, String nextCursor) {
+            this.content = content;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<AuditEvent> getContent() {
+            return content;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
 }
@@ -0,0 +1,365 @@
+package org.jhipster.health.service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.service.util.EvictionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks new blood pressure readings in the background, and mails the readings that need attention to their user.
+ * <p>
+ * New readings are queued once their transaction commits, and checked every "jhipster.bloodPressureAlerts.drainInterval"
+ * milliseconds on the "taskExecutor" of AsyncConfiguration, with one e-mail per user. A reading is flagged when it is in
+ * hypertensive crisis, or more than "jhipster.bloodPressureAlerts.threshold" standard deviations away from the running
+ * baseline of its user. A baseline is first read from the readings of the last "baselineDays" days, in one aggregate
+ * query, then updated in memory by each checked reading.
+ * </p>
+ */
+@Service
+public class BloodPressureAlertService {
+
+    /**
+     * Smallest standard deviation of a baseline, in mmHg, so a very regular user is not alerted for usual variations.
+     */
+    private static final double MIN_DEVIATION = 5;
+
+    /**
+     * Number of readings after which the baseline moves as an exponentially weighted average.
+     */
+    private static final int BASELINE_READINGS = 30;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Logger log = LoggerFactory.getLogger(BloodPressureAlertService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private MailService mailService;
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    private BlockingQueue<Reading> queue;
+
+    private Map<Long, Baseline> baselines;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private Meter droppedMeter = new Meter();
+
+    private Meter flaggedMeter = new Meter();
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.BloodPressureAlerts properties = jHipsterProperties.getBloodPressureAlerts();
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        int cacheSize = properties.getCacheSize();
+        baselines = new LinkedHashMap<Long, Baseline>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Baseline> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        if (metricRegistry != null) {
+            droppedMeter = metricRegistry.meter(MetricRegistry.name(BloodPressureAlertService.class, "dropped"));
+            flaggedMeter = metricRegistry.meter(MetricRegistry.name(BloodPressureAlertService.class, "flagged"));
+            metricRegistry.register(MetricRegistry.name(BloodPressureAlertService.class, "queued"),
+                (Gauge<Integer>) () -> queue.size());
+        }
+    }
+
+    /**
+     * Queue a new reading to be checked, once the transaction saving it commits.
+     */
+    public void added(BloodPressure bloodPressure) {
+        if (!jHipsterProperties.getBloodPressureAlerts().isEnabled() || bloodPressure.getUser() == null
+            || bloodPressure.getUser().getId() == null || bloodPressure.getTimestamp() == null
+            || bloodPressure.getSystolic() == null || bloodPressure.getDiastolic() == null) {
+            return;
+        }
+        Reading reading = new Reading(bloodPressure.getUser().getId(), bloodPressure.getTimestamp(),
+            bloodPressure.getSystolic(), bloodPressure.getDiastolic());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    offer(reading);
+                }
+            });
+        } else {
+            offer(reading);
+        }
+    }
+
+    /**
+     * Drop the baseline of a user whose past readings are changed, now and, when called in a transaction, again
+     * once it completes, so it is read again from the table.
+     */
+    public void evictBaseline(User owner) {
+        if (owner == null || owner.getId() == null) {
+            return;
+        }
+        Long userId = owner.getId();
+        EvictionUtil.evictNowAndAfterCompletion(() -> removeBaseline(userId));
+    }
+
+    /**
+     * The queued readings are checked regularly.
+     * <p>
+     * This is scheduled to get fired every "jhipster.bloodPressureAlerts.drainInterval" milliseconds (every minute by
+     * default).
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${jhipster.bloodPressureAlerts.drainInterval:60000}")
+    public void requestDrain() {
+        if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        drain();
+                    } finally {
+                        draining.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                log.warn("Could not schedule a check of the blood pressure readings: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check all the queued readings, and send one e-mail per user with flagged readings.
+     */
+    public void drain() {
+        List<Reading> readings = new ArrayList<>(queue.size());
+        queue.drainTo(readings);
+        Map<Long, List<Alert>> alerts = new LinkedHashMap<>();
+        for (Reading reading : readings) {
+            try {
+                Alert alert = check(reading);
+                if (alert != null) {
+                    alerts.computeIfAbsent(reading.userId, id -> new ArrayList<>()).add(alert);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not check a blood pressure reading of user {}: {}", reading.userId, e.getMessage());
+            }
+        }
+        alerts.forEach((userId, userAlerts) -> {
+            User user = userRepository.findOne(userId);
+            if (user == null || user.getEmail() == null) {
+                return;
+            }
+            flaggedMeter.mark(userAlerts.size());
+            mailService.sendBloodPressureAlertEmail(user, userAlerts);
+        });
+        log.debug("Checked {} blood pressure readings, alerted {} users", readings.size(), alerts.size());
+    }
+
+    private void offer(Reading reading) {
+        if (!queue.offer(reading)) {
+            droppedMeter.mark();
+            log.debug("Blood pressure alert queue is full, a reading of user {} is not checked", reading.userId);
+        }
+    }
+
+    private Alert check(Reading reading) {
+        JHipsterProperties.BloodPressureAlerts properties = jHipsterProperties.getBloodPressureAlerts();
+        Baseline baseline = getBaseline(reading);
+        boolean outlier;
+        synchronized (baseline) {
+            outlier = baseline.count >= properties.getMinReadings()
+                && (baseline.systolic.isOutlier(reading.systolic, properties.getThreshold())
+                || baseline.diastolic.isOutlier(reading.diastolic, properties.getThreshold()));
+            baseline.add(reading.systolic, reading.diastolic);
+        }
+        BloodPressureCategory category = BloodPressureCategory.classify(reading.systolic, reading.diastolic);
+        if (!outlier && category != BloodPressureCategory.CRISIS) {
+            return null;
+        }
+        return new Alert(reading.timestamp.withZoneSameInstant(ZoneId.systemDefault()).format(TIMESTAMP_FORMAT),
+            reading.systolic, reading.diastolic, category, outlier);
+    }
+
+    private Baseline getBaseline(Reading reading) {
+        Baseline baseline;
+        synchronized (baselines) {
+            baseline = baselines.get(reading.userId);
+        }
+        if (baseline == null) {
+            // the readings before this one, as the later ones are checked after it
+            ZonedDateTime from = reading.timestamp.minusDays(jHipsterProperties.getBloodPressureAlerts().getBaselineDays());
+            Object[] statistics = bloodPressureRepository
+                .findStatisticsByUserIdAndTimestampBetween(reading.userId, from, reading.timestamp).get(0);
+            baseline = new Baseline(statistics);
+            synchronized (baselines) {
+                baselines.put(reading.userId, baseline);
+            }
+        }
+        return baseline;
+    }
+
+    private void removeBaseline(Long userId) {
+        synchronized (baselines) {
+            baselines.remove(userId);
+        }
+    }
+
+    /**
+     * A flagged reading, as shown in the e-mail.
+     */
+    public static class Alert {
+
+        private final String timestamp;
+
+        private final int systolic;
+
+        private final int diastolic;
+
+        private final BloodPressureCategory category;
+
+        private final boolean outlier;
+
+        public Alert(String timestamp, int systolic, int diastolic, BloodPressureCategory category, boolean outlier) {
+            this.timestamp = timestamp;
+            this.systolic = systolic;
+            this.diastolic = diastolic;
+            this.category = category;
+            this.outlier = outlier;
+        }
+
+        public String getTimestamp() {
+            return timestamp;
+        }
+
+        public int getSystolic() {
+            return systolic;
+        }
+
+        public int getDiastolic() {
+            return diastolic;
+        }
+
+        public BloodPressureCategory getCategory() {
+            return category;
+        }
+
+        public boolean isCrisis() {
+            return category == BloodPressureCategory.CRISIS;
+        }
+
+        public boolean isOutlier() {
+            return outlier;
+        }
+    }
+
+    private static final class Reading {
+
+        private final Long userId;
+
+        private final ZonedDateTime timestamp;
+
+        private final int systolic;
+
+        private final int diastolic;
+
+        private Reading(Long userId, ZonedDateTime timestamp, int systolic, int diastolic) {
+            this.userId = userId;
+            this.timestamp = timestamp;
+            this.systolic = systolic;
+            this.diastolic = diastolic;
+        }
+    }
+
+    /**
+     * Mean and variance of the systolic and diastolic pressures of a user.
+     */
+    private static final class Baseline {
+
+        private long count;
+
+        private final Moments systolic;
+
+        private final Moments diastolic;
+
+        /**
+         * @param statistics count, then mean and mean of the squares of the systolic and diastolic pressures
+         */
+        private Baseline(Object[] statistics) {
+            count = ((Number) statistics[0]).longValue();
+            systolic = new Moments(statistics[1], statistics[2]);
+            diastolic = new Moments(statistics[3], statistics[4]);
+        }
+
+        private void add(int systolicValue, int diastolicValue) {
+            count++;
+            // a plain average, then an exponentially weighted one that follows the user's changes
+            double alpha = 1d / Math.min(count, BASELINE_READINGS);
+            systolic.add(systolicValue, alpha);
+            diastolic.add(diastolicValue, alpha);
+        }
+    }
+
+    private static final class Moments {
+
+        private double mean;
+
+        private double meanOfSquares;
+
+        private Moments(Object mean, Object meanOfSquares) {
+            this.mean = mean == null ? 0 : ((Number) mean).doubleValue();
+            this.meanOfSquares = meanOfSquares == null ? 0 : ((Number) meanOfSquares).doubleValue();
+        }
+
+        private void add(double value, double alpha) {
+            mean += alpha * (value - mean);
+            meanOfSquares += alpha * (value * value - meanOfSquares);
+        }
+
+        private boolean isOutlier(double value, double threshold) {
+            double deviation = Math.max(Math.sqrt(Math.max(meanOfSquares - mean * mean, 0)), MIN_DEVIATION);
+            return Math.abs(value - mean) > threshold * deviation;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+
+/**
+ * Service class for managing blood pressures.
+ * <p>
+ * Every write goes through this service so the data versions of the owners and the search outbox are updated
+ * in the same transaction, new readings are checked for alerts once committed, and the baselines of the owners
+ * of changed readings are dropped.
+ * </p>
+ */
+@Service
+@Transactional
+public class BloodPressureService {
+
+    private final Logger log = LoggerFactory.getLogger(BloodPressureService.class);
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private BloodPressureAlertService bloodPressureAlertService;
+
+    public BloodPressure save(BloodPressure bloodPressure) {
+        log.debug("Request to save BloodPressure : {}", bloodPressure);
+        boolean created = bloodPressure.getId() == null;
+        User previousOwner = null;
+        if (!created) {
+            BloodPressure previous = bloodPressureRepository.findOne(bloodPressure.getId());
+            if (previous != null) {
+                previousOwner = previous.getUser();
+                bloodPressureAlertService.evictBaseline(previousOwner);
+            }
+        }
+        BloodPressure result = bloodPressureRepository.save(bloodPressure);
+        userDataVersionService.written(result.getUser(), previousOwner);
+        if (created) {
+            bloodPressureAlertService.added(result);
+        }
+        searchIndexService.index(BloodPressure.class, result.getId());
+        return result;
+    }
+
+    public void delete(Long id) {
+        log.debug("Request to delete BloodPressure : {}", id);
+        BloodPressure bloodPressure = bloodPressureRepository.findOne(id);
+        if (bloodPressure != null) {
+            bloodPressureAlertService.evictBaseline(bloodPressure.getUser());
+        }
+        bloodPressureRepository.delete(id);
+        userDataVersionService.written(bloodPressure == null ? null : bloodPressure.getUser());
+        searchIndexService.delete(BloodPressure.class, id);
+    }
+}
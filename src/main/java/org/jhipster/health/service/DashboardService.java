@@ -0,0 +1,129 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.Preference;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.PreferenceRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.web.rest.dto.BloodPressureByPeriod;
+import org.jhipster.health.web.rest.dto.DashboardDTO;
+import org.jhipster.health.web.rest.dto.PointsPerWeekDTO;
+import org.jhipster.health.web.rest.dto.WeightByPeriod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.time.temporal.ChronoField.DAY_OF_WEEK;
+
+/**
+ * Service class for the home screen of the current user.
+ * <p>
+ * The four lookups run in parallel on the "dashboardExecutor", each in its own read-only transaction, with the
+ * security context of the request: the dashboard takes as long as the slowest of them.
+ * </p>
+ * <p>
+ * When they take longer than the timeout, the lookups that have not started yet are cancelled, so a slow database
+ * does not pile them up on the executor, and a {@link QueryTimeoutException} is thrown, answered with
+ * "503 Service Unavailable".
+ * </p>
+ */
+@Service
+public class DashboardService {
+
+    private final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PointWeeklySummaryService pointWeeklySummaryService;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    @Inject
+    @Qualifier("dashboardExecutor")
+    private Executor dashboardExecutor;
+
+    private Executor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new DelegatingSecurityContextExecutor(dashboardExecutor);
+    }
+
+    /**
+     * Get the points of the current week, the weigh-ins and blood pressure readings of the last days,
+     * and the preferences of the current user.
+     */
+    public DashboardDTO getDashboardForCurrentUser(int days) {
+        LocalDate today = LocalDate.now();
+        ZonedDateTime daysAgo = ZonedDateTime.of(today.minusDays(days).atTime(LocalTime.now()), ZoneId.systemDefault());
+        ZonedDateTime rightNow = today.atTime(LocalTime.now()).atZone(ZoneId.systemDefault());
+        String period = "Last " + days + " Days";
+
+        CompletableFuture<PointsPerWeekDTO> points = CompletableFuture.supplyAsync(() ->
+            pointWeeklySummaryService.getPointsForCurrentUser(today.with(DAY_OF_WEEK, 1)), executor);
+        CompletableFuture<List<Weight>> weighIns = CompletableFuture.supplyAsync(() ->
+            weightRepository.findAllForCurrentUserByTimestampBetween(daysAgo, rightNow), executor);
+        CompletableFuture<List<BloodPressure>> readings = CompletableFuture.supplyAsync(() ->
+            bloodPressureRepository.findAllForCurrentUserByTimestampBetween(daysAgo, rightNow), executor);
+        CompletableFuture<Preference> preferences = CompletableFuture.supplyAsync(() ->
+            preferenceRepository.findOneForCurrentUser().orElseGet(this::defaultPreferences), executor);
+
+        CompletableFuture<?>[] lookups = {points, weighIns, readings, preferences};
+        try {
+            CompletableFuture.allOf(lookups)
+                .get(jHipsterProperties.getDashboard().getTimeout(), TimeUnit.MILLISECONDS);
+            return new DashboardDTO(points.get(), new WeightByPeriod(period, weighIns.get()),
+                new BloodPressureByPeriod(period, readings.get()), preferences.get());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not read the dashboard", e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("The dashboard lookups took more than {} ms", jHipsterProperties.getDashboard().getTimeout());
+            cancel(lookups);
+            throw new QueryTimeoutException("Timed out reading the dashboard", e);
+        } catch (InterruptedException e) {
+            cancel(lookups);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the dashboard", e);
+        }
+    }
+
+    private void cancel(CompletableFuture<?>[] lookups) {
+        for (CompletableFuture<?> lookup : lookups) {
+            // a lookup that is still queued is skipped, a running one ends on its own
+            lookup.cancel(true);
+        }
+    }
+
+    private Preference defaultPreferences() {
+        Preference defaultPreferences = new Preference();
+        defaultPreferences.setWeeklyGoal(10); // default, as for /my-preferences
+        return defaultPreferences;
+    }
+}
@@ -0,0 +1,227 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.service.util.BucketResolution;
+import org.jhipster.health.service.util.Lttb;
+import org.jhipster.health.web.rest.dto.DownsampledSeriesDTO;
+import org.jhipster.health.web.rest.dto.SeriesBucketDTO;
+import org.jhipster.health.web.rest.dto.SeriesPointDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service class for downsampling the readings of the current user for charts.
+ * <p>
+ * Readings are read in time order through a forward-only cursor, as plain values, and folded as they arrive:
+ * the response holds one bucket per day, week or month, or a fixed number of readings selected by
+ * Largest-Triangle-Three-Buckets, however many readings the period has.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class DownsamplingService {
+
+    public static final String WEIGHT = "weight";
+
+    public static final String SYSTOLIC = "systolic";
+
+    public static final String DIASTOLIC = "diastolic";
+
+    public static final String LTTB = "lttb";
+
+    /**
+     * Bounds of the number of points selected with LTTB, which bound the size of the response.
+     */
+    public static final int MIN_POINTS = 3;
+
+    public static final int MAX_POINTS = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(DownsamplingService.class);
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    /**
+     * Get the weigh-ins of the current user for the last days, as buckets of the given resolution ("day", "week"
+     * or "month"), or as the given number of points selected with "lttb".
+     *
+     * @throws IllegalArgumentException if the resolution is unknown or the number of points out of range
+     */
+    public DownsampledSeriesDTO getWeightsForCurrentUser(int days, String resolution, int points) {
+        ZonedDateTime[] period = period(days);
+        return downsample(days, resolution, points,
+            () -> weightRepository.streamForCurrentUserByTimestampBetween(period[0], period[1]).map(List::toArray),
+            WEIGHT);
+    }
+
+    /**
+     * Get the blood pressure readings of the current user for the last days, as for
+     * {@link #getWeightsForCurrentUser(int, String, int)}.
+     */
+    public DownsampledSeriesDTO getBloodPressuresForCurrentUser(int days, String resolution, int points) {
+        ZonedDateTime[] period = period(days);
+        return downsample(days, resolution, points,
+            () -> bloodPressureRepository.streamForCurrentUserByTimestampBetween(period[0], period[1])
+                .map(List::toArray),
+            SYSTOLIC, DIASTOLIC);
+    }
+
+    private DownsampledSeriesDTO downsample(int days, String resolution, int points,
+                                            Supplier<Stream<Object[]>> rows, String... series) {
+        if (LTTB.equalsIgnoreCase(resolution)) {
+            if (points < MIN_POINTS || points > MAX_POINTS) {
+                throw new IllegalArgumentException(
+                    "The number of points must be between " + MIN_POINTS + " and " + MAX_POINTS);
+            }
+            return lttb(days, points, rows, series);
+        }
+        BucketResolution bucketResolution;
+        try {
+            bucketResolution = BucketResolution.valueOf(resolution.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown resolution: " + resolution);
+        }
+        return buckets(days, bucketResolution, rows, series);
+    }
+
+    /**
+     * The last days, as for /weight-by-days and /bp-by-days.
+     */
+    private ZonedDateTime[] period(int days) {
+        LocalDate today = LocalDate.now();
+        ZonedDateTime daysAgo = ZonedDateTime.of(today.minusDays(days).atTime(LocalTime.now()), ZoneId.systemDefault());
+        ZonedDateTime rightNow = today.atTime(LocalTime.now()).atZone(ZoneId.systemDefault());
+        return new ZonedDateTime[]{daysAgo, rightNow};
+    }
+
+    /**
+     * Fold rows of (timestamp, value of each series), in time order, into buckets.
+     */
+    private DownsampledSeriesDTO buckets(int days, BucketResolution resolution, Supplier<Stream<Object[]>> rows,
+                                         String... series) {
+        List<List<SeriesBucketDTO>> buckets = new ArrayList<>();
+        Bucket[] current = new Bucket[series.length];
+        for (int i = 0; i < series.length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        try (Stream<Object[]> stream = rows.get()) {
+            for (Iterator<Object[]> iterator = stream.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                LocalDate start = resolution.startOf(
+                    ((ZonedDateTime) row[0]).withZoneSameInstant(ZoneId.systemDefault()).toLocalDate());
+                for (int i = 0; i < series.length; i++) {
+                    if (current[i] != null && !current[i].start.equals(start)) {
+                        buckets.get(i).add(current[i].toDTO());
+                        current[i] = null;
+                    }
+                    if (current[i] == null) {
+                        current[i] = new Bucket(start);
+                    }
+                    current[i].add(((Number) row[i + 1]).doubleValue());
+                }
+            }
+        }
+        DownsampledSeriesDTO result = new DownsampledSeriesDTO("Last " + days + " Days", resolution.name().toLowerCase());
+        for (int i = 0; i < series.length; i++) {
+            if (current[i] != null) {
+                buckets.get(i).add(current[i].toDTO());
+            }
+            result.addBuckets(series[i], buckets.get(i));
+        }
+        log.debug("Downsampled {} of the last {} days into {} buckets", Arrays.toString(series), days,
+            buckets.get(0).size());
+        return result;
+    }
+
+    /**
+     * Select {@code points} rows of (timestamp, value of each series) per series, with Largest-Triangle-Three-Buckets.
+     * <p>
+     * The algorithm needs the whole series, so the readings are held as primitive arrays: 8 bytes per value.
+     * </p>
+     */
+    private DownsampledSeriesDTO lttb(int days, int points, Supplier<Stream<Object[]>> rows, String... series) {
+        long[] timestamps = new long[1024];
+        double[][] values = new double[series.length][1024];
+        int length = 0;
+        try (Stream<Object[]> stream = rows.get()) {
+            for (Iterator<Object[]> iterator = stream.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                if (length == timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, length * 2);
+                    for (int i = 0; i < series.length; i++) {
+                        values[i] = Arrays.copyOf(values[i], length * 2);
+                    }
+                }
+                timestamps[length] = ((ZonedDateTime) row[0]).toInstant().toEpochMilli();
+                for (int i = 0; i < series.length; i++) {
+                    values[i][length] = ((Number) row[i + 1]).doubleValue();
+                }
+                length++;
+            }
+        }
+        DownsampledSeriesDTO result = new DownsampledSeriesDTO("Last " + days + " Days", LTTB);
+        for (int i = 0; i < series.length; i++) {
+            int[] selected = Lttb.select(timestamps, values[i], length, points);
+            List<SeriesPointDTO> seriesPoints = new ArrayList<>(selected.length);
+            for (int index : selected) {
+                seriesPoints.add(new SeriesPointDTO(
+                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), ZoneId.systemDefault()),
+                    values[i][index]));
+            }
+            result.addPoints(series[i], seriesPoints);
+        }
+        log.debug("Downsampled {} readings of {} of the last {} days to {} points", length,
+            Arrays.toString(series), days, Math.min(length, points));
+        return result;
+    }
+
+    private static final class Bucket {
+
+        private final LocalDate start;
+
+        private long count;
+
+        private double min = Double.POSITIVE_INFINITY;
+
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private double sum;
+
+        private double last;
+
+        private Bucket(LocalDate start) {
+            this.start = start;
+        }
+
+        private void add(double value) {
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            last = value;
+        }
+
+        private SeriesBucketDTO toDTO() {
+            return new SeriesBucketDTO(start, count, min, max, sum / count, last);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.jhipster.health.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.PointRepository;
+import org.jhipster.health.repository.PreferenceRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.util.CsvUtil;
+import org.jhipster.health.service.util.DataFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting the current user's readings.
+ * <p>
+ * Rows are read as plain values through forward-only cursors and written as they arrive, so neither the
+ * entities (with their eager User) nor the full history are ever held in memory.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    public static final String POINTS = "points";
+
+    public static final String WEIGHTS = "weights";
+
+    public static final String BLOOD_PRESSURES = "bloodPressures";
+
+    public static final String PREFERENCE = "preference";
+
+    private final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+
+    public ExportService() {
+        sections.put(POINTS, new Section(() -> pointRepository.streamAllForCurrentUser().map(List::toArray),
+            "id", "date", "exercise", "meals", "alcohol", "notes"));
+        sections.put(WEIGHTS, new Section(() -> weightRepository.streamAllForCurrentUser().map(List::toArray),
+            "id", "timestamp", "weight"));
+        sections.put(BLOOD_PRESSURES, new Section(() -> bloodPressureRepository.streamAllForCurrentUser().map(List::toArray),
+            "id", "timestamp", "systolic", "diastolic"));
+        sections.put(PREFERENCE, new Section(() -> preferenceRepository.findAllValuesForCurrentUser().stream(),
+            "id", "weeklyGoal", "weightUnits"));
+    }
+
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * Write the given types of readings, in the order of {@link #getTypes()}.
+     * <p>
+     * With NDJSON, every line has a "type" field. With CSV, the header names the union of the columns,
+     * preceded by a "type" column when several types are exported; a single type can be imported back as is.
+     * </p>
+     */
+    public void export(OutputStream out, DataFormat format, Set<String> types) throws IOException {
+        List<String> exported = sections.keySet().stream().filter(types::contains).collect(Collectors.toList());
+        log.debug("Exporting {} of user {} as {}", exported, SecurityUtils.getCurrentUserLogin(), format);
+        if (format == DataFormat.CSV) {
+            exportCsv(out, exported);
+        } else {
+            exportNdjson(out, exported);
+        }
+    }
+
+    private void exportNdjson(OutputStream out, List<String> types) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (String type : types) {
+                Section section = sections.get(type);
+                try (Stream<Object[]> rows = section.rows.get()) {
+                    for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                        Object[] row = iterator.next();
+                        generator.writeStartObject();
+                        generator.writeStringField("type", type);
+                        for (int i = 0; i < row.length; i++) {
+                            if (row[i] != null) {
+                                generator.writeFieldName(section.columns[i]);
+                                generator.writeObject(row[i]);
+                            }
+                        }
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    }
+                }
+            }
+        }
+    }
+
+    private void exportCsv(OutputStream out, List<String> types) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean typed = types.size() > 1;
+        List<String> columns = types.stream()
+            .flatMap(type -> Arrays.stream(sections.get(type).columns))
+            .distinct()
+            .collect(Collectors.toList());
+        writer.write((typed ? "type," : "") + String.join(",", columns) + "\n");
+        String[] line = new String[columns.size()];
+        for (String type : types) {
+            Section section = sections.get(type);
+            int[] positions = Arrays.stream(section.columns).mapToInt(columns::indexOf).toArray();
+            try (Stream<Object[]> rows = section.rows.get()) {
+                for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                    Object[] row = iterator.next();
+                    Arrays.fill(line, "");
+                    for (int i = 0; i < row.length; i++) {
+                        line[positions[i]] = toCsvValue(row[i]);
+                    }
+                    writer.write((typed ? type + "," : "") + String.join(",", line) + "\n");
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private String toCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof ZonedDateTime) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((ZonedDateTime) value);
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return CsvUtil.escape(value.toString());
+    }
+
+    private static final class Section {
+
+        private final Supplier<Stream<Object[]>> rows;
+
+        private final String[] columns;
+
+        private Section(Supplier<Stream<Object[]>> rows, String... columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.jhipster.health.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.PointRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.util.CsvUtil;
+import org.jhipster.health.service.util.DataFormat;
+import org.jhipster.health.web.rest.dto.ImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Service class for importing readings in bulk.
+ * <p>
+ * The input is read one line at a time and written {@value #BATCH_SIZE} lines per transaction, so files of
+ * any size are imported in constant memory. Lines that cannot be parsed, validated or saved, or that are longer
+ * than {@value #MAX_LINE_LENGTH} characters, are reported with their line number and do not prevent the other
+ * lines from being imported.
+ * </p>
+ */
+@Service
+public class ImportService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private PointWeeklySummaryService pointWeeklySummaryService;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private WeightTrendService weightTrendService;
+
+    @Inject
+    private BloodPressureAlertService bloodPressureAlertService;
+
+    private Validator validator;
+
+    @PostConstruct
+    public void init() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importPoints(Reader input, DataFormat format) throws IOException {
+        return importReadings(input, format, Point.class, Point::setUser, points -> {
+            pointRepository.save(points).forEach(point -> searchIndexService.index(Point.class, point.getId()));
+            pointWeeklySummaryService.addAll(points);
+            pointsHistoryService.evict(points.get(0).getUser());
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importWeights(Reader input, DataFormat format) throws IOException {
+        return importReadings(input, format, Weight.class, Weight::setUser, weights -> {
+            weightRepository.save(weights).forEach(weight -> searchIndexService.index(Weight.class, weight.getId()));
+            // imported weigh-ins may be older than the last one, the trend is rebuilt once instead
+            weightTrendService.evict(SecurityUtils.getCurrentUserLogin());
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importBloodPressures(Reader input, DataFormat format) throws IOException {
+        return importReadings(input, format, BloodPressure.class, BloodPressure::setUser, bloodPressures -> {
+            bloodPressureRepository.save(bloodPressures)
+                .forEach(bloodPressure -> searchIndexService.index(BloodPressure.class, bloodPressure.getId()));
+            // imported readings are not checked for alerts, but they change the baseline of the user
+            bloodPressureAlertService.evictBaseline(bloodPressures.get(0).getUser());
+        });
+    }
+
+    private <T> ImportResultDTO importReadings(Reader input, DataFormat format, Class<T> type,
+                                               BiConsumer<T, User> setUser, Consumer<List<T>> saveAll) throws IOException {
+        String login = SecurityUtils.getCurrentUserLogin();
+        User user = userRepository.findOneByLogin(login).get();
+        log.debug("Importing {} {} lines for user {}", format, type.getSimpleName(), login);
+        Consumer<List<T>> saveAndBump = saveAll.andThen(saved -> userDataVersionService.bump(login));
+
+        ObjectReader reader = objectMapper.readerFor(type);
+        ImportResultDTO result = new ImportResultDTO();
+        BufferedReader lines = new BufferedReader(input);
+        String[] columns = null;
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchLines = new ArrayList<>(BATCH_SIZE);
+        StringBuilder buffer = new StringBuilder();
+        int length;
+        int lineNumber = 0;
+        while ((length = readLine(lines, buffer)) != -1) {
+            lineNumber++;
+            if (length > MAX_LINE_LENGTH) {
+                result.addError(lineNumber, "Line longer than " + MAX_LINE_LENGTH + " characters", MAX_REPORTED_ERRORS);
+                continue;
+            }
+            String line = buffer.toString();
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            T reading;
+            try {
+                if (format == DataFormat.CSV) {
+                    if (columns == null) {
+                        columns = CsvUtil.splitLine(line).toArray(new String[0]);
+                        continue;
+                    }
+                    reading = reader.readValue(toObjectNode(columns, CsvUtil.splitLine(line)));
+                } else {
+                    reading = reader.readValue(line);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                result.addError(lineNumber, "Could not parse line: " + e.getMessage(), MAX_REPORTED_ERRORS);
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(reading);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<T> violation = violations.iterator().next();
+                result.addError(lineNumber, violation.getPropertyPath() + " " + violation.getMessage(), MAX_REPORTED_ERRORS);
+                continue;
+            }
+            // imports only create readings, for the current user
+            setId(reading);
+            setUser.accept(reading, user);
+            batch.add(reading);
+            batchLines.add(lineNumber);
+            if (batch.size() == BATCH_SIZE) {
+                saveBatch(batch, batchLines, saveAndBump, result);
+            }
+        }
+        saveBatch(batch, batchLines, saveAndBump, result);
+        log.info("Imported {} {} for user {}, {} lines rejected", result.getImported(), type.getSimpleName(),
+            login, result.getRejected());
+        return result;
+    }
+
+    /**
+     * Read the next line into the buffer, without its terminator. Only the first {@value #MAX_LINE_LENGTH}
+     * characters of a longer line are kept, the rest of it is skipped.
+     *
+     * @return the length of the line, or -1 at the end of the input
+     */
+    private static int readLine(Reader input, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int length = 0;
+        int c;
+        while ((c = input.read()) != -1 && c != '\n') {
+            if (length++ < MAX_LINE_LENGTH) {
+                line.append((char) c);
+            }
+        }
+        if (c == -1 && length == 0) {
+            return -1;
+        }
+        if (length <= MAX_LINE_LENGTH && length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(--length);
+        }
+        return length;
+    }
+
+    /**
+     * Save a batch in one transaction. If it fails, the lines are saved one by one to find the ones at fault.
+     */
+    private <T> void saveBatch(List<T> batch, List<Integer> batchLines, Consumer<List<T>> saveAll,
+                               ImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.execute(status -> {
+                saveAll.accept(batch);
+                return null;
+            });
+            result.addImported(batch.size());
+        } catch (RuntimeException e) {
+            log.debug("Could not import a batch of {} lines, retrying line by line: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                List<T> single = Collections.singletonList(batch.get(i));
+                setId(single.get(0));
+                try {
+                    transactionTemplate.execute(status -> {
+                        saveAll.accept(single);
+                        return null;
+                    });
+                    result.addImported(1);
+                } catch (RuntimeException lineException) {
+                    result.addError(batchLines.get(i), "Could not save line: " + lineException.getMessage(),
+                        MAX_REPORTED_ERRORS);
+                }
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private void setId(Object reading) {
+        if (reading instanceof Point) {
+            ((Point) reading).setId(null);
+        } else if (reading instanceof Weight) {
+            ((Weight) reading).setId(null);
+        } else if (reading instanceof BloodPressure) {
+            ((BloodPressure) reading).setId(null);
+        }
+    }
+
+    private ObjectNode toObjectNode(String[] columns, List<String> values) {
+        if (values.size() > columns.length) {
+            throw new IllegalArgumentException("Expected at most " + columns.length + " values, found " + values.size());
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                node.put(columns[i].trim(), values.get(i));
+            }
+        }
+        return node;
+    }
+}
@@ -18,6 +18,7 @@ import org.thymeleaf.spring4.SpringTemplateEngine;
 
 import javax.inject.Inject;
 import javax.mail.internet.MimeMessage;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -104,5 +105,17 @@ public class MailService {
         String subject = messageSource.getMessage("email.reset.title", null, locale);
         sendEmail(user.getEmail(), subject, content, false, true);
     }
+
+    @Async
+    public void sendBloodPressureAlertEmail(User user, List<BloodPressureAlertService.Alert> alerts) {
+        log.debug("Sending blood pressure alert e-mail to '{}' for {} readings", user.getEmail(), alerts.size());
+        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        Context context = new Context(locale);
+        context.setVariable("user", user);
+        context.setVariable("alerts", alerts);
+        String content = templateEngine.process("bloodPressureAlertEmail", context);
+        String subject = messageSource.getMessage("email.bloodPressureAlert.title", null, locale);
+        sendEmail(user.getEmail(), subject, content, false, true);
+    }
     
 }
@@ -0,0 +1,71 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.repository.PointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+
+/**
+ * Service class for managing points.
+ * <p>
+ * Every write goes through this service so the weekly summaries and the data versions of the owners are updated
+ * in the same transaction, and the cached points history of the user is dropped.
+ * </p>
+ */
+@Service
+@Transactional
+public class PointService {
+
+    private final Logger log = LoggerFactory.getLogger(PointService.class);
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private PointWeeklySummaryService pointWeeklySummaryService;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    public Point save(Point point) {
+        log.debug("Request to save Point : {}", point);
+        User previousOwner = null;
+        if (point.getId() != null) {
+            Point previous = pointRepository.findOne(point.getId());
+            if (previous != null) {
+                previousOwner = previous.getUser();
+                pointWeeklySummaryService.remove(previous);
+                pointsHistoryService.evict(previousOwner);
+            }
+        }
+        Point result = pointRepository.save(point);
+        searchIndexService.index(Point.class, result.getId());
+        pointWeeklySummaryService.add(result);
+        pointsHistoryService.evict(result.getUser());
+        userDataVersionService.written(result.getUser(), previousOwner);
+        return result;
+    }
+
+    public void delete(Long id) {
+        log.debug("Request to delete Point : {}", id);
+        Point point = pointRepository.findOne(id);
+        if (point != null) {
+            pointWeeklySummaryService.remove(point);
+            pointsHistoryService.evict(point.getUser());
+        }
+        pointRepository.delete(id);
+        searchIndexService.delete(Point.class, id);
+        userDataVersionService.written(point == null ? null : point.getUser());
+    }
+}
@@ -0,0 +1,330 @@
+package org.jhipster.health.service;
+
+import org.hibernate.Session;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.PointWeeklySummary;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.repository.PointRepository;
+import org.jhipster.health.repository.PointWeeklySummaryRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.web.rest.dto.PointsPerWeekDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.time.temporal.ChronoField.DAY_OF_WEEK;
+
+/**
+ * Service class for maintaining the weekly points rollup.
+ * <p>
+ * Summaries are updated in the same transaction as the Point write, so the weekly views
+ * read one row per week instead of scanning the point table.
+ * </p>
+ * <p>
+ * Every change of the summaries of a user first locks the row of the user, so that a rebuild, which deletes and
+ * recomputes them, does not run between the read of the points and a concurrent update.
+ * </p>
+ */
+@Service
+@Transactional
+public class PointWeeklySummaryService {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String INSERT_SUMMARY = "insert into point_weekly_summary (id, week_start, points, user_id) " +
+        "values (nextval('hibernate_sequence'), ?, ?, ?)";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final Logger log = LoggerFactory.getLogger(PointWeeklySummaryService.class);
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private PointWeeklySummaryRepository pointWeeklySummaryRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    public static LocalDate weekOf(LocalDate date) {
+        return date.with(DAY_OF_WEEK, 1);
+    }
+
+    public static int pointsOf(Point point) {
+        return Optional.ofNullable(point.getExercise()).orElse(0)
+            + Optional.ofNullable(point.getMeals()).orElse(0)
+            + Optional.ofNullable(point.getAlcohol()).orElse(0);
+    }
+
+    /**
+     * Add a point to its week. Must be called after the point has been saved.
+     */
+    public void add(Point point) {
+        if (!isSummarized(point)) {
+            return;
+        }
+        lockUsers(Collections.singleton(point.getUser().getId()));
+        addPoints(point.getUser().getId(), weekOf(point.getDate()), pointsOf(point));
+    }
+
+    /**
+     * Add saved points to their weeks, with a single update per user and week.
+     */
+    public void addAll(Collection<Point> points) {
+        Map<Long, Map<LocalDate, Integer>> weeklyPoints = new HashMap<>();
+        points.stream().filter(this::isSummarized).forEach(point ->
+            weeklyPoints.computeIfAbsent(point.getUser().getId(), id -> new HashMap<>())
+                .merge(weekOf(point.getDate()), pointsOf(point), Integer::sum));
+        if (!weeklyPoints.isEmpty()) {
+            lockUsers(weeklyPoints.keySet());
+        }
+        weeklyPoints.forEach((userId, weeks) ->
+            weeks.forEach((weekStart, weekPoints) -> addPoints(userId, weekStart, weekPoints)));
+    }
+
+    /**
+     * Remove a point from its week. Must be called with the point as it is stored,
+     * before it is updated or deleted.
+     */
+    public void remove(Point point) {
+        if (!isSummarized(point)) {
+            return;
+        }
+        Long userId = point.getUser().getId();
+        LocalDate weekStart = weekOf(point.getDate());
+        lockUsers(Collections.singleton(userId));
+        if (pointWeeklySummaryRepository.addPoints(userId, weekStart, -pointsOf(point)) == 0) {
+            log.warn("No weekly summary for user {} and week {}, it will be fixed by the next rebuild", userId, weekStart);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PointsPerWeekDTO getPointsForCurrentUser(LocalDate weekStart) {
+        Integer points = pointWeeklySummaryRepository.findOneForCurrentUserByWeekStart(weekStart)
+            .map(PointWeeklySummary::getPoints)
+            .orElse(0);
+        return new PointsPerWeekDTO(weekStart, points);
+    }
+
+    /**
+     * Get the points of the current user for each week, oldest first, including the weeks without points.
+     *
+     * @throws IllegalArgumentException if there are no weeks or more than "jhipster.pointsHistory.maxWeeks"
+     */
+    @Transactional(readOnly = true)
+    public List<PointsPerWeekDTO> getPointsByWeekForCurrentUser(LocalDate firstWeek, int weeks) {
+        int maxWeeks = jHipsterProperties.getPointsHistory().getMaxWeeks();
+        if (weeks < 1 || weeks > maxWeeks) {
+            throw new IllegalArgumentException("The number of weeks must be between 1 and " + maxWeeks);
+        }
+        LocalDate lastWeek = firstWeek.plusWeeks(weeks - 1);
+        Map<LocalDate, Integer> pointsByWeek = new TreeMap<>();
+        for (int i = 0; i < weeks; i++) {
+            pointsByWeek.put(firstWeek.plusWeeks(i), 0);
+        }
+        pointWeeklySummaryRepository.findAllForCurrentUserByWeekStartBetween(firstWeek, lastWeek)
+            .forEach(summary -> pointsByWeek.put(summary.getWeekStart(), summary.getPoints()));
+        return pointsByWeek.entrySet().stream()
+            .map(e -> new PointsPerWeekDTO(e.getKey(), e.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Recompute all the summaries from the point table, {@value #BATCH_SIZE} users per transaction, and change
+     * the data versions of their users.
+     *
+     * @return the number of users whose summaries were rebuilt
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuild() {
+        log.info("Rebuilding weekly points summaries");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int users = 0;
+        Long lastUserId = Long.MIN_VALUE;
+        List<Long> userIds;
+        while (!(userIds = pointRepository.findUserIdsAfter(lastUserId, new PageRequest(0, BATCH_SIZE))).isEmpty()) {
+            List<Long> batch = userIds;
+            transactionTemplate.execute(status -> rebuildUsers(batch));
+            lastUserId = userIds.get(userIds.size() - 1);
+            users += userIds.size();
+        }
+        List<Long> usersWithoutPoints = pointWeeklySummaryRepository.findUserIdsWithoutPoints();
+        for (int i = 0; i < usersWithoutPoints.size(); i += BATCH_SIZE) {
+            List<Long> batch = usersWithoutPoints.subList(i, Math.min(i + BATCH_SIZE, usersWithoutPoints.size()));
+            transactionTemplate.execute(status -> rebuildUsers(batch));
+        }
+        log.info("Rebuilt weekly points summaries for {} users, removed the summaries of {} users without points",
+            users, usersWithoutPoints.size());
+        pointsHistoryService.evictAll();
+        return users;
+    }
+
+    /**
+     * Compare the summaries with the point table, {@value #BATCH_SIZE} users at a time.
+     *
+     * @return the ids of the users whose summaries do not match their points
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Long> findInconsistentUsers() {
+        List<Long> inconsistentUsers = new ArrayList<>();
+        Long lastUserId = Long.MIN_VALUE;
+        List<Long> userIds;
+        while (!(userIds = pointRepository.findUserIdsAfter(lastUserId, new PageRequest(0, BATCH_SIZE))).isEmpty()) {
+            Map<Long, Map<LocalDate, Integer>> expected = computeWeeklyPoints(userIds);
+            Map<Long, Map<LocalDate, Integer>> actual = new HashMap<>();
+            for (Object[] row : pointWeeklySummaryRepository.findWeeklyPointsByUserIdIn(userIds)) {
+                if (((Number) row[2]).intValue() != 0) {
+                    actual.computeIfAbsent((Long) row[0], id -> new TreeMap<>())
+                        .put((LocalDate) row[1], ((Number) row[2]).intValue());
+                }
+            }
+            for (Long userId : userIds) {
+                Map<LocalDate, Integer> expectedWeeks = expected.getOrDefault(userId, Collections.emptyMap());
+                if (!expectedWeeks.equals(actual.getOrDefault(userId, Collections.emptyMap()))) {
+                    log.warn("Weekly points summaries of user {} do not match the point table", userId);
+                    inconsistentUsers.add(userId);
+                }
+            }
+            lastUserId = userIds.get(userIds.size() - 1);
+        }
+        return inconsistentUsers;
+    }
+
+    /**
+     * Summaries that drifted from the point table are rebuilt automatically.
+     * <p/>
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     * </p>
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void repairInconsistentSummaries() {
+        List<Long> inconsistentUsers = findInconsistentUsers();
+        if (inconsistentUsers.isEmpty()) {
+            log.debug("Weekly points summaries are consistent");
+            return;
+        }
+        log.warn("Repairing weekly points summaries of {} users", inconsistentUsers.size());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < inconsistentUsers.size(); i += BATCH_SIZE) {
+            List<Long> batch = inconsistentUsers.subList(i, Math.min(i + BATCH_SIZE, inconsistentUsers.size()));
+            transactionTemplate.execute(status -> rebuildUsers(batch));
+        }
+        pointsHistoryService.evictAll();
+    }
+
+    private void addPoints(Long userId, LocalDate weekStart, int points) {
+        if (pointWeeklySummaryRepository.addPoints(userId, weekStart, points) > 0 || insert(userId, weekStart, points)) {
+            return;
+        }
+        // the week was created by a concurrent transaction, which is committed now that the insert failed
+        if (pointWeeklySummaryRepository.addPoints(userId, weekStart, points) == 0) {
+            throw new ConcurrencyFailureException("The weekly summary of user " + userId + " and week " + weekStart +
+                " is being created by another transaction");
+        }
+    }
+
+    /**
+     * Create the summary of a week, in a savepoint so that a concurrent creation only fails this statement and
+     * not the whole transaction. The row is not read into the persistence context, so the summaries read later
+     * in the transaction see the following updates.
+     *
+     * @return false if a concurrent transaction created the week first
+     */
+    private boolean insert(Long userId, LocalDate weekStart, int points) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SUMMARY)) {
+                statement.setDate(1, Date.valueOf(weekStart));
+                statement.setInt(2, points);
+                statement.setLong(3, userId);
+                statement.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    log.debug("Weekly summary of user {} and week {} created concurrently", userId, weekStart);
+                    return false;
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Lock the rows of the users, in the order of their ids so that two batches do not wait for each other, until
+     * the end of the transaction.
+     */
+    private List<User> lockUsers(Collection<Long> userIds) {
+        return userRepository.findAllByIdInOrderByIdAsc(userIds);
+    }
+
+    private boolean isSummarized(Point point) {
+        return point.getDate() != null && point.getUser() != null && point.getUser().getId() != null;
+    }
+
+    private Map<Long, Map<LocalDate, Integer>> computeWeeklyPoints(List<Long> userIds) {
+        Map<Long, Map<LocalDate, Integer>> weeklyPoints = new HashMap<>();
+        for (Object[] row : pointRepository.sumPointsByUserAndDate(userIds)) {
+            if (row[1] == null) {
+                continue;
+            }
+            int points = ((Number) row[2]).intValue();
+            weeklyPoints.computeIfAbsent((Long) row[0], id -> new TreeMap<>())
+                .merge(weekOf((LocalDate) row[1]), points, Integer::sum);
+        }
+        // weeks that add up to nothing are not stored
+        weeklyPoints.values().forEach(weeks -> weeks.values().removeIf(points -> points == 0));
+        return weeklyPoints;
+    }
+
+    /**
+     * Recompute the summaries of the users, and change the versions of their data, whose weekly views change too.
+     */
+    private int rebuildUsers(List<Long> userIds) {
+        List<User> users = lockUsers(userIds);
+        pointWeeklySummaryRepository.deleteAllByUserIdIn(userIds);
+        computeWeeklyPoints(userIds).forEach((userId, weeks) ->
+            weeks.forEach((weekStart, points) -> pointWeeklySummaryRepository.save(
+                new PointWeeklySummary(weekStart, points, userRepository.getOne(userId)))));
+        users.forEach(user -> userDataVersionService.bump(user.getLogin()));
+        return userIds.size();
+    }
+}
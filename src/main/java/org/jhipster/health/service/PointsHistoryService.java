@@ -0,0 +1,207 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.Preference;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.repository.PointWeeklySummaryRepository;
+import org.jhipster.health.repository.PreferenceRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.util.EvictionUtil;
+import org.jhipster.health.service.util.GenerationalCache;
+import org.jhipster.health.web.rest.dto.PointsHistoryDTO;
+import org.jhipster.health.web.rest.dto.PointsPerWeekDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Service class for the points history of each user: weekly points against the weekly goal, and goal-met streaks.
+ * <p>
+ * The weekly points of a user are read from the weekly summaries in one query, and kept with their goal in the
+ * "pointsHistories" cache region until the user writes a point or the preferences change. Ranges and streaks are
+ * then computed from memory.
+ * </p>
+ * <p>
+ * Only the writes of this node drop the histories it keeps, so a history is read again once it has been kept for
+ * the time to live: the writes of the other nodes are seen after at most that time.
+ * </p>
+ * <p>
+ * Without the cache region, as with the "fast" profile, the weekly points are read on every request.
+ * </p>
+ */
+@Service
+public class PointsHistoryService {
+
+    public static final String CACHE_NAME = "pointsHistories";
+
+    private final Logger log = LoggerFactory.getLogger(PointsHistoryService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PointWeeklySummaryRepository pointWeeklySummaryRepository;
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    private GenerationalCache histories;
+
+    @PostConstruct
+    public void init() {
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            log.warn("No {} cache region, points histories are read on every request", CACHE_NAME);
+        }
+        histories = new GenerationalCache(cache);
+    }
+
+    /**
+     * Get the points of the current user for each week between the weeks of the given days, oldest first,
+     * including the weeks without points.
+     *
+     * @throws IllegalArgumentException if the range is empty or longer than "jhipster.pointsHistory.maxWeeks"
+     */
+    @Transactional(readOnly = true)
+    public PointsHistoryDTO getHistoryForCurrentUser(LocalDate from, LocalDate to) {
+        LocalDate firstWeek = PointWeeklySummaryService.weekOf(from);
+        LocalDate lastWeek = PointWeeklySummaryService.weekOf(to);
+        int maxWeeks = jHipsterProperties.getPointsHistory().getMaxWeeks();
+        if (lastWeek.isBefore(firstWeek) || firstWeek.plusWeeks(maxWeeks).isBefore(lastWeek.plusWeeks(1))) {
+            throw new IllegalArgumentException("The range must cover between 1 and " + maxWeeks + " weeks");
+        }
+        History history = getHistory(SecurityUtils.getCurrentUserLogin().toLowerCase());
+
+        List<PointsPerWeekDTO> weeks = new ArrayList<>();
+        int weeksGoalMet = 0;
+        for (LocalDate week = firstWeek; !week.isAfter(lastWeek); week = week.plusWeeks(1)) {
+            int points = history.pointsOf(week);
+            weeks.add(new PointsPerWeekDTO(week, points));
+            if (history.isGoalMet(points)) {
+                weeksGoalMet++;
+            }
+        }
+        int[] streaks = history.streaks(PointWeeklySummaryService.weekOf(LocalDate.now()));
+        return new PointsHistoryDTO(history.weeklyGoal, weeks, weeksGoalMet, streaks[0], streaks[1]);
+    }
+
+    /**
+     * Drop the history of the owner of a point, now and, when called in a transaction, again once it completes.
+     */
+    public void evict(User owner) {
+        String login = loginOf(owner);
+        if (login == null) {
+            return;
+        }
+        String key = login.toLowerCase();
+        EvictionUtil.evictNowAndAfterCompletion(() -> histories.evict(key));
+    }
+
+    /**
+     * Drop every history, as {@link #evict(User)} does for one user, when the owner of the change is not known.
+     */
+    public void evictAll() {
+        EvictionUtil.evictNowAndAfterCompletion(histories::clear);
+    }
+
+    private History getHistory(String login) {
+        long now = System.currentTimeMillis();
+        long timeToLive = jHipsterProperties.getPointsHistory().getTimeToLiveInSeconds() * 1000L;
+        History history = histories.get(login, History.class);
+        if (history != null && history.read + timeToLive <= now) {
+            histories.evict(login);
+            history = null;
+        }
+        if (history == null) {
+            history = histories.load(login, () -> read(now));
+        }
+        return history;
+    }
+
+    private History read(long now) {
+        NavigableMap<LocalDate, Integer> points = new TreeMap<>();
+        for (Object[] row : pointWeeklySummaryRepository.findWeeklyPointsForCurrentUser()) {
+            points.put((LocalDate) row[0], ((Number) row[1]).intValue());
+        }
+        Integer weeklyGoal = preferenceRepository.findOneForCurrentUser()
+            .map(Preference::getWeeklyGoal)
+            .orElse(10); // default, as for /my-preferences
+        return new History(Collections.unmodifiableNavigableMap(points), weeklyGoal, now);
+    }
+
+    private String loginOf(User owner) {
+        if (owner == null) {
+            return null;
+        }
+        if (owner.getLogin() != null) {
+            return owner.getLogin();
+        }
+        User user = owner.getId() == null ? null : userRepository.findOne(owner.getId());
+        return user == null ? null : user.getLogin();
+    }
+
+    /**
+     * Weekly points of a user, by week start, with their weekly goal. Immutable, so it is read without locking.
+     */
+    private static final class History {
+
+        private final NavigableMap<LocalDate, Integer> points;
+
+        private final Integer weeklyGoal;
+
+        private final long read;
+
+        private History(NavigableMap<LocalDate, Integer> points, Integer weeklyGoal, long read) {
+            this.points = points;
+            this.weeklyGoal = weeklyGoal;
+            this.read = read;
+        }
+
+        private int pointsOf(LocalDate week) {
+            return points.getOrDefault(week, 0);
+        }
+
+        private boolean isGoalMet(int weekPoints) {
+            return weeklyGoal != null && weeklyGoal > 0 && weekPoints >= weeklyGoal;
+        }
+
+        /**
+         * @return the current and the longest streaks
+         */
+        private int[] streaks(LocalDate currentWeek) {
+            int longest = 0;
+            int run = 0;
+            int previousRun = 0;
+            if (!points.isEmpty()) {
+                for (LocalDate week = points.firstKey(); !week.isAfter(currentWeek); week = week.plusWeeks(1)) {
+                    previousRun = run;
+                    run = isGoalMet(pointsOf(week)) ? run + 1 : 0;
+                    longest = Math.max(longest, run);
+                }
+            }
+            // the current week still counts for the streak while it is not over
+            int current = run > 0 ? run : previousRun;
+            return new int[]{current, longest};
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.domain.Preference;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.repository.PreferenceRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+
+/**
+ * Service class for managing preferences.
+ * <p>
+ * Every write goes through this service so the data versions and the search outbox are updated in the same
+ * transaction, and the cached points histories, which depend on the weekly goals, are dropped.
+ * </p>
+ */
+@Service
+@Transactional
+public class PreferenceService {
+
+    private final Logger log = LoggerFactory.getLogger(PreferenceService.class);
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    public Preference save(Preference preference) {
+        log.debug("Request to save Preference : {}", preference);
+        // a new preference has no owner yet
+        User owner = preference.getId() == null ? null
+            : userRepository.findOneByPreferenceId(preference.getId()).orElse(null);
+        Preference result = preferenceRepository.save(preference);
+        userDataVersionService.writtenPreference(result.getId(), owner);
+        pointsHistoryService.evictAll();
+        searchIndexService.index(Preference.class, result.getId());
+        return result;
+    }
+
+    public void delete(Long id) {
+        log.debug("Request to delete Preference : {}", id);
+        User owner = userRepository.findOneByPreferenceId(id).orElse(null);
+        preferenceRepository.delete(id);
+        userDataVersionService.written(owner);
+        pointsHistoryService.evictAll();
+        searchIndexService.delete(Preference.class, id);
+    }
+}
@@ -0,0 +1,334 @@
+package org.jhipster.health.service;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogram;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.avg.Avg;
+import org.elasticsearch.search.aggregations.metrics.cardinality.Cardinality;
+import org.elasticsearch.search.aggregations.metrics.stats.extended.ExtendedStats;
+import org.elasticsearch.search.aggregations.metrics.sum.Sum;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.web.rest.dto.AnalyticsBucketDTO;
+import org.jhipster.health.web.rest.dto.AnalyticsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.elasticsearch.index.query.FilterBuilders.rangeFilter;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.*;
+
+/**
+ * Service class for the analytics of the users' data, computed by Elasticsearch aggregations on the point, weight
+ * and bloodpressure indices, so no document is read by the application.
+ * <p>
+ * Like the searches, an aggregation covers the documents of the current user, or of every user for an administrator,
+ * narrowed by an optional query string, such as a cohort of users. Results are kept in the "analyticsResults" cache
+ * region for "jhipster.analytics.timeToLiveInSeconds", keyed by the query, the range and the period of time they were
+ * computed in: the indices are updated in the background, so a result is never more accurate than that.
+ * </p>
+ * <p>
+ * Without the cache region, as with the "fast" profile, every request is aggregated.
+ * </p>
+ */
+@Service
+public class SearchAnalyticsService {
+
+    public static final String CACHE_NAME = "analyticsResults";
+
+    private static final String BUCKETS = "buckets";
+
+    private static final String USERS = "users";
+
+    private static final String[] POINT_FIELDS = {"exercise", "meals", "alcohol"};
+
+    /**
+     * Intervals of the date histograms, with their shortest length in days, to bound the number of buckets.
+     */
+    private static final Map<String, Integer> INTERVALS = new LinkedHashMap<>();
+
+    static {
+        INTERVALS.put("day", 1);
+        INTERVALS.put("week", 7);
+        INTERVALS.put("month", 28);
+        INTERVALS.put("quarter", 90);
+        INTERVALS.put("year", 365);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(SearchAnalyticsService.class);
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private UserDataSearchService userDataSearchService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    private Cache results;
+
+    @PostConstruct
+    public void init() {
+        results = cacheManager == null ? null : cacheManager.getCache(CACHE_NAME);
+        if (results == null) {
+            log.warn("No {} cache region, analytics are aggregated on every request", CACHE_NAME);
+        }
+    }
+
+    /**
+     * Points per period between two days: total points, number of users with points, and points per user.
+     *
+     * @throws IllegalArgumentException if the interval is unknown, or the range is empty or has too many periods
+     */
+    public AnalyticsDTO getPoints(String query, String interval, LocalDate from, LocalDate to) {
+        checkPeriods(interval, from, to);
+        return cached("points", query, interval, from, to, () -> {
+            DateHistogramBuilder histogram = periodHistogram(BUCKETS, "date", interval)
+                .subAggregation(cardinality(USERS).field("user.id"));
+            for (String field : POINT_FIELDS) {
+                histogram.subAggregation(sum(field).field(field));
+            }
+            List<AbstractAggregationBuilder> aggregations = new ArrayList<>();
+            aggregations.add(histogram);
+            aggregations.add(cardinality(USERS).field("user.id"));
+            for (String field : POINT_FIELDS) {
+                aggregations.add(sum(field).field(field));
+            }
+            SearchResponse response = aggregate(Point.class, query,
+                rangeFilter("date").gte(from.toString()).lte(to.toString()), aggregations);
+
+            List<AnalyticsBucketDTO> buckets = new ArrayList<>();
+            for (DateHistogram.Bucket bucket : response.getAggregations().<DateHistogram>get(BUCKETS).getBuckets()) {
+                buckets.add(new AnalyticsBucketDTO(bucket.getKey(), bucket.getDocCount(), points(bucket.getAggregations())));
+            }
+            return new AnalyticsDTO(buckets, points(response.getAggregations()));
+        });
+    }
+
+    /**
+     * Distribution of the weigh-ins between two days, by ranges of the given width, with the number of users in
+     * each range, and the statistics of all the weigh-ins.
+     * <p>
+     * The statistics are aggregated first: when the weigh-ins spread over more than "jhipster.analytics.maxBuckets"
+     * ranges of the given width, the ranges are widened to fit, and the width used is returned with the totals.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the width is not positive, or the range is empty
+     */
+    public AnalyticsDTO getWeightDistribution(String query, int width, LocalDate from, LocalDate to) {
+        if (width < 1) {
+            throw new IllegalArgumentException("The width of the ranges must be positive");
+        }
+        checkRange(from, to);
+        return cached("weights", query, String.valueOf(width), from, to, () -> {
+            List<AbstractAggregationBuilder> statistics = new ArrayList<>();
+            statistics.add(extendedStats("weight").field("weight"));
+            statistics.add(cardinality(USERS).field("user.id"));
+            Aggregations totalAggregations = aggregate(Weight.class, query, timestampFilter(from, to), statistics)
+                .getAggregations();
+            ExtendedStats stats = totalAggregations.get("weight");
+            int rangeWidth = rangeWidth(width, stats);
+
+            List<AnalyticsBucketDTO> buckets = new ArrayList<>();
+            if (stats.getCount() > 0) {
+                SearchResponse response = aggregate(Weight.class, query, timestampFilter(from, to),
+                    Collections.singletonList(histogram(BUCKETS).field("weight").interval(rangeWidth)
+                        .subAggregation(cardinality(USERS).field("user.id"))));
+                for (Histogram.Bucket bucket : response.getAggregations().<Histogram>get(BUCKETS).getBuckets()) {
+                    Map<String, Number> values = new LinkedHashMap<>();
+                    values.put(USERS, bucket.getAggregations().<Cardinality>get(USERS).getValue());
+                    buckets.add(new AnalyticsBucketDTO(bucket.getKey(), bucket.getDocCount(), values));
+                }
+            }
+            Map<String, Number> totals = new LinkedHashMap<>();
+            totals.put(USERS, totalAggregations.<Cardinality>get(USERS).getValue());
+            totals.put("count", stats.getCount());
+            totals.put("min", value(stats.getMin()));
+            totals.put("max", value(stats.getMax()));
+            totals.put("avg", value(stats.getAvg()));
+            totals.put("stdDeviation", value(stats.getStdDeviation()));
+            totals.put("width", rangeWidth);
+            return new AnalyticsDTO(buckets, Collections.unmodifiableMap(totals));
+        });
+    }
+
+    /**
+     * The smallest width, from the requested one, that covers the weigh-ins in at most "jhipster.analytics.maxBuckets"
+     * ranges. A range holds the weights from a multiple of the width to the next one, as in the histogram.
+     */
+    private int rangeWidth(int width, ExtendedStats stats) {
+        if (stats.getCount() == 0) {
+            return width;
+        }
+        int rangeWidth = Math.max(width, (int) Math.ceil((stats.getMax() - stats.getMin()) / maxBuckets()));
+        while (Math.floor(stats.getMax() / rangeWidth) - Math.floor(stats.getMin() / rangeWidth) + 1 > maxBuckets()) {
+            rangeWidth++;
+        }
+        return rangeWidth;
+    }
+
+    /**
+     * Blood pressure readings per period between two days: number of readings of each category, and mean pressures.
+     *
+     * @throws IllegalArgumentException if the interval is unknown, or the range is empty or has too many periods
+     */
+    public AnalyticsDTO getBloodPressureCategories(String query, String interval, LocalDate from, LocalDate to) {
+        checkPeriods(interval, from, to);
+        return cached("bloodPressures", query, interval, from, to, () -> {
+            int categories = BloodPressureCategory.values().length;
+            List<AbstractAggregationBuilder> aggregations = new ArrayList<>();
+            aggregations.add(periodHistogram(BUCKETS, "timestamp", interval)
+                .subAggregation(terms("category").field("category").size(categories))
+                .subAggregation(avg("systolic").field("systolic"))
+                .subAggregation(avg("diastolic").field("diastolic")));
+            aggregations.add(terms("category").field("category").size(categories));
+            aggregations.add(avg("systolic").field("systolic"));
+            aggregations.add(avg("diastolic").field("diastolic"));
+            SearchResponse response = aggregate(BloodPressure.class, query, timestampFilter(from, to), aggregations);
+
+            List<AnalyticsBucketDTO> buckets = new ArrayList<>();
+            for (DateHistogram.Bucket bucket : response.getAggregations().<DateHistogram>get(BUCKETS).getBuckets()) {
+                buckets.add(new AnalyticsBucketDTO(bucket.getKey(), bucket.getDocCount(), categories(bucket.getAggregations())));
+            }
+            return new AnalyticsDTO(buckets, categories(response.getAggregations()));
+        });
+    }
+
+    private void checkPeriods(String interval, LocalDate from, LocalDate to) {
+        Integer days = INTERVALS.get(interval);
+        if (days == null) {
+            throw new IllegalArgumentException("The interval must be one of " + INTERVALS.keySet());
+        }
+        checkRange(from, to);
+        if (ChronoUnit.DAYS.between(from, to) / days + 1 > maxBuckets()) {
+            throw new IllegalArgumentException("The range must have at most " + maxBuckets() + " periods");
+        }
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The range must end after it starts");
+        }
+    }
+
+    private int maxBuckets() {
+        return jHipsterProperties.getAnalytics().getMaxBuckets();
+    }
+
+    private AnalyticsDTO cached(String name, String query, String parameter, LocalDate from, LocalDate to,
+                                Supplier<AnalyticsDTO> aggregation) {
+        String scope = SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN) ? "*"
+            : SecurityUtils.getCurrentUserLogin();
+        long period = System.currentTimeMillis() / (jHipsterProperties.getAnalytics().getTimeToLiveInSeconds() * 1000L);
+        String key = String.join("|", name, scope, query == null ? "" : query, parameter,
+            from.toString(), to.toString(), String.valueOf(period));
+        AnalyticsDTO result = results == null ? null : results.get(key, AnalyticsDTO.class);
+        if (result == null) {
+            result = aggregation.get();
+            if (results != null) {
+                results.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    private SearchResponse aggregate(Class<?> type, String query, FilterBuilder filter,
+                                     List<AbstractAggregationBuilder> aggregations) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchTemplate.getElasticsearchConverter().getMappingContext()
+            .getPersistentEntity(type);
+        SearchRequestBuilder request = client.prepareSearch(entity.getIndexName())
+            .setTypes(entity.getIndexType())
+            .setQuery(userDataSearchService.queryForCurrentUser(query, filter))
+            .setSize(0);
+        aggregations.forEach(request::addAggregation);
+        SearchResponse response = request.execute().actionGet();
+        log.debug("Aggregated {} for {} in {} ms", entity.getIndexName(), query, response.getTookInMillis());
+        return response;
+    }
+
+    private static DateHistogramBuilder periodHistogram(String name, String field, String interval) {
+        // weeks start on Monday, as in the rest of the application
+        return dateHistogram(name)
+            .field(field)
+            .interval(new DateHistogram.Interval(interval))
+            .format("yyyy-MM-dd")
+            .minDocCount(0);
+    }
+
+    private static FilterBuilder timestampFilter(LocalDate from, LocalDate to) {
+        return rangeFilter("timestamp").gte(from.toString()).lt(to.plusDays(1).toString());
+    }
+
+    private static Map<String, Number> points(Aggregations aggregations) {
+        double points = 0;
+        for (String field : POINT_FIELDS) {
+            points += aggregations.<Sum>get(field).getValue();
+        }
+        long users = aggregations.<Cardinality>get(USERS).getValue();
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("points", (long) points);
+        values.put(USERS, users);
+        values.put("pointsPerUser", users == 0 ? null : points / users);
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static Map<String, Number> categories(Aggregations aggregations) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        for (BloodPressureCategory category : BloodPressureCategory.values()) {
+            values.put(category.name(), 0L);
+        }
+        for (Terms.Bucket bucket : aggregations.<Terms>get("category").getBuckets()) {
+            // the default mapping indexes the categories in lower case
+            String category = bucket.getKey().toUpperCase(Locale.ROOT);
+            if (values.containsKey(category)) {
+                values.put(category, bucket.getDocCount());
+            }
+        }
+        values.put("systolic", value(aggregations.<Avg>get("systolic").getValue()));
+        values.put("diastolic", value(aggregations.<Avg>get("diastolic").getValue()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * The metrics of an empty bucket are not numbers, and are returned as null.
+     */
+    private static Double value(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+}
@@ -0,0 +1,196 @@
+package org.jhipster.health.service;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Service class for the cache of the search results, in front of the search indices.
+ * <p>
+ * Results are kept in the "searchResults" Ehcache region, keyed by the index, the user they were searched for, the
+ * normalized query and the page, and by two generations read before searching: one of the index, and one of the user
+ * in the index. SearchIndexService moves the generations of the owners of the documents it writes, and of the whole
+ * index when it deletes documents or the index is rebuilt, so the results found before are not read anymore and are
+ * evicted as the least recently used ones once the region is full. Administrators search every
+ * document, so their results follow a generation moved by every write to the index.
+ * </p>
+ * <p>
+ * The generations are only moved by the writes of this node, so results are also only read for
+ * "jhipster.search.cache.timeToLiveInSeconds" after they were found: writes through the other nodes are seen after
+ * at most that long.
+ * </p>
+ * <p>
+ * Without the cache region, as with the "fast" profile, every search goes to the index.
+ * </p>
+ */
+@Service
+public class SearchCacheService {
+
+    public static final String CACHE_NAME = "searchResults";
+
+    private static final String ALL_USERS = "*";
+
+    private static final int STRIPES = 256;
+
+    private final Logger log = LoggerFactory.getLogger(SearchCacheService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    private Cache results;
+
+    private final ConcurrentMap<String, AtomicLong> indexGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * Generations of the users in each index, per stripe of index and login.
+     */
+    private final AtomicLongArray userGenerations = new AtomicLongArray(STRIPES);
+
+    private Meter hitsMeter = new Meter();
+
+    private Meter missesMeter = new Meter();
+
+    @PostConstruct
+    public void init() {
+        results = cacheManager == null ? null : cacheManager.getCache(CACHE_NAME);
+        if (results == null) {
+            log.warn("No {} cache region, search results are not kept", CACHE_NAME);
+        }
+        if (metricRegistry != null) {
+            log.debug("Registering search cache metrics");
+            hitsMeter = metricRegistry.meter(MetricRegistry.name(SearchCacheService.class, "hits"));
+            missesMeter = metricRegistry.meter(MetricRegistry.name(SearchCacheService.class, "misses"));
+            metricRegistry.register(MetricRegistry.name(SearchCacheService.class, "hit-ratio"), new RatioGauge() {
+                @Override
+                protected Ratio getRatio() {
+                    return Ratio.of(hitsMeter.getCount(), hitsMeter.getCount() + missesMeter.getCount());
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the results of a search of the current user, searching only if they are not kept.
+     *
+     * @param entityClass the indexed entity
+     * @param query the query string, as entered
+     * @param page what else selects the results, such as the page and the returned fields
+     * @param search the search, returning results that are not changed afterwards
+     */
+    public <T> T get(Class<?> entityClass, String query, String page, Supplier<T> search) {
+        String scope = SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN) ? ALL_USERS
+            : String.valueOf(SecurityUtils.getCurrentUserLogin()).toLowerCase();
+        return get(entityClass, scope, query, page, search);
+    }
+
+    /**
+     * Get the results of a search of all the documents of the index, the same for every user, searching only if they
+     * are not kept.
+     */
+    public <T> T getForAllUsers(Class<?> entityClass, String query, String page, Supplier<T> search) {
+        return get(entityClass, ALL_USERS, query, page, search);
+    }
+
+    /**
+     * Documents of these users were written to the index: their results, and the ones of administrators, are not
+     * read anymore.
+     */
+    public void written(Class<?> entityClass, Collection<String> logins) {
+        String index = entityClass.getSimpleName();
+        for (String login : logins) {
+            userGenerations.incrementAndGet(stripe(index, login.toLowerCase()));
+        }
+        userGenerations.incrementAndGet(stripe(index, ALL_USERS));
+    }
+
+    /**
+     * Documents of unknown users were written to the index, or it was rebuilt: none of its results are read anymore.
+     */
+    public void writtenAll(Class<?> entityClass) {
+        indexGeneration(entityClass.getSimpleName()).incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Class<?> entityClass, String scope, String query, String page, Supplier<T> search) {
+        if (results == null || !jHipsterProperties.getSearch().getCache().isEnabled()) {
+            return search.get();
+        }
+        String index = entityClass.getSimpleName();
+        // generations are read before searching, so results found while a write completes are kept under old keys
+        String key = String.join("|", index, scope,
+            String.valueOf(indexGeneration(index).get()),
+            String.valueOf(userGenerations.get(stripe(index, scope))),
+            normalize(query), page);
+        long now = System.currentTimeMillis();
+        Result result = results.get(key, Result.class);
+        if (result != null && result.expires <= now) {
+            results.evict(key);
+            result = null;
+        }
+        if (result != null) {
+            hitsMeter.mark();
+            return (T) result.value;
+        }
+        missesMeter.mark();
+        T found = search.get();
+        if (found != null) {
+            long expires = now + jHipsterProperties.getSearch().getCache().getTimeToLiveInSeconds() * 1000L;
+            results.put(key, new Result(found, expires));
+        }
+        return found;
+    }
+
+    private AtomicLong indexGeneration(String index) {
+        return indexGenerations.computeIfAbsent(index, name -> new AtomicLong());
+    }
+
+    private static int stripe(String index, String scope) {
+        return ((index + "|" + scope).hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    /**
+     * The same query typed with other spaces gets the same results.
+     */
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Results of a search, and when they stop being read.
+     */
+    private static class Result {
+
+        private final Object value;
+
+        private final long expires;
+
+        Result(Object value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
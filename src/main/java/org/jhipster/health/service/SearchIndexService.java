@@ -0,0 +1,349 @@
+package org.jhipster.health.service;
+
+import com.codahale.metrics.CachedGauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.*;
+import org.jhipster.health.repository.*;
+import org.jhipster.health.repository.search.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.query.DeleteQuery;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.index.query.QueryBuilders.idsQuery;
+
+/**
+ * Service class for keeping the search indices in sync with the database.
+ * <p>
+ * Writes only record the changed entity in the search outbox, in the caller's transaction.
+ * The outbox is drained in the background with bulk requests, so Elasticsearch latency and
+ * outages do not affect the writes. Failed entries are retried with an exponential backoff, up to
+ * "jhipster.search.outbox.maxAttempts" times, and are then kept as dead letters.
+ * </p>
+ * <p>
+ * Each batch is claimed in a short transaction, indexed outside of it, and removed once indexed, so no database
+ * connection waits for Elasticsearch, and the entries claimed by a node that stopped are drained again once their
+ * lease expires.
+ * </p>
+ * <p>
+ * Only one node must drain the outbox, the others set "jhipster.search.outbox.drain" to false: documents are
+ * indexed without a version, so two nodes synchronizing the same entity at the same time could write the one read
+ * before a change after the one read after it. A single node drains one batch at a time, and always reads the
+ * entities after the writes of the entries it claims.
+ * </p>
+ */
+@Service
+public class SearchIndexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    @Inject
+    private SearchOutboxEntryRepository searchOutboxEntryRepository;
+
+    @Inject
+    private SearchIndexPauseRepository searchIndexPauseRepository;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private PointSearchRepository pointSearchRepository;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private WeightSearchRepository weightSearchRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private BloodPressureSearchRepository bloodPressureSearchRepository;
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    @Inject
+    private PreferenceSearchRepository preferenceSearchRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private UserSearchRepository userSearchRepository;
+
+    private final Map<String, SearchTarget<?>> targets = new HashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Meter indexedMeter = new Meter();
+
+    private Meter failedMeter = new Meter();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        register(Point.class, pointRepository, pointSearchRepository, Point::getId,
+            point -> loginOf(point.getUser()));
+        register(Weight.class, weightRepository, weightSearchRepository, Weight::getId,
+            weight -> loginOf(weight.getUser()));
+        register(BloodPressure.class, bloodPressureRepository, bloodPressureSearchRepository, BloodPressure::getId,
+            bloodPressure -> loginOf(bloodPressure.getUser()));
+        // preferences are searched for all the users, and do not know their owner
+        register(Preference.class, preferenceRepository, preferenceSearchRepository, Preference::getId,
+            preference -> null);
+        register(User.class, userRepository, userSearchRepository, User::getId, User::getLogin);
+        if (metricRegistry != null) {
+            log.debug("Registering search outbox metrics");
+            indexedMeter = metricRegistry.meter(MetricRegistry.name(SearchIndexService.class, "outbox", "synchronized"));
+            failedMeter = metricRegistry.meter(MetricRegistry.name(SearchIndexService.class, "outbox", "failed"));
+            metricRegistry.register(MetricRegistry.name(SearchIndexService.class, "outbox", "depth"),
+                new CachedGauge<Long>(5, TimeUnit.SECONDS) {
+                    @Override
+                    protected Long loadValue() {
+                        return searchOutboxEntryRepository.countByDeadLetter(false);
+                    }
+                });
+            metricRegistry.register(MetricRegistry.name(SearchIndexService.class, "outbox", "dead-letters"),
+                new CachedGauge<Long>(5, TimeUnit.SECONDS) {
+                    @Override
+                    protected Long loadValue() {
+                        return searchOutboxEntryRepository.countByDeadLetter(true);
+                    }
+                });
+            metricRegistry.register(MetricRegistry.name(SearchIndexService.class, "outbox", "lag-seconds"),
+                new CachedGauge<Long>(5, TimeUnit.SECONDS) {
+                    @Override
+                    protected Long loadValue() {
+                        return searchOutboxEntryRepository.findFirstByDeadLetterOrderByIdAsc(false)
+                            .map(entry -> Duration.between(entry.getCreatedDate(), ZonedDateTime.now()).getSeconds())
+                            .orElse(0L);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Schedule the entity to be (re)indexed once the current transaction commits.
+     */
+    @Transactional
+    public void index(Class<?> entityClass, Long id) {
+        schedule(entityClass, id);
+    }
+
+    /**
+     * Schedule the entity to be removed from its index once the current transaction commits.
+     */
+    @Transactional
+    public void delete(Class<?> entityClass, Long id) {
+        schedule(entityClass, id);
+    }
+
+    /**
+     * Stop draining the outbox entries of this entity on every node, they are kept until {@link #resume(Class)} is
+     * called or the given number of seconds elapsed. Pausing again extends the pause.
+     */
+    @Transactional
+    public void pause(Class<?> entityClass, int seconds) {
+        searchIndexPauseRepository.save(
+            new SearchIndexPause(entityClass.getSimpleName(), ZonedDateTime.now().plusSeconds(seconds)));
+    }
+
+    @Transactional
+    public void resume(Class<?> entityClass) {
+        searchIndexPauseRepository.deleteByEntityType(entityClass.getSimpleName());
+    }
+
+    /**
+     * Drain the search outbox.
+     * <p>
+     * Every entry is handled as "make the index match the database": entities that still exist are
+     * reindexed, the others are deleted. This keeps retries idempotent whatever order they run in.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${jhipster.search.outbox.delay:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void processOutbox() {
+        if (!jHipsterProperties.getSearch().getOutbox().isDrain()) {
+            return;
+        }
+        String claimToken = UUID.randomUUID().toString();
+        List<SearchOutboxEntry> entries = transactionTemplate.execute(status -> claim(claimToken));
+        if (entries.isEmpty()) {
+            return;
+        }
+        log.debug("Synchronizing {} search outbox entries", entries.size());
+        Map<String, List<Long>> entryIdsByType = entries.stream()
+            .collect(Collectors.groupingBy(SearchOutboxEntry::getEntityType,
+                Collectors.mapping(SearchOutboxEntry::getId, Collectors.toList())));
+        Map<String, Set<Long>> idsByType = entries.stream()
+            .collect(Collectors.groupingBy(SearchOutboxEntry::getEntityType,
+                Collectors.mapping(SearchOutboxEntry::getEntityId, Collectors.toCollection(LinkedHashSet::new))));
+        for (Map.Entry<String, List<Long>> typeEntryIds : entryIdsByType.entrySet()) {
+            String entityType = typeEntryIds.getKey();
+            List<Long> entryIds = typeEntryIds.getValue();
+            SearchTarget<?> target = targets.get(entityType);
+            if (target == null) {
+                log.error("Unknown search outbox entity type {}, discarding its entries", entityType);
+                transactionTemplate.execute(status -> searchOutboxEntryRepository.deleteClaimed(claimToken, entryIds));
+                continue;
+            }
+            Set<Long> ids = idsByType.get(entityType);
+            try {
+                target.synchronize(ids);
+            } catch (Exception e) {
+                log.warn("Could not synchronize the {} search index, will retry: {}", entityType, e.getMessage());
+                failedMeter.mark(entryIds.size());
+                transactionTemplate.execute(status -> retryLater(claimToken, entryIds));
+                continue;
+            }
+            transactionTemplate.execute(status -> searchOutboxEntryRepository.deleteClaimed(claimToken, entryIds));
+            indexedMeter.mark(ids.size());
+        }
+    }
+
+    /**
+     * Claim the next due entries for this node, until "jhipster.search.outbox.leaseSeconds" from now: if the node
+     * stops before they are synchronized, they are claimed by another node after that.
+     */
+    private List<SearchOutboxEntry> claim(String claimToken) {
+        ZonedDateTime now = ZonedDateTime.now();
+        JHipsterProperties.Search.Outbox outbox = jHipsterProperties.getSearch().getOutbox();
+        PageRequest pageRequest = new PageRequest(0, outbox.getBatchSize());
+        List<Long> entryIds = searchOutboxEntryRepository.findIdsToClaim(now, pageRequest);
+        if (entryIds.isEmpty() ||
+            searchOutboxEntryRepository.claim(claimToken, now.plusSeconds(outbox.getLeaseSeconds()), entryIds, now) == 0) {
+            return Collections.emptyList();
+        }
+        return searchOutboxEntryRepository.findAllByClaimToken(claimToken);
+    }
+
+    /**
+     * Release the claimed entries with an exponential backoff, or keep them as dead letters once they failed
+     * "jhipster.search.outbox.maxAttempts" times.
+     */
+    private int retryLater(String claimToken, List<Long> entryIds) {
+        ZonedDateTime now = ZonedDateTime.now();
+        JHipsterProperties.Search.Outbox outbox = jHipsterProperties.getSearch().getOutbox();
+        int deadLetters = 0;
+        for (SearchOutboxEntry entry : searchOutboxEntryRepository.findAll(entryIds)) {
+            if (!claimToken.equals(entry.getClaimToken())) {
+                // the lease expired, and another node claimed the entry
+                continue;
+            }
+            entry.setClaimToken(null);
+            entry.setAttempts(entry.getAttempts() + 1);
+            if (entry.getAttempts() >= outbox.getMaxAttempts()) {
+                entry.setDeadLetter(true);
+                deadLetters++;
+            }
+            long backoff = Math.min(1L << Math.min(entry.getAttempts(), 20), outbox.getMaxBackoffSeconds());
+            entry.setNextAttemptDate(now.plusSeconds(backoff));
+        }
+        if (deadLetters > 0) {
+            log.error("{} search outbox entries failed {} times, they will not be retried anymore", deadLetters,
+                outbox.getMaxAttempts());
+        }
+        return deadLetters;
+    }
+
+    private void schedule(Class<?> entityClass, Long id) {
+        if (id == null) {
+            return;
+        }
+        searchOutboxEntryRepository.save(new SearchOutboxEntry(entityClass.getSimpleName(), id));
+    }
+
+    private <T> void register(Class<T> entityClass, JpaRepository<T, Long> repository,
+                              ElasticsearchRepository<T, Long> searchRepository, Function<T, Long> idOf,
+                              Function<T, String> ownerOf) {
+        targets.put(entityClass.getSimpleName(),
+            new SearchTarget<>(entityClass, repository, searchRepository, idOf, ownerOf));
+    }
+
+    private static String loginOf(User user) {
+        return user == null ? null : user.getLogin();
+    }
+
+    private class SearchTarget<T> {
+
+        private final Class<T> entityClass;
+
+        private final JpaRepository<T, Long> repository;
+
+        private final ElasticsearchRepository<T, Long> searchRepository;
+
+        private final Function<T, Long> idOf;
+
+        private final Function<T, String> ownerOf;
+
+        SearchTarget(Class<T> entityClass, JpaRepository<T, Long> repository,
+                     ElasticsearchRepository<T, Long> searchRepository, Function<T, Long> idOf,
+                     Function<T, String> ownerOf) {
+            this.entityClass = entityClass;
+            this.repository = repository;
+            this.searchRepository = searchRepository;
+            this.idOf = idOf;
+            this.ownerOf = ownerOf;
+        }
+
+        void synchronize(Set<Long> ids) {
+            List<T> entities = repository.findAll(ids);
+            if (!entities.isEmpty()) {
+                // saved and refreshed, so the cached results of the owners are searched again from now on
+                searchRepository.save(entities);
+                searchCacheService.written(entityClass, entities.stream()
+                    .map(ownerOf)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+            }
+            Set<Long> deletedIds = new HashSet<>(ids);
+            entities.forEach(entity -> deletedIds.remove(idOf.apply(entity)));
+            if (!deletedIds.isEmpty()) {
+                DeleteQuery deleteQuery = new DeleteQuery();
+                deleteQuery.setQuery(idsQuery().ids(deletedIds.stream().map(String::valueOf).toArray(String[]::new)));
+                elasticsearchTemplate.delete(deleteQuery, entityClass);
+                // the owners of deleted documents are not known anymore, so all the results of the index are dropped
+                elasticsearchTemplate.refresh(entityClass, true);
+                searchCacheService.writtenAll(entityClass);
+            }
+        }
+    }
+}
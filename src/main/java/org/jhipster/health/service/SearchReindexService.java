@@ -0,0 +1,331 @@
+package org.jhipster.health.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.*;
+import org.jhipster.health.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMappingBuilder;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for rebuilding the search indices from the database.
+ * <p>
+ * Each index is rebuilt into a fresh, timestamped index and the alias used by the search repositories
+ * is then swapped to it in one request. Entities are read in keyset-paginated chunks, each in its own
+ * read-only transaction, so the whole table is never held in memory.
+ * </p>
+ * <p>
+ * The new index gets the settings and the mapping of the entity, not the ones of the current index, so that a
+ * rebuild applies a change of the mapping. The search outbox of the entity is paused on every node while it is rebuilt, and drained into the new index once
+ * the alias is swapped.
+ * </p>
+ * <p>
+ * The first rebuild of an index created by a search repository, under the name of the alias, is not atomic: that
+ * index has to be deleted before the alias can take its name, and Elasticsearch 1.5 cannot do both in one request,
+ * so searches of the entity fail until the alias is added, a few milliseconds later.
+ * </p>
+ */
+@Service
+public class SearchReindexService {
+
+    private static final DateTimeFormatter INDEX_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Inject
+    private PreferenceRepository preferenceRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    private final List<ReindexTarget<?>> targets = new ArrayList<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong expectedDocuments = new AtomicLong();
+
+    private final AtomicLong indexedDocuments = new AtomicLong();
+
+    private Meter documentsMeter = new Meter();
+
+    private Counter errorsCounter = new Counter();
+
+    @PostConstruct
+    public void init() {
+        targets.add(new ReindexTarget<>(Point.class, pointRepository::count,
+            pointRepository::findAllByIdGreaterThanOrderByIdAsc, Point::getId));
+        targets.add(new ReindexTarget<>(Weight.class, weightRepository::count,
+            weightRepository::findAllByIdGreaterThanOrderByIdAsc, Weight::getId));
+        targets.add(new ReindexTarget<>(BloodPressure.class, bloodPressureRepository::count,
+            bloodPressureRepository::findAllByIdGreaterThanOrderByIdAsc, BloodPressure::getId));
+        targets.add(new ReindexTarget<>(Preference.class, preferenceRepository::count,
+            preferenceRepository::findAllByIdGreaterThanOrderByIdAsc, Preference::getId));
+        targets.add(new ReindexTarget<>(User.class, userRepository::count,
+            userRepository::findAllByIdGreaterThanOrderByIdAsc, User::getId));
+        if (metricRegistry != null) {
+            log.debug("Registering search reindex metrics");
+            documentsMeter = metricRegistry.meter(MetricRegistry.name(SearchReindexService.class, "documents"));
+            errorsCounter = metricRegistry.counter(MetricRegistry.name(SearchReindexService.class, "errors"));
+            metricRegistry.register(MetricRegistry.name(SearchReindexService.class, "progress"),
+                (Gauge<Double>) () -> expectedDocuments.get() == 0 ? 1.0 :
+                    (double) indexedDocuments.get() / expectedDocuments.get());
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public List<String> getIndexNames() {
+        return targets.stream().map(ReindexTarget::getAlias).collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild the given indices, or all of them when none is given, on the task executor.
+     */
+    @Async
+    public void reindexAsync(Collection<String> indexNames) {
+        reindex(indexNames);
+    }
+
+    /**
+     * All the indices are rebuilt when jhipster.search.reindex.scheduled is set.
+     * <p>
+     * This is scheduled with jhipster.search.reindex.cron, every Sunday at 03:00 (am) by default.
+     * </p>
+     */
+    @Scheduled(cron = "${jhipster.search.reindex.cron:0 0 3 * * SUN}")
+    public void scheduledReindex() {
+        if (jHipsterProperties.getSearch().getReindex().isScheduled()) {
+            reindex(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Rebuild the given indices, or all of them when none is given.
+     *
+     * @return false if a reindex was already running
+     */
+    public boolean reindex(Collection<String> indexNames) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("A reindex is already running");
+            return false;
+        }
+        try {
+            List<ReindexTarget<?>> selected = targets.stream()
+                .filter(target -> indexNames.isEmpty() || indexNames.contains(target.getAlias()))
+                .collect(Collectors.toList());
+            indexedDocuments.set(0);
+            expectedDocuments.set(selected.stream().mapToLong(target -> target.count.get()).sum());
+            for (ReindexTarget<?> target : selected) {
+                try {
+                    reindex(target);
+                } catch (Exception e) {
+                    errorsCounter.inc();
+                    log.error("Could not rebuild the {} index, the current index is kept: {}", target.getAlias(), e.getMessage(), e);
+                }
+            }
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private <T> void reindex(ReindexTarget<T> target) {
+        String alias = target.getAlias();
+        String type = target.getType();
+        String newIndex = alias + "_" + LocalDateTime.now().format(INDEX_SUFFIX);
+        int chunkSize = jHipsterProperties.getSearch().getReindex().getChunkSize();
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding the {} index into {}", alias, newIndex);
+
+        // writes made while the index is rebuilt stay in the outbox, and are replayed on the new index
+        int pauseSeconds = jHipsterProperties.getSearch().getReindex().getPauseSeconds();
+        searchIndexService.pause(target.entityClass, pauseSeconds);
+        try {
+            elasticsearchTemplate.createIndex(newIndex, target.getSettings());
+            elasticsearchTemplate.putMapping(newIndex, type, target.getMapping());
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            Long lastId = Long.MIN_VALUE;
+            long documents = 0;
+            while (true) {
+                Long afterId = lastId;
+                List<T> chunk = transactionTemplate.execute(status ->
+                    target.findChunk.apply(afterId, new PageRequest(0, chunkSize)));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<IndexQuery> queries = chunk.stream()
+                    .map(entity -> new IndexQueryBuilder()
+                        .withIndexName(newIndex)
+                        .withType(type)
+                        .withId(String.valueOf(target.idOf.apply(entity)))
+                        .withObject(entity)
+                        .build())
+                    .collect(Collectors.toList());
+                elasticsearchTemplate.bulkIndex(queries);
+                documents += chunk.size();
+                documentsMeter.mark(chunk.size());
+                indexedDocuments.addAndGet(chunk.size());
+                lastId = target.idOf.apply(chunk.get(chunk.size() - 1));
+                // the pause expires if this node stops, so that the outbox is drained again
+                searchIndexService.pause(target.entityClass, pauseSeconds);
+            }
+            elasticsearchTemplate.refresh(newIndex, true);
+            swapAlias(alias, newIndex);
+            searchCacheService.writtenAll(target.entityClass);
+            log.info("Rebuilt the {} index with {} documents in {} ms", alias, documents, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            if (elasticsearchTemplate.indexExists(newIndex)) {
+                elasticsearchTemplate.deleteIndex(newIndex);
+            }
+            throw e;
+        } finally {
+            searchIndexService.resume(target.entityClass);
+        }
+    }
+
+    private void swapAlias(String alias, String newIndex) {
+        boolean aliasExists = client.admin().indices().prepareAliasesExist(alias).get().exists();
+        List<String> oldIndices = new ArrayList<>();
+        if (aliasExists) {
+            client.admin().indices().prepareGetAliases(alias).get().getAliases().keysIt()
+                .forEachRemaining(oldIndices::add);
+        } else if (elasticsearchTemplate.indexExists(alias)) {
+            // first reindex: the index was created under the alias name, it must go before the alias is added
+            log.warn("Replacing the {} index with an alias, searches on it fail until the alias is added", alias);
+            elasticsearchTemplate.deleteIndex(alias);
+        }
+        IndicesAliasesRequestBuilder aliases = client.admin().indices().prepareAliases();
+        oldIndices.forEach(oldIndex -> aliases.removeAlias(oldIndex, alias));
+        aliases.addAlias(newIndex, alias).get();
+        oldIndices.forEach(elasticsearchTemplate::deleteIndex);
+    }
+
+    private class ReindexTarget<T> {
+
+        private final Class<T> entityClass;
+
+        private final Supplier<Long> count;
+
+        private final BiFunction<Long, Pageable, List<T>> findChunk;
+
+        private final Function<T, Long> idOf;
+
+        ReindexTarget(Class<T> entityClass, Supplier<Long> count,
+                      BiFunction<Long, Pageable, List<T>> findChunk, Function<T, Long> idOf) {
+            this.entityClass = entityClass;
+            this.count = count;
+            this.findChunk = findChunk;
+            this.idOf = idOf;
+        }
+
+        String getAlias() {
+            return persistentEntity().getIndexName();
+        }
+
+        String getType() {
+            return persistentEntity().getIndexType();
+        }
+
+        /**
+         * The settings of the entity's {@code @Setting} file, or the ones of its {@code @Document}.
+         */
+        Object getSettings() {
+            ElasticsearchPersistentEntity<?> persistentEntity = persistentEntity();
+            if (StringUtils.hasText(persistentEntity.settingPath())) {
+                return ElasticsearchTemplate.readFileFromClasspath(persistentEntity.settingPath());
+            }
+            Map<String, String> settings = new HashMap<>();
+            settings.put("index.number_of_shards", String.valueOf(persistentEntity.getShards()));
+            settings.put("index.number_of_replicas", String.valueOf(persistentEntity.getReplicas()));
+            settings.put("index.refresh_interval", persistentEntity.getRefreshInterval());
+            settings.put("index.store.type", persistentEntity.getIndexStoreType());
+            return settings;
+        }
+
+        /**
+         * The mapping of the entity's {@code @Mapping} file, or the one built from its fields, as the search
+         * repository puts it when it creates the index.
+         */
+        Object getMapping() {
+            Mapping mapping = entityClass.getAnnotation(Mapping.class);
+            if (mapping != null && StringUtils.hasText(mapping.mappingPath())) {
+                return ElasticsearchTemplate.readFileFromClasspath(mapping.mappingPath());
+            }
+            try {
+                return EntityMappingBuilder.buildMapping(persistentEntity());
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not build the mapping of the " + getAlias() + " index", e);
+            }
+        }
+
+        private ElasticsearchPersistentEntity<?> persistentEntity() {
+            return elasticsearchTemplate.getElasticsearchConverter().getMappingContext().getPersistentEntity(entityClass);
+        }
+    }
+}
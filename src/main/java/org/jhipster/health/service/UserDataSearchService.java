@@ -0,0 +1,154 @@
+package org.jhipster.health.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.BoolFilterBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.elasticsearch.index.query.FilterBuilders.boolFilter;
+import static org.elasticsearch.index.query.FilterBuilders.termFilter;
+import static org.elasticsearch.index.query.QueryBuilders.filteredQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+
+/**
+ * Service class for the searches of the users' data: points, weights and blood pressures.
+ * <p>
+ * A user only searches their own documents: the owner is matched by a term filter on "user.login", which
+ * Elasticsearch caches and applies before scoring, instead of being part of the query. Results are paged with
+ * from/size, up to "jhipster.search.query.maxResultWindow", which also caps the total count, and only the requested
+ * fields of the source are fetched.
+ * Administrators search the documents of all the users. Pages are kept by SearchCacheService until their index is
+ * written.
+ * </p>
+ */
+@Service
+public class UserDataSearchService {
+
+    private final Logger log = LoggerFactory.getLogger(UserDataSearchService.class);
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    /**
+     * Search the documents of the current user matching a query string.
+     *
+     * @param type the indexed entity
+     * @param query the query string, in the Lucene syntax
+     * @param pageable the page, sorted by relevance unless a sort is given
+     * @param fields the fields of the source to return, such as "user.login", which are also the fields to sort on
+     * @throws IllegalArgumentException if the page is deeper than "jhipster.search.query.maxResultWindow", or if it
+     * is sorted on another field
+     */
+    public <T> Page<T> search(Class<T> type, String query, Pageable pageable, String... fields) {
+        int maxResultWindow = jHipsterProperties.getSearch().getQuery().getMaxResultWindow();
+        if (pageable.getOffset() + pageable.getPageSize() > maxResultWindow) {
+            throw new IllegalArgumentException("Search results are limited to the first " + maxResultWindow);
+        }
+        if (pageable.getSort() != null) {
+            List<String> sortable = Arrays.asList(fields);
+            for (Sort.Order order : pageable.getSort()) {
+                if (!sortable.contains(order.getProperty())) {
+                    throw new IllegalArgumentException("Search results can only be sorted by " + sortable);
+                }
+            }
+        }
+        String page = pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort()
+            + "|" + String.join(",", fields);
+        return searchCacheService.get(type, query, page, () -> find(type, query, pageable, fields));
+    }
+
+    private <T> Page<T> find(Class<T> type, String query, Pageable pageable, String... fields) {
+        QueryBuilder queryBuilder = queryForCurrentUser(query, null);
+        ElasticsearchPersistentEntity<?> entity = elasticsearchTemplate.getElasticsearchConverter().getMappingContext()
+            .getPersistentEntity(type);
+        SearchRequestBuilder request = client.prepareSearch(entity.getIndexName())
+            .setTypes(entity.getIndexType())
+            .setQuery(queryBuilder)
+            .setFetchSource(fields, null)
+            .setFrom(pageable.getOffset())
+            .setSize(pageable.getPageSize());
+        if (pageable.getSort() != null) {
+            for (Sort.Order order : pageable.getSort()) {
+                request.addSort(order.getProperty(), order.isAscending() ? SortOrder.ASC : SortOrder.DESC);
+            }
+        }
+        SearchResponse response = request.execute().actionGet();
+        log.debug("Searched {} for {} in {} ms", entity.getIndexName(), query, response.getTookInMillis());
+
+        ObjectReader reader = objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        List<T> content = new ArrayList<>(response.getHits().getHits().length);
+        for (SearchHit hit : response.getHits()) {
+            try {
+                content.add(reader.readValue(hit.sourceAsString()));
+            } catch (IOException e) {
+                throw new ElasticsearchException("Could not read the " + entity.getIndexName() + " document " + hit.getId(), e);
+            }
+        }
+        // the pages beyond the result window cannot be read, so they are not linked
+        long total = Math.min(response.getHits().getTotalHits(),
+            jHipsterProperties.getSearch().getQuery().getMaxResultWindow());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Build the query of the documents readable by the current user: their own documents, or every document for an
+     * administrator.
+     *
+     * @param query the query string, in the Lucene syntax, or null to match every document
+     * @param filter an other filter on the documents, or null
+     */
+    public QueryBuilder queryForCurrentUser(String query, FilterBuilder filter) {
+        QueryBuilder queryBuilder = query == null ? matchAllQuery() : queryStringQuery(query);
+        BoolFilterBuilder filters = boolFilter();
+        boolean filtered = false;
+        if (!SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)) {
+            // logins are lower case letters and digits, so they are single terms in the default mapping
+            filters.must(termFilter("user.login", SecurityUtils.getCurrentUserLogin()));
+            filtered = true;
+        }
+        if (filter != null) {
+            filters.must(filter);
+            filtered = true;
+        }
+        return filtered ? filteredQuery(queryBuilder, filters) : queryBuilder;
+    }
+}
@@ -0,0 +1,175 @@
+package org.jhipster.health.service;
+
+import org.hibernate.Session;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.security.SecurityUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Version of each user's readings and preferences, changed by every write, to build ETags from.
+ * <p>
+ * Versions are stored in the data_version column of the user, and drawn from their own sequence, so they only
+ * grow and every node sees the same ones. They are changed in the transaction of the write, so a version is only
+ * seen once the data it stands for is committed. A write changes the versions of the owners of the data, before
+ * and after the write, and of the user who wrote it, so the latest version, which administrators read, changes too.
+ * </p>
+ * <p>
+ * Preferences are listed and read by id for every user, so each preference also keeps the version of its last
+ * write, in its own data_version column, drawn from the same sequence.
+ * </p>
+ * <p>
+ * The columns are not mapped on the entities, and is read and written with plain SQL, so that versions are never
+ * overwritten by a stale entity and writes do not evict the cached users.
+ * </p>
+ */
+@Service
+@Transactional
+public class UserDataVersionService {
+
+    private static final String SELECT_VERSION = "select data_version from jhi_user where login = ?";
+
+    private static final String SELECT_LATEST_VERSION = "select max(data_version) from jhi_user";
+
+    private static final String UPDATE_VERSION = "update jhi_user " +
+        "set data_version = nextval('user_data_version_sequence') where login = ?";
+
+    private static final String SELECT_PREFERENCE_VERSION = "select data_version from preference where id = ?";
+
+    private static final String SELECT_PREFERENCES_VERSION = "select count(*), max(data_version) from preference";
+
+    private static final String UPDATE_PREFERENCE_VERSION = "update preference " +
+        "set data_version = nextval('user_data_version_sequence') where id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get the current version of the user's data.
+     */
+    @Transactional(readOnly = true)
+    public long getVersion(String login) {
+        if (login == null) {
+            return 0;
+        }
+        return selectVersion(SELECT_VERSION, login.toLowerCase());
+    }
+
+    /**
+     * Get the current version of the data the current user can read: their own data, or everybody's for an
+     * administrator.
+     */
+    @Transactional(readOnly = true)
+    public long getVersionForCurrentUser() {
+        if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)) {
+            return getLatestVersion();
+        }
+        return getVersion(SecurityUtils.getCurrentUserLogin());
+    }
+
+    /**
+     * Get the version of the latest write by anyone, for data that may belong to any user.
+     */
+    @Transactional(readOnly = true)
+    public long getLatestVersion() {
+        return selectVersion(SELECT_LATEST_VERSION, null);
+    }
+
+    /**
+     * Get the current version of the data of the given owner, or the latest version for data without an owner.
+     */
+    @Transactional(readOnly = true)
+    public long getVersionOfOwner(String login) {
+        return login == null ? getLatestVersion() : getVersion(login);
+    }
+
+    /**
+     * Get the version of the last write to the preference.
+     */
+    @Transactional(readOnly = true)
+    public long getPreferenceVersion(Long id) {
+        return selectVersion(SELECT_PREFERENCE_VERSION, id);
+    }
+
+    /**
+     * Get the version of the preferences of every user: their number and the version of the last write, so that
+     * a create, an update or a delete changes it.
+     */
+    @Transactional(readOnly = true)
+    public String getPreferencesVersion() {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PREFERENCES_VERSION);
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1) + "." + resultSet.getLong(2);
+            }
+        });
+    }
+
+    /**
+     * Record a write by the current user to data owned by the given users: the owner after the write, and the
+     * previous one on an update. Owners may be null.
+     */
+    public void written(User... owners) {
+        Set<String> logins = new LinkedHashSet<>();
+        logins.add(SecurityUtils.getCurrentUserLogin());
+        for (User owner : owners) {
+            if (owner != null) {
+                logins.add(owner.getLogin());
+            }
+        }
+        logins.forEach(this::bump);
+    }
+
+    /**
+     * Record a write by the current user to the preference, owned by the given user, who may be null.
+     * The preference is flushed first, so a new one gets its version too.
+     */
+    public void writtenPreference(Long id, User owner) {
+        entityManager.flush();
+        update(UPDATE_PREFERENCE_VERSION, id);
+        written(owner);
+    }
+
+    /**
+     * Change the version of the user's data, in the current transaction.
+     */
+    public void bump(String login) {
+        if (login == null) {
+            return;
+        }
+        update(UPDATE_VERSION, login.toLowerCase());
+    }
+
+    private long selectVersion(String sql, Object parameter) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                if (parameter != null) {
+                    statement.setObject(1, parameter);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0L;
+                }
+            }
+        });
+    }
+
+    private void update(String sql, Object parameter) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                if (parameter != null) {
+                    statement.setObject(1, parameter);
+                }
+                statement.executeUpdate();
+            }
+        });
+    }
+}
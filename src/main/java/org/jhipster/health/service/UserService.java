@@ -4,8 +4,8 @@ import org.jhipster.health.domain.Authority;
 import org.jhipster.health.domain.User;
 import org.jhipster.health.repository.AuthorityRepository;
 import org.jhipster.health.repository.UserRepository;
-import org.jhipster.health.repository.search.UserSearchRepository;
 import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.security.xauth.UserDetailsCache;
 import org.jhipster.health.service.util.RandomUtil;
 import org.jhipster.health.web.rest.dto.ManagedUserDTO;
 import java.time.ZonedDateTime;
@@ -37,11 +37,14 @@ public class UserService {
     private UserRepository userRepository;
 
     @Inject
-    private UserSearchRepository userSearchRepository;
+    private SearchIndexService searchIndexService;
 
     @Inject
     private AuthorityRepository authorityRepository;
 
+    @Inject
+    private UserDetailsCache userDetailsCache;
+
     public Optional<User> activateRegistration(String key) {
         log.debug("Activating user for activation key {}", key);
         userRepository.findOneByActivationKey(key)
@@ -50,7 +53,7 @@ public class UserService {
                 user.setActivated(true);
                 user.setActivationKey(null);
                 userRepository.save(user);
-                userSearchRepository.save(user);
+                searchIndexService.index(User.class, user.getId());
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -70,6 +73,7 @@ public class UserService {
                 user.setResetKey(null);
                 user.setResetDate(null);
                 userRepository.save(user);
+                userDetailsCache.evict(user.getLogin());
                 return user;
            });
     }
@@ -106,7 +110,7 @@ public class UserService {
         authorities.add(authority);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        searchIndexService.index(User.class, newUser.getId());
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -135,7 +139,7 @@ public class UserService {
         user.setResetDate(ZonedDateTime.now());
         user.setActivated(true);
         userRepository.save(user);
-        userSearchRepository.save(user);
+        searchIndexService.index(User.class, user.getId());
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -147,7 +151,8 @@ public class UserService {
             u.setEmail(email);
             u.setLangKey(langKey);
             userRepository.save(u);
-            userSearchRepository.save(u);
+            userDetailsCache.evict(u.getLogin());
+            searchIndexService.index(User.class, u.getId());
             log.debug("Changed Information for User: {}", u);
         });
     }
@@ -155,7 +160,8 @@ public class UserService {
     public void deleteUserInformation(String login) {
         userRepository.findOneByLogin(login).ifPresent(u -> {
             userRepository.delete(u);
-            userSearchRepository.delete(u);
+            searchIndexService.delete(User.class, u.getId());
+            userDetailsCache.evict(u.getLogin());
             log.debug("Deleted User: {}", u);
         });
     }
@@ -165,6 +171,7 @@ public class UserService {
             String encryptedPassword = passwordEncoder.encode(password);
             u.setPassword(encryptedPassword);
             userRepository.save(u);
+            userDetailsCache.evict(u.getLogin());
             log.debug("Changed password for User: {}", u);
         });
     }
@@ -205,7 +212,7 @@ public class UserService {
         for (User user : users) {
             log.debug("Deleting not activated user {}", user.getLogin());
             userRepository.delete(user);
-            userSearchRepository.delete(user);
+            searchIndexService.delete(User.class, user.getId());
         }
     }
 }
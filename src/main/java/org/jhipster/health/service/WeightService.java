@@ -0,0 +1,70 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.WeightRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+
+/**
+ * Service class for managing weights.
+ * <p>
+ * Every write goes through this service so the data versions of the owners and the search outbox are updated
+ * in the same transaction, and the weight trends of the owners are updated or dropped.
+ * </p>
+ */
+@Service
+@Transactional
+public class WeightService {
+
+    private final Logger log = LoggerFactory.getLogger(WeightService.class);
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private WeightTrendService weightTrendService;
+
+    public Weight save(Weight weight) {
+        log.debug("Request to save Weight : {}", weight);
+        boolean created = weight.getId() == null;
+        User previousOwner = null;
+        if (!created) {
+            Weight previous = weightRepository.findOne(weight.getId());
+            if (previous != null) {
+                previousOwner = previous.getUser();
+                weightTrendService.changed(previous);
+            }
+        }
+        Weight result = weightRepository.save(weight);
+        userDataVersionService.written(result.getUser(), previousOwner);
+        if (created) {
+            weightTrendService.added(result);
+        } else {
+            weightTrendService.changed(result);
+        }
+        searchIndexService.index(Weight.class, result.getId());
+        return result;
+    }
+
+    public void delete(Long id) {
+        log.debug("Request to delete Weight : {}", id);
+        Weight weight = weightRepository.findOne(id);
+        if (weight != null) {
+            weightTrendService.changed(weight);
+        }
+        weightRepository.delete(id);
+        userDataVersionService.written(weight == null ? null : weight.getUser());
+        searchIndexService.delete(Weight.class, id);
+    }
+}
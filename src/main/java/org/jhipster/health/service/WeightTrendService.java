@@ -0,0 +1,313 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.util.EvictionUtil;
+import org.jhipster.health.service.util.GenerationalCache;
+import org.jhipster.health.web.rest.dto.WeightTrendDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the weight trend of each user.
+ * <p>
+ * The trend of a user is built from their weigh-ins when it is first read, then kept in the "weightTrends" cache
+ * region and updated in constant time by each new weigh-in: the moving average only needs its previous value, and
+ * the rolling means and slope are computed from one count and sum per day of the last 30 days. A weigh-in that is
+ * not later than the last one, updated or deleted drops the trend instead, to be rebuilt from the weight table by
+ * the next read.
+ * </p>
+ * <p>
+ * A trend is built from the weigh-ins of the last 30 days, or of the last {@value #CONVERGENCE_HALF_LIVES}
+ * half-lives if longer, after which the older weigh-ins weigh less than 0.1% in the moving average, so the whole
+ * history is never read again. Without any weigh-in in that period, it is built from the last one.
+ * </p>
+ * <p>
+ * Only the writes of this node update its trends, so a trend is rebuilt once it has been kept for the time to
+ * live: the writes of the other nodes are seen after at most that time.
+ * </p>
+ * <p>
+ * Without the cache region, as with the "fast" profile, the trend is built on every read.
+ * </p>
+ */
+@Service
+public class WeightTrendService {
+
+    public static final String CACHE_NAME = "weightTrends";
+
+    private static final int DAYS = 30;
+
+    private static final int WEEK = 7;
+
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000d;
+
+    private static final int CONVERGENCE_HALF_LIVES = 10;
+
+    private final Logger log = LoggerFactory.getLogger(WeightTrendService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    private GenerationalCache trends;
+
+    @PostConstruct
+    public void init() {
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            log.warn("No {} cache region, weight trends are built on every read", CACHE_NAME);
+        }
+        trends = new GenerationalCache(cache);
+    }
+
+    /**
+     * Get the trend of the current user, building it from their weigh-ins if it is not kept.
+     */
+    @Transactional(readOnly = true)
+    public WeightTrendDTO getTrendForCurrentUser() {
+        String login = SecurityUtils.getCurrentUserLogin().toLowerCase();
+        long now = System.currentTimeMillis();
+        long timeToLive = jHipsterProperties.getWeightTrend().getTimeToLiveInSeconds() * 1000L;
+        Trend trend = trends.get(login, Trend.class);
+        if (trend != null && trend.built + timeToLive <= now) {
+            trends.evict(login);
+            trend = null;
+        }
+        if (trend == null) {
+            trend = trends.load(login, () -> build(now));
+        }
+        synchronized (trend) {
+            return trend.toDTO(LocalDate.now());
+        }
+    }
+
+    /**
+     * Add a new weigh-in to the trend of its owner, once the transaction saving it commits.
+     */
+    public void added(Weight weight) {
+        String login = loginOf(weight.getUser());
+        if (login == null || weight.getTimestamp() == null || weight.getWeight() == null) {
+            return;
+        }
+        ZonedDateTime timestamp = weight.getTimestamp();
+        double value = weight.getWeight();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    add(login, timestamp, value);
+                }
+            });
+        } else {
+            add(login, timestamp, value);
+        }
+    }
+
+    /**
+     * Drop the trend of the owner of a weigh-in that is updated or deleted. Must be called with the weigh-in as it
+     * is stored, before it is changed.
+     */
+    public void changed(Weight weight) {
+        evict(loginOf(weight.getUser()));
+    }
+
+    /**
+     * Drop the trend of the user now and, when called in a transaction, again once it completes, so it is rebuilt
+     * from the weight table.
+     */
+    public void evict(String login) {
+        if (login == null) {
+            return;
+        }
+        String key = login.toLowerCase();
+        EvictionUtil.evictNowAndAfterCompletion(() -> trends.evict(key));
+    }
+
+    private void add(String login, ZonedDateTime timestamp, double value) {
+        String key = login.toLowerCase();
+        trends.written(key);
+        Trend trend = trends.get(key, Trend.class);
+        if (trend == null) {
+            return;
+        }
+        synchronized (trend) {
+            // a weigh-in at the time of the last one may have been read by the build of the trend already
+            if (!trend.add(timestamp, value)) {
+                log.debug("Weigh-in of {} not later than the last one, the trend will be rebuilt", login);
+                trends.evict(key);
+            }
+        }
+    }
+
+    private Trend build(long now) {
+        double halfLifeInDays = jHipsterProperties.getWeightTrend().getHalfLifeInDays();
+        Trend trend = new Trend(halfLifeInDays, now);
+        double days = Math.max(DAYS, CONVERGENCE_HALF_LIVES * halfLifeInDays);
+        ZonedDateTime since = LocalDate.now().minusDays((long) Math.ceil(days)).atStartOfDay(ZoneId.systemDefault());
+        try (Stream<List<?>> rows = weightRepository.streamForCurrentUserSince(since)) {
+            for (Iterator<List<?>> iterator = rows.iterator(); iterator.hasNext(); ) {
+                List<?> row = iterator.next();
+                trend.addRead((ZonedDateTime) row.get(0), ((Number) row.get(1)).doubleValue());
+            }
+        }
+        if (trend.count == 0) {
+            weightRepository.findAllForCurrentUserOrderByTimestampDescIdDesc(new PageRequest(0, 1))
+                .forEach(last -> trend.addRead(last.getTimestamp(), last.getWeight()));
+        }
+        return trend;
+    }
+
+    private String loginOf(User owner) {
+        if (owner == null) {
+            return null;
+        }
+        if (owner.getLogin() != null) {
+            return owner.getLogin();
+        }
+        User user = owner.getId() == null ? null : userRepository.findOne(owner.getId());
+        return user == null ? null : user.getLogin();
+    }
+
+    /**
+     * Moving average and daily counts and sums of the last 30 days of a user, fed with weigh-ins in time order.
+     */
+    private static final class Trend {
+
+        private final double halfLifeInMillis;
+
+        private final long built;
+
+        private long count;
+
+        private long lastTime;
+
+        private double lastWeight;
+
+        private double ewma;
+
+        // one slot per day, indexed by epoch day modulo 30
+        private final long[] days = new long[DAYS];
+
+        private final int[] counts = new int[DAYS];
+
+        private final double[] sums = new double[DAYS];
+
+        private Trend(double halfLifeInDays, long built) {
+            this.halfLifeInMillis = halfLifeInDays * MILLIS_PER_DAY;
+            this.built = built;
+            Arrays.fill(days, Long.MIN_VALUE);
+        }
+
+        /**
+         * Add a new weigh-in.
+         *
+         * @return false if the weigh-in is not later than the last one, and cannot be added
+         */
+        private boolean add(ZonedDateTime timestamp, double weight) {
+            if (count > 0 && timestamp.toInstant().toEpochMilli() <= lastTime) {
+                return false;
+            }
+            addRead(timestamp, weight);
+            return true;
+        }
+
+        /**
+         * Add a weigh-in read from the weight table, in time order.
+         */
+        private void addRead(ZonedDateTime timestamp, double weight) {
+            long time = timestamp.toInstant().toEpochMilli();
+            if (count == 0) {
+                ewma = weight;
+            } else {
+                double alpha = 1 - Math.pow(0.5, (time - lastTime) / halfLifeInMillis);
+                ewma += alpha * (weight - ewma);
+            }
+            count++;
+            lastTime = time;
+            lastWeight = weight;
+            long day = timestamp.withZoneSameInstant(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+            int slot = (int) Math.floorMod(day, (long) DAYS);
+            if (days[slot] != day) {
+                days[slot] = day;
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+            counts[slot]++;
+            sums[slot] += weight;
+        }
+
+        private WeightTrendDTO toDTO(LocalDate today) {
+            if (count == 0) {
+                return new WeightTrendDTO(null, null, null, null, 0, null, 0, null);
+            }
+            long epochToday = today.toEpochDay();
+            int weighIns7Days = 0;
+            int weighIns30Days = 0;
+            double sum7Days = 0;
+            double sum30Days = 0;
+            // least squares of the daily means against the days
+            int n = 0;
+            double sx = 0;
+            double sy = 0;
+            double sxy = 0;
+            double sxx = 0;
+            for (int slot = 0; slot < DAYS; slot++) {
+                long age = epochToday - days[slot];
+                if (age < 0 || age >= DAYS || counts[slot] == 0) {
+                    continue;
+                }
+                weighIns30Days += counts[slot];
+                sum30Days += sums[slot];
+                if (age < WEEK) {
+                    weighIns7Days += counts[slot];
+                    sum7Days += sums[slot];
+                }
+                double x = -age;
+                double y = sums[slot] / counts[slot];
+                n++;
+                sx += x;
+                sy += y;
+                sxy += x * y;
+                sxx += x * x;
+            }
+            Double slopePerWeek = n < 2 ? null : WEEK * (n * sxy - sx * sy) / (n * sxx - sx * sx);
+            return new WeightTrendDTO(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastTime), ZoneId.systemDefault()),
+                lastWeight, ewma,
+                weighIns7Days == 0 ? null : sum7Days / weighIns7Days, weighIns7Days,
+                weighIns30Days == 0 ? null : sum30Days / weighIns30Days, weighIns30Days,
+                slopePerWeek);
+        }
+    }
+}
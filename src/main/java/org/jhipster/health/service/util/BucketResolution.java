@@ -0,0 +1,31 @@
+package org.jhipster.health.service.util;
+
+import java.time.LocalDate;
+
+import static java.time.temporal.ChronoField.DAY_OF_WEEK;
+
+/**
+ * Size of the buckets readings are downsampled into.
+ */
+public enum BucketResolution {
+
+    DAY,
+
+    WEEK,
+
+    MONTH;
+
+    /**
+     * Get the first day of the bucket holding the given day; weeks start on Monday, as for the points.
+     */
+    public LocalDate startOf(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(DAY_OF_WEEK, 1);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.jhipster.health.service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing CSV values.
+ */
+public final class CsvUtil {
+
+    private CsvUtil() {
+    }
+
+    /**
+     * Split a CSV line on commas, honouring double-quoted values (with "" as an escaped quote).
+     * Quoted values cannot span several lines.
+     *
+     * @throws IllegalArgumentException if a quoted value is not terminated
+     */
+    public static List<String> splitLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Quote a value if it contains a comma, a double quote or a line break, so it reads back as one value.
+     * Line breaks are replaced by spaces, as {@link #splitLine} reads one line at a time.
+     */
+    public static String escape(String value) {
+        String singleLine = value.replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+        if (singleLine.indexOf(',') < 0 && singleLine.indexOf('"') < 0) {
+            return singleLine;
+        }
+        return '"' + singleLine.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,25 @@
+package org.jhipster.health.service.util;
+
+/**
+ * Line-oriented formats used to import and export readings.
+ */
+public enum DataFormat {
+
+    NDJSON(DataFormat.APPLICATION_NDJSON_VALUE),
+
+    CSV(DataFormat.TEXT_CSV_VALUE);
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final String mediaType;
+
+    DataFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
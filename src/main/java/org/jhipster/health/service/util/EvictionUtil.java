@@ -0,0 +1,31 @@
+package org.jhipster.health.service.util;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for dropping what is kept in memory about data being written.
+ */
+public final class EvictionUtil {
+
+    private EvictionUtil() {
+    }
+
+    /**
+     * Runs an eviction now and, when called in a transaction, again once it completes, so a request reading the
+     * data while the transaction runs cannot keep it as it was before the change.
+     *
+     * @param eviction the eviction, run once or twice
+     */
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.jhipster.health.service.util;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A cache region of values read from the database, only put if their key was not written while they were read.
+ * <p>
+ * Each write moves a generation, per stripe of keys, which is read before reading a value and checked again before
+ * putting it, so a value read while a write completes is not kept in place of the written data.
+ * </p>
+ * <p>
+ * Without the cache region, as with the "fast" profile, values are read every time.
+ * </p>
+ */
+public class GenerationalCache {
+
+    private static final int STRIPES = 64;
+
+    private final Cache cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * @param cache the cache region, or null to read the values every time
+     */
+    public GenerationalCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Get the value kept for the key, or null.
+     */
+    public <T> T get(String key, Class<T> type) {
+        return cache == null ? null : cache.get(key, type);
+    }
+
+    /**
+     * Read the value of the key, and keep it unless the key is written in the meantime.
+     */
+    public <T> T load(String key, Supplier<T> reader) {
+        long generation = generations.get(stripe(key));
+        T value = reader.get();
+        if (cache != null && value != null) {
+            synchronized (this) {
+                if (generations.get(stripe(key)) == generation) {
+                    cache.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * The data of the key is written: a value being read is not kept, the one kept is updated by the caller.
+     */
+    public void written(String key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    /**
+     * The data of the key is written: a value being read is not kept, and the one kept is dropped.
+     */
+    public void evict(String key) {
+        written(key);
+        if (cache != null) {
+            synchronized (this) {
+                cache.evict(key);
+            }
+        }
+    }
+
+    /**
+     * The data of unknown keys is written: no value being read is kept, and all the kept ones are dropped.
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        if (cache != null) {
+            synchronized (this) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+}
@@ -0,0 +1,83 @@
+package org.jhipster.health.service.util;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a time series.
+ *
+ * <p>
+ * Keeps the first and last points and, from each of the buckets in between, the point forming the largest
+ * triangle with the point kept from the previous bucket and the average of the next bucket. Peaks and dips
+ * survive, so a chart of the selected points looks like a chart of all of them.
+ * </p>
+ *
+ * @see <a href="http://hdl.handle.net/1946/15343">Downsampling Time Series for Visual Representation</a>
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Select at most {@code threshold} points out of the first {@code length} ones.
+     *
+     * @param x the abscissas, in ascending order
+     * @param y the ordinates
+     * @return the indexes of the selected points, in ascending order
+     * @throws IllegalArgumentException if the threshold is less than 3
+     */
+    public static int[] select(long[] x, double[] y, int length, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("At least 3 points must be selected, not " + threshold);
+        }
+        if (threshold >= length) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] selected = new int[threshold];
+        int count = 0;
+        selected[count++] = 0;
+        // the first and last points are kept, the others are split in threshold - 2 buckets
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // average of the next bucket, or the last point for the last bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            if (nextLength > 0) {
+                averageX /= nextLength;
+                averageY /= nextLength;
+            } else {
+                averageX = x[length - 1];
+                averageY = y[length - 1];
+            }
+
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                // twice the area of the triangle
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                    - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[count++] = maxIndex;
+            previous = maxIndex;
+        }
+        selected[count] = length - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,99 @@
+package org.jhipster.health.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.service.SearchAnalyticsService;
+import org.jhipster.health.web.rest.dto.AnalyticsDTO;
+import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * REST controller for the analytics of the users' data: a user gets the analytics of their own data, and an
+ * administrator those of every user, or of the users selected by the query.
+ */
+@RestController
+@RequestMapping("/api")
+public class AnalyticsResource {
+
+    private final Logger log = LoggerFactory.getLogger(AnalyticsResource.class);
+
+    @Inject
+    private SearchAnalyticsService searchAnalyticsService;
+
+    /**
+     * GET  /analytics/points?interval=week&from=&to=&query= -> get the points per period, with the number of users
+     * and the points per user. The range defaults to the last year.
+     */
+    @RequestMapping(value = "/analytics/points",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<AnalyticsDTO> getPoints(
+        @RequestParam(value = "interval", defaultValue = "week") String interval,
+        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(value = "query", required = false) String query) {
+        LocalDate lastDay = to == null ? LocalDate.now() : to;
+        LocalDate firstDay = from == null ? lastDay.minusYears(1) : from;
+        log.debug("REST request to get the points per {} from {} to {} for query {}", interval, firstDay, lastDay, query);
+        return analytics("point", () -> searchAnalyticsService.getPoints(query, interval, firstDay, lastDay));
+    }
+
+    /**
+     * GET  /analytics/weights?width=1&from=&to=&query= -> get the number of weigh-ins and users per range of weights,
+     * and the statistics of the weigh-ins, with the width of the ranges, which is widened when there would be too
+     * many of them. The range defaults to the last year.
+     */
+    @RequestMapping(value = "/analytics/weights",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<AnalyticsDTO> getWeightDistribution(
+        @RequestParam(value = "width", defaultValue = "1") int width,
+        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(value = "query", required = false) String query) {
+        LocalDate lastDay = to == null ? LocalDate.now() : to;
+        LocalDate firstDay = from == null ? lastDay.minusYears(1) : from;
+        log.debug("REST request to get the weights by {} from {} to {} for query {}", width, firstDay, lastDay, query);
+        return analytics("weight", () -> searchAnalyticsService.getWeightDistribution(query, width, firstDay, lastDay));
+    }
+
+    /**
+     * GET  /analytics/blood-pressures?interval=month&from=&to=&query= -> get the number of readings of each category
+     * per period, with the mean pressures. The range defaults to the last year.
+     */
+    @RequestMapping(value = "/analytics/blood-pressures",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<AnalyticsDTO> getBloodPressureCategories(
+        @RequestParam(value = "interval", defaultValue = "month") String interval,
+        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(value = "query", required = false) String query) {
+        LocalDate lastDay = to == null ? LocalDate.now() : to;
+        LocalDate firstDay = from == null ? lastDay.minusYears(1) : from;
+        log.debug("REST request to get the blood pressures per {} from {} to {} for query {}", interval, firstDay, lastDay, query);
+        return analytics("bloodPressure",
+            () -> searchAnalyticsService.getBloodPressureCategories(query, interval, firstDay, lastDay));
+    }
+
+    private ResponseEntity<AnalyticsDTO> analytics(String entityName, Supplier<AnalyticsDTO> analytics) {
+        try {
+            return ResponseEntity.ok(analytics.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert(entityName, "invalidanalytics", e.getMessage()))
+                .body(null);
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package org.jhipster.health.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jhipster.health.service.AuditEventService;
+import org.jhipster.health.service.AuditEventService.AuditEventPage;
+import org.jhipster.health.service.util.DataFormat;
+import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.jhipster.health.web.rest.util.KeysetCursor;
+import org.jhipster.health.web.rest.util.PaginationUtil;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
 import java.util.List;
 
 /**
@@ -20,25 +35,77 @@ import java.util.List;
 @RequestMapping(value = "/api/audits", produces = MediaType.APPLICATION_JSON_VALUE)
 public class AuditResource {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private AuditEventService auditEventService;
 
+    private ObjectMapper objectMapper;
+
     @Inject
-    public AuditResource(AuditEventService auditEventService) {
+    public AuditResource(AuditEventService auditEventService, ObjectMapper objectMapper) {
         this.auditEventService = auditEventService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * GET  /audits?principal=&type=&fromDate=&toDate=&after=&size= -> get a page of the audit events, newest first.
+     * <p>
+     * All the filters are optional. The "next" link of the Link header carries the cursor of the following page.
+     * </p>
+     */
     @RequestMapping(method = RequestMethod.GET)
-    public List<AuditEvent> getAll() {
-        return auditEventService.findAll();
+    public ResponseEntity<List<AuditEvent>> getAll(
+        @RequestParam(value = "principal", required = false) String principal,
+        @RequestParam(value = "type", required = false) String type,
+        @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        @RequestParam(value = "after", defaultValue = "") String after,
+        @RequestParam(value = "size", defaultValue = "20") int size)
+        throws URISyntaxException, UnsupportedEncodingException {
+
+        KeysetCursor<LocalDateTime> cursor;
+        try {
+            cursor = KeysetCursor.parse(after, LocalDateTime::parse);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("audit", "invalidcursor", e.getMessage()))
+                .body(null);
+        }
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        AuditEventPage page = auditEventService.findAll(principal, type, startOf(fromDate), endOf(toDate), cursor, size);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page.getNextCursor(), size,
+            "/api/audits" + filterQuery(principal, type, fromDate, toDate));
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
-    @RequestMapping(method = RequestMethod.GET,
-        params = {"fromDate", "toDate"})
-    public List<AuditEvent> getByDates(
-        @RequestParam(value = "fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
-        @RequestParam(value = "toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+    /**
+     * GET  /audits/stream?principal=&type=&fromDate=&toDate= -> stream all the matching audit events, newest first,
+     * as newline-delimited JSON.
+     */
+    @RequestMapping(value = "/stream",
+        method = RequestMethod.GET,
+        produces = DataFormat.APPLICATION_NDJSON_VALUE)
+    public void stream(
+        @RequestParam(value = "principal", required = false) String principal,
+        @RequestParam(value = "type", required = false) String type,
+        @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        HttpServletResponse response) throws IOException {
 
-        return auditEventService.findByDates(fromDate.atTime(0, 0), toDate.atTime(23, 59));
+        response.setContentType(DataFormat.APPLICATION_NDJSON_VALUE + ";charset=UTF-8");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            auditEventService.streamAll(principal, type, startOf(fromDate), endOf(toDate), auditEvent -> {
+                try {
+                    generator.writeObject(auditEvent);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @RequestMapping(value = "/{id:.+}",
@@ -48,4 +115,32 @@ public class AuditResource {
                 .map((entity) -> new ResponseEntity<>(entity, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
+
+    private static LocalDateTime startOf(LocalDate fromDate) {
+        return fromDate == null ? null : fromDate.atTime(0, 0);
+    }
+
+    private static LocalDateTime endOf(LocalDate toDate) {
+        return toDate == null ? null : toDate.atTime(23, 59);
+    }
+
+    private static String filterQuery(String principal, String type, LocalDate fromDate, LocalDate toDate)
+        throws UnsupportedEncodingException {
+
+        StringBuilder query = new StringBuilder();
+        appendParameter(query, "principal", principal);
+        appendParameter(query, "type", type);
+        appendParameter(query, "fromDate", fromDate);
+        appendParameter(query, "toDate", toDate);
+        return query.toString();
+    }
+
+    private static void appendParameter(StringBuilder query, String name, Object value)
+        throws UnsupportedEncodingException {
+
+        if (value != null) {
+            query.append(query.length() == 0 ? '?' : '&').append(name).append('=')
+                .append(URLEncoder.encode(value.toString(), "UTF-8"));
+        }
+    }
 }
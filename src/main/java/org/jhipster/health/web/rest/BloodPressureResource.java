@@ -2,15 +2,24 @@ package org.jhipster.health.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
 import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
 import org.jhipster.health.repository.BloodPressureRepository;
-import org.jhipster.health.repository.search.BloodPressureSearchRepository;
+import org.jhipster.health.security.AuthoritiesConstants;
 import org.jhipster.health.security.SecurityUtils;
 import org.jhipster.health.web.rest.dto.BloodPressureByPeriod;
+import org.jhipster.health.web.rest.dto.DownsampledSeriesDTO;
+import org.jhipster.health.service.BloodPressureService;
+import org.jhipster.health.service.DownsamplingService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.web.rest.util.ETagUtil;
 import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.jhipster.health.web.rest.util.KeysetCursor;
 import org.jhipster.health.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,19 +28,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-
-import static org.elasticsearch.index.query.QueryBuilders.*;
 
 /**
  * REST controller for managing BloodPressure.
@@ -42,11 +51,22 @@ public class BloodPressureResource {
 
     private final Logger log = LoggerFactory.getLogger(BloodPressureResource.class);
 
+    private static final String[] SEARCH_FIELDS = {"id", "timestamp", "systolic", "diastolic", "category", "user.id", "user.login"};
+
     @Inject
     private BloodPressureRepository bloodPressureRepository;
 
     @Inject
-    private BloodPressureSearchRepository bloodPressureSearchRepository;
+    private UserDataSearchService userDataSearchService;
+
+    @Inject
+    private BloodPressureService bloodPressureService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private DownsamplingService downsamplingService;
 
     /**
      * POST  /bloodPressures -> Create a new bloodPressure.
@@ -60,8 +80,7 @@ public class BloodPressureResource {
         if (bloodPressure.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("bloodPressure", "idexists", "A new bloodPressure cannot already have an ID")).body(null);
         }
-        BloodPressure result = bloodPressureRepository.save(bloodPressure);
-        bloodPressureSearchRepository.save(result);
+        BloodPressure result = bloodPressureService.save(bloodPressure);
         return ResponseEntity.created(new URI("/api/bloodPressures/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("bloodPressure", result.getId().toString()))
             .body(result);
@@ -79,8 +98,7 @@ public class BloodPressureResource {
         if (bloodPressure.getId() == null) {
             return createBloodPressure(bloodPressure);
         }
-        BloodPressure result = bloodPressureRepository.save(bloodPressure);
-        bloodPressureSearchRepository.save(result);
+        BloodPressure result = bloodPressureService.save(bloodPressure);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("bloodPressure", bloodPressure.getId().toString()))
             .body(result);
@@ -93,14 +111,65 @@ public class BloodPressureResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<BloodPressure>> getAllBloodPressures(Pageable pageable)
+    public ResponseEntity<List<BloodPressure>> getAllBloodPressures(Pageable pageable,
+                                                  @RequestParam(value = "after", required = false) String after,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  HttpServletResponse response)
         throws URISyntaxException {
+        ETagUtil.revalidate(response);
+        // the offset pages list the blood pressure readings of every user, the keyset pages those readable by the current user
+        long version = after == null ? userDataVersionService.getLatestVersion()
+            : userDataVersionService.getVersionForCurrentUser();
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            version, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), after);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        if (after != null) {
+            return getBloodPressuresAfter(after, pageable.getPageSize(), etag);
+        }
         log.debug("REST request to get a page of BloodPressures");
         Page<BloodPressure> page = bloodPressureRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/bloodPressures");
+        headers.setETag(etag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /bloodPressures?after=&lt;timestamp,id&gt; -> get the bloodPressures following the cursor, newest first.
+     * Seeks on (timestamp, id) and skips the count query; an empty cursor starts from the newest bloodPressure.
+     */
+    private ResponseEntity<List<BloodPressure>> getBloodPressuresAfter(String after, int size, String etag) throws URISyntaxException {
+        log.debug("REST request to get BloodPressures after : {}", after);
+        KeysetCursor<ZonedDateTime> cursor;
+        try {
+            cursor = KeysetCursor.parse(after, ZonedDateTime::parse);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("bloodPressure", "invalidcursor", e.getMessage()))
+                .body(null);
+        }
+        Pageable limit = new PageRequest(0, size + 1);
+        boolean admin = SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN);
+        List<BloodPressure> bloodPressures;
+        if (cursor == null) {
+            bloodPressures = admin ? bloodPressureRepository.findAllByOrderByTimestampDescIdDesc(limit)
+                : bloodPressureRepository.findAllForCurrentUserOrderByTimestampDescIdDesc(limit);
+        } else {
+            bloodPressures = admin ? bloodPressureRepository.findAllBefore(cursor.getKey(), cursor.getId(), limit)
+                : bloodPressureRepository.findAllForCurrentUserBefore(cursor.getKey(), cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (bloodPressures.size() > size) {
+            bloodPressures = bloodPressures.subList(0, size);
+            BloodPressure last = bloodPressures.get(size - 1);
+            nextCursor = KeysetCursor.format(last.getTimestamp().withZoneSameInstant(ZoneOffset.UTC), last.getId());
+        }
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(nextCursor, size, "/api/bloodPressures");
+        headers.setETag(etag);
+        return new ResponseEntity<>(bloodPressures, headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /bloodPressures/:id -> get the "id" bloodPressure.
      */
@@ -108,13 +177,20 @@ public class BloodPressureResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<BloodPressure> getBloodPressure(@PathVariable Long id) {
+    public ResponseEntity<BloodPressure> getBloodPressure(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        // the bloodPressure changes with the data of its owner, which is not the current user for an administrator
+        String etag = ETagUtil.createETag(
+            userDataVersionService.getVersionOfOwner(bloodPressureRepository.findUserLoginById(id)), id);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get BloodPressure : {}", id);
         BloodPressure bloodPressure = bloodPressureRepository.findOne(id);
         return Optional.ofNullable(bloodPressure)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+            .map(result -> ResponseEntity.ok().eTag(etag).body(result))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -127,24 +203,35 @@ public class BloodPressureResource {
     @Timed
     public ResponseEntity<Void> deleteBloodPressure(@PathVariable Long id) {
         log.debug("REST request to delete BloodPressure : {}", id);
-        bloodPressureRepository.delete(id);
-        bloodPressureSearchRepository.delete(id);
+        bloodPressureService.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("bloodPressure", id.toString())).build();
     }
 
     /**
      * SEARCH  /_search/bloodPressures/:query -> search for the bloodPressure corresponding
      * to the query.
+     * <p>
+     * Users only get their own blood pressures, and a page holds only the fields shown in the list, with the id
+     * and login of the user.
+     * </p>
      */
     @RequestMapping(value = "/_search/bloodPressures/{query}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<BloodPressure> searchBloodPressures(@PathVariable String query) {
-        log.debug("REST request to search BloodPressures for query {}", query);
-        return StreamSupport
-            .stream(bloodPressureSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<BloodPressure>> searchBloodPressures(@PathVariable String query, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to search a page of BloodPressures for query {}", query);
+        Page<BloodPressure> page;
+        try {
+            page = userDataSearchService.search(BloodPressure.class, query, pageable, SEARCH_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("bloodPressure", "invalidpage", e.getMessage()))
+                .body(null);
+        }
+        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/bloodPressures");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
     /**
@@ -152,22 +239,87 @@ public class BloodPressureResource {
      */
     @RequestMapping(value = "/bp-by-days/{days}")
     @Timed
-    public ResponseEntity<BloodPressureByPeriod> getByDays(@PathVariable int days) {
+    public ResponseEntity<BloodPressureByPeriod> getByDays(@PathVariable int days,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                   HttpServletResponse response) {
+        ETagUtil.revalidate(response);
         LocalDate today = LocalDate.now();
+        // the period moves with the current day
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), today, days);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         LocalDate previousDate = today.minusDays(days);
         ZonedDateTime daysAgo = ZonedDateTime.of(previousDate.atTime(LocalTime.now()), ZoneId.systemDefault());
         ZonedDateTime rightNow = today.atTime(LocalTime.now()).atZone(ZoneId.systemDefault());
 
         List<BloodPressure> readings = bloodPressureRepository
-            .findAllByTimestampBetweenOrderByTimestampDesc(daysAgo, rightNow);
-        BloodPressureByPeriod response = new BloodPressureByPeriod("Last " + days + " Days",
-            filterByUser(readings));
-        return new ResponseEntity<>(response, HttpStatus.OK);
+            .findAllForCurrentUserByTimestampBetween(daysAgo, rightNow);
+        BloodPressureByPeriod byPeriod = new BloodPressureByPeriod("Last " + days + " Days", readings);
+        return ResponseEntity.ok().eTag(etag).body(byPeriod);
     }
 
-    private List<BloodPressure> filterByUser(List<BloodPressure> readings) {
-        Stream<BloodPressure> userReadings = readings.stream()
-            .filter(bp -> bp.getUser().getLogin().equals(SecurityUtils.getCurrentUserLogin()));
-        return userReadings.collect(Collectors.toList());
+    /**
+     * GET /bp-by-days/:days/downsampled?resolution=week -> get the blood pressure readings of the last x days for
+     * a chart, as min, max, average and last value per "day", "week" or "month", or as at most "points" readings
+     * selected with "lttb".
+     */
+    @RequestMapping(value = "/bp-by-days/{days}/downsampled",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<DownsampledSeriesDTO> getByDaysDownsampled(@PathVariable int days,
+                                                                     @RequestParam(value = "resolution", defaultValue = "day") String resolution,
+                                                                     @RequestParam(value = "points", defaultValue = "300") int points,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                     HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), LocalDate.now(), days,
+            resolution.toLowerCase(), points);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        try {
+            DownsampledSeriesDTO series = downsamplingService.getBloodPressuresForCurrentUser(days, resolution, points);
+            return ResponseEntity.ok().eTag(etag).body(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("bloodPressure", "invaliddownsampling", e.getMessage()))
+                .body(null);
+        }
+    }
+
+    /**
+     * GET /bp-by-category?category=STAGE_1&amp;category=STAGE_2 -> get the blood pressure readings of the current user
+     * in the given categories, newest first; the hypertensive ones by default.
+     */
+    @RequestMapping(value = "/bp-by-category",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<BloodPressure>> getByCategory(@RequestParam(value = "category", required = false) List<BloodPressureCategory> categories,
+                                                             Pageable pageable,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                             HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        if (categories == null || categories.isEmpty()) {
+            categories = Arrays.stream(BloodPressureCategory.values())
+                .filter(BloodPressureCategory::isHypertensive)
+                .collect(Collectors.toList());
+        }
+        EnumSet<BloodPressureCategory> selected = EnumSet.copyOf(categories);
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersion(SecurityUtils.getCurrentUserLogin()),
+            selected, pageable.getPageNumber(), pageable.getPageSize());
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        log.debug("REST request to get the BloodPressures in : {}", selected);
+        // a page without its count, served from the (user, category, timestamp) index
+        List<BloodPressure> readings = bloodPressureRepository.findAllForCurrentUserByCategoryIn(selected,
+            new PageRequest(pageable.getPageNumber(), pageable.getPageSize()));
+        return ResponseEntity.ok().eTag(etag).body(readings);
     }
 }
@@ -0,0 +1,61 @@
+package org.jhipster.health.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.DashboardService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.web.rest.dto.DashboardDTO;
+import org.jhipster.health.web.rest.util.ETagUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+
+/**
+ * REST controller for the home screen of the current user.
+ */
+@RestController
+@RequestMapping("/api")
+public class DashboardResource {
+
+    private final Logger log = LoggerFactory.getLogger(DashboardResource.class);
+
+    @Inject
+    private DashboardService dashboardService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    /**
+     * GET  /dashboard?days=30 -> get the points of this week, the weigh-ins and blood pressure readings of the
+     * last days, and the preferences.
+     * <p>
+     * The ETag changes with the user's data and with the current day, as the periods move with it; a matching
+     * If-None-Match gets "304 Not Modified" without reading anything. The response may be kept by the browser,
+     * which revalidates it on every use.
+     * </p>
+     */
+    @RequestMapping(value = "/dashboard",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<DashboardDTO> getDashboard(@RequestParam(value = "days", defaultValue = "30") int days,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        String login = SecurityUtils.getCurrentUserLogin();
+        String etag = ETagUtil.createETag(login, userDataVersionService.getVersion(login), LocalDate.now(), days);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        log.debug("REST request to get the dashboard of {} for the last {} days", login, days);
+        DashboardDTO dashboard = dashboardService.getDashboardForCurrentUser(days);
+        return ResponseEntity.ok().eTag(etag).body(dashboard);
+    }
+}
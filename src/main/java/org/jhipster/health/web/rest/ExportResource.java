@@ -0,0 +1,109 @@
+package org.jhipster.health.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.service.ExportService;
+import org.jhipster.health.service.util.DataFormat;
+import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for exporting the current user's readings.
+ */
+@RestController
+@RequestMapping("/api")
+public class ExportResource {
+
+    private final Logger log = LoggerFactory.getLogger(ExportResource.class);
+
+    @Inject
+    private ExportService exportService;
+
+    /**
+     * GET  /export?format=ndjson|csv&types=points,weights,bloodPressures,preference -> stream the readings.
+     * <p>
+     * All the types are exported by default. The response is gzipped when the client accepts it, with a non-zero
+     * quality in its Accept-Encoding header.
+     * </p>
+     */
+    @RequestMapping(value = "/export",
+        method = RequestMethod.GET)
+    @Timed
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       @RequestParam(value = "types", required = false) String[] types,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export : {} as {}", types, format);
+        DataFormat dataFormat = Arrays.stream(DataFormat.values())
+            .filter(value -> value.name().equalsIgnoreCase(format))
+            .findFirst().orElse(null);
+        Set<String> exportedTypes = types == null ? exportService.getTypes() : new LinkedHashSet<>(Arrays.asList(types));
+        if (dataFormat == null || !exportService.getTypes().containsAll(exportedTypes)) {
+            HeaderUtil.createFailureAlert("export", "invalidparameters", "Unknown export format or type")
+                .forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        response.setContentType(dataFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"21-points." + dataFormat.name().toLowerCase() + "\"");
+        // caches must not serve the gzipped export to clients that do not accept it
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                exportService.export(out, dataFormat, exportedTypes);
+            }
+        } else {
+            OutputStream out = response.getOutputStream();
+            exportService.export(out, dataFormat, exportedTypes);
+            out.flush();
+        }
+    }
+
+    /**
+     * Whether gzip, or any coding, is listed in the Accept-Encoding header with a quality above zero.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parameters.length; i++) {
+                String[] parameter = parameters[i].split("=", 2);
+                if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                    try {
+                        quality = Double.parseDouble(parameter[1].trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+}
@@ -0,0 +1,92 @@
+package org.jhipster.health.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.service.ImportService;
+import org.jhipster.health.service.util.DataFormat;
+import org.jhipster.health.web.rest.dto.ImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * REST controller for importing readings in bulk.
+ * <p>
+ * The request body is either newline-delimited JSON ("application/x-ndjson", one reading per line, with the
+ * same fields as the entity) or CSV ("text/csv", with a header line naming the fields). It is streamed,
+ * not buffered, and the readings are created for the current user.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api")
+public class ImportResource {
+
+    private final Logger log = LoggerFactory.getLogger(ImportResource.class);
+
+    @Inject
+    private ImportService importService;
+
+    /**
+     * POST  /import/points -> Import points.
+     */
+    @RequestMapping(value = "/import/points",
+        method = RequestMethod.POST,
+        consumes = {DataFormat.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE},
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ImportResultDTO> importPoints(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import Points");
+        try (Reader input = bodyOf(request)) {
+            return new ResponseEntity<>(importService.importPoints(input, formatOf(request)), HttpStatus.OK);
+        }
+    }
+
+    /**
+     * POST  /import/weights -> Import weights.
+     */
+    @RequestMapping(value = "/import/weights",
+        method = RequestMethod.POST,
+        consumes = {DataFormat.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE},
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ImportResultDTO> importWeights(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import Weights");
+        try (Reader input = bodyOf(request)) {
+            return new ResponseEntity<>(importService.importWeights(input, formatOf(request)), HttpStatus.OK);
+        }
+    }
+
+    /**
+     * POST  /import/bloodPressures -> Import bloodPressures.
+     */
+    @RequestMapping(value = "/import/bloodPressures",
+        method = RequestMethod.POST,
+        consumes = {DataFormat.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE},
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ImportResultDTO> importBloodPressures(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import BloodPressures");
+        try (Reader input = bodyOf(request)) {
+            return new ResponseEntity<>(importService.importBloodPressures(input, formatOf(request)), HttpStatus.OK);
+        }
+    }
+
+    private Reader bodyOf(HttpServletRequest request) throws IOException {
+        return new InputStreamReader(request.getInputStream(),
+            request.getCharacterEncoding() != null ? request.getCharacterEncoding() : StandardCharsets.UTF_8.name());
+    }
+
+    private DataFormat formatOf(HttpServletRequest request) {
+        return MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(DataFormat.TEXT_CSV_VALUE))
+            ? DataFormat.CSV : DataFormat.NDJSON;
+    }
+}
@@ -1,39 +1,46 @@
 package org.jhipster.health.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.config.JHipsterProperties;
 import org.jhipster.health.domain.Point;
 import org.jhipster.health.repository.PointRepository;
 import org.jhipster.health.repository.UserRepository;
-import org.jhipster.health.repository.search.PointSearchRepository;
 import org.jhipster.health.security.AuthoritiesConstants;
 import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.PointService;
+import org.jhipster.health.service.PointWeeklySummaryService;
+import org.jhipster.health.service.PointsHistoryService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.web.rest.dto.PointsHistoryDTO;
 import org.jhipster.health.web.rest.dto.PointsPerWeekDTO;
+import org.jhipster.health.web.rest.util.ETagUtil;
 import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.jhipster.health.web.rest.util.KeysetCursor;
 import org.jhipster.health.web.rest.util.PaginationUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static java.time.temporal.ChronoField.DAY_OF_WEEK;
-import static java.util.Calendar.MONDAY;
-import static java.util.Calendar.SUNDAY;
-import static org.elasticsearch.index.query.QueryBuilders.*;
 
 /**
  * REST controller for managing Point.
@@ -44,14 +51,32 @@ public class PointResource {
 
     private final Logger log = LoggerFactory.getLogger(PointResource.class);
 
+    private static final String[] SEARCH_FIELDS = {"id", "date", "exercise", "meals", "alcohol", "notes", "user.id", "user.login"};
+
     @Inject
     private PointRepository pointRepository;
 
     @Inject
-    private PointSearchRepository pointSearchRepository;
+    private UserDataSearchService userDataSearchService;
 
     @Inject
     private UserRepository userRepository;
+
+    @Inject
+    private PointService pointService;
+
+    @Inject
+    private PointWeeklySummaryService pointWeeklySummaryService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     /**
      * POST  /points -> Create a new point.
      */
@@ -69,8 +94,7 @@ public class PointResource {
                 SecurityUtils.getCurrentUserLogin());
                 point.setUser(userRepository.findOneByLogin(SecurityUtils.getCurrentUserLogin()).get());
         }
-        Point result = pointRepository.save(point);
-        pointSearchRepository.save(result);
+        Point result = pointService.save(point);
         return ResponseEntity.created(new URI("/api/points/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("point", result.getId().toString()))
             .body(result);
@@ -88,8 +112,7 @@ public class PointResource {
         if (point.getId() == null) {
             return createPoint(point);
         }
-        Point result = pointRepository.save(point);
-        pointSearchRepository.save(result);
+        Point result = pointService.save(point);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("point", point.getId().toString()))
             .body(result);
@@ -97,13 +120,30 @@ public class PointResource {
 
     /**
      * GET  /points -> get all the points.
+     * <p>
+     * Like the other reads of the user's data, it is tagged with the version of the data readable by the
+     * current user, and a matching If-None-Match gets "304 Not Modified" before any query.
+     * </p>
      */
     @RequestMapping(value = "/points",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Point>> getAllPoints(Pageable pageable)
+    public ResponseEntity<List<Point>> getAllPoints(Pageable pageable,
+                                                  @RequestParam(value = "after", required = false) String after,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  HttpServletResponse response)
         throws URISyntaxException {
+        ETagUtil.revalidate(response);
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(),
+            pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), after);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        if (after != null) {
+            return getPointsAfter(after, pageable.getPageSize(), etag);
+        }
         log.debug("REST request to get a page of Points");
         Page<Point> page;
         if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)) {
@@ -113,32 +153,138 @@ public class PointResource {
         }
 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/points");
+        headers.setETag(etag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /points?after=&lt;date,id&gt; -> get the points following the cursor, newest first.
+     * Seeks on (date, id) and skips the count query; an empty cursor starts from the newest point.
+     * Points without a date are only listed by the offset pages.
+     */
+    private ResponseEntity<List<Point>> getPointsAfter(String after, int size, String etag) throws URISyntaxException {
+        log.debug("REST request to get Points after : {}", after);
+        KeysetCursor<LocalDate> cursor;
+        try {
+            cursor = KeysetCursor.parse(after, LocalDate::parse);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("point", "invalidcursor", e.getMessage()))
+                .body(null);
+        }
+        Pageable limit = new PageRequest(0, size + 1);
+        boolean admin = SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN);
+        List<Point> points;
+        if (cursor == null) {
+            points = admin ? pointRepository.findAllByDateNotNullOrderByDateDescIdDesc(limit)
+                : pointRepository.findAllForCurrentUserOrderByDateDescIdDesc(limit);
+        } else {
+            points = admin ? pointRepository.findAllBefore(cursor.getKey(), cursor.getId(), limit)
+                : pointRepository.findAllForCurrentUserBefore(cursor.getKey(), cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (points.size() > size) {
+            points = points.subList(0, size);
+            Point last = points.get(size - 1);
+            nextCursor = KeysetCursor.format(last.getDate(), last.getId());
+        }
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(nextCursor, size, "/api/points");
+        headers.setETag(etag);
+        return new ResponseEntity<>(points, headers, HttpStatus.OK);
+    }
+
     /**
      * GET /points-this-week -> get all the points for the current week.
      */
     @RequestMapping(value = "/points-this-week")
     @Timed
-    public ResponseEntity<PointsPerWeekDTO> getPointsThisWeek() {
+    public ResponseEntity<PointsPerWeekDTO> getPointsThisWeek(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        HttpServletResponse response) {
+        ETagUtil.revalidate(response);
         // Get current date
         LocalDate now = LocalDate.now();
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), now);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         // Get first day of week
         LocalDate startOfWeek = now.with(DAY_OF_WEEK, 1);
         // Get last day of week
         LocalDate endOfWeek = now.with(DAY_OF_WEEK,7);
         log.debug("Looking for points between: {} and {}", startOfWeek, endOfWeek);
 
-        List<Point> points = pointRepository.findAllByDateBetween(startOfWeek, endOfWeek);
-        // filter by current user and sum the points
-        Integer numPoints = points.stream()
-            .filter(p -> p.getUser().getLogin().equals(SecurityUtils.getCurrentUserLogin()))
-            .mapToInt(p -> p.getExercise() + p.getMeals() + p.getAlcohol())
-            .sum();
-        log.debug("numPoints: {}", numPoints);
-        PointsPerWeekDTO count = new PointsPerWeekDTO(startOfWeek, numPoints);
-        return new ResponseEntity<>(count, HttpStatus.OK);
+        PointsPerWeekDTO count = pointWeeklySummaryService.getPointsForCurrentUser(startOfWeek);
+        log.debug("numPoints: {}", count.getPoints());
+        return ResponseEntity.ok().eTag(etag).body(count);
+    }
+
+    /**
+     * GET /points-by-week?weeks=N -> get the points for each of the last N weeks,
+     * oldest first, including the current week; at most "jhipster.pointsHistory.maxWeeks" weeks.
+     */
+    @RequestMapping(value = "/points-by-week",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<PointsPerWeekDTO>> getPointsByWeek(@RequestParam(value = "weeks", defaultValue = "4") int weeks,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                  HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        int maxWeeks = jHipsterProperties.getPointsHistory().getMaxWeeks();
+        if (weeks < 1 || weeks > maxWeeks) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("point", "invalidweeks",
+                    "The number of weeks must be between 1 and " + maxWeeks))
+                .body(null);
+        }
+        LocalDate today = LocalDate.now();
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), today, weeks);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        LocalDate endOfWeek = today.with(DAY_OF_WEEK, 7);
+        LocalDate firstWeek = endOfWeek.with(DAY_OF_WEEK, 1).minusWeeks(weeks - 1);
+        log.debug("Looking for points by week between: {} and {}", firstWeek, endOfWeek);
+
+        List<PointsPerWeekDTO> result = pointWeeklySummaryService.getPointsByWeekForCurrentUser(firstWeek, weeks);
+        return ResponseEntity.ok().eTag(etag).body(result);
+    }
+
+    /**
+     * GET /points-history?from=2016-01-04&amp;to=2016-03-27 -> get the points for each week of the range, oldest
+     * first, against the weekly goal, with the current and longest goal-met streaks; the last 12 weeks by default.
+     */
+    @RequestMapping(value = "/points-history",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<PointsHistoryDTO> getPointsHistory(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                             HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = to == null ? today : to;
+        LocalDate firstDay = from == null ? lastDay.minusWeeks(11) : from;
+        // the current streak moves with the current week, and the goal with the preferences
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), today.with(DAY_OF_WEEK, 1),
+            firstDay, lastDay);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        log.debug("REST request to get the points history between {} and {}", firstDay, lastDay);
+        try {
+            PointsHistoryDTO result = pointsHistoryService.getHistoryForCurrentUser(firstDay, lastDay);
+            return ResponseEntity.ok().eTag(etag).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("point", "invalidrange", e.getMessage()))
+                .body(null);
+        }
     }
 
     /**
@@ -148,13 +294,20 @@ public class PointResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<Point> getPoint(@PathVariable Long id) {
+    public ResponseEntity<Point> getPoint(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        // the point changes with the data of its owner, which is not the current user for an administrator
+        String etag = ETagUtil.createETag(
+            userDataVersionService.getVersionOfOwner(pointRepository.findUserLoginById(id)), id);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get Point : {}", id);
         Point point = pointRepository.findOne(id);
         return Optional.ofNullable(point)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+            .map(result -> ResponseEntity.ok().eTag(etag).body(result))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -167,23 +320,64 @@ public class PointResource {
     @Timed
     public ResponseEntity<Void> deletePoint(@PathVariable Long id) {
         log.debug("REST request to delete Point : {}", id);
-        pointRepository.delete(id);
-        pointSearchRepository.delete(id);
+        pointService.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("point", id.toString())).build();
     }
 
     /**
      * SEARCH  /_search/points/:query -> search for the point corresponding
      * to the query.
+     * <p>
+     * Users only get their own points, and a page holds only the fields shown in the list, with the id
+     * and login of the user.
+     * </p>
      */
     @RequestMapping(value = "/_search/points/{query}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<Point> searchPoints(@PathVariable String query) {
-        log.debug("REST request to search Points for query {}", query);
-        return StreamSupport
-            .stream(pointSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<Point>> searchPoints(@PathVariable String query, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to search a page of Points for query {}", query);
+        Page<Point> page;
+        try {
+            page = userDataSearchService.search(Point.class, query, pageable, SEARCH_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("point", "invalidpage", e.getMessage()))
+                .body(null);
+        }
+        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/points");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * POST  /points-weekly-summaries/rebuild -> recompute the weekly points summaries from the points.
+     */
+    @RequestMapping(value = "/points-weekly-summaries/rebuild",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Void> rebuildWeeklySummaries() {
+        log.debug("REST request to rebuild the weekly points summaries");
+        int users = pointWeeklySummaryService.rebuild();
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createAlert("21pointsApp.point.summariesRebuilt", String.valueOf(users)))
+            .build();
+    }
+
+    /**
+     * GET  /points-weekly-summaries/check -> get the ids of the users whose weekly points summaries
+     * do not match their points.
+     */
+    @RequestMapping(value = "/points-weekly-summaries/check",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<Long> checkWeeklySummaries() {
+        log.debug("REST request to check the weekly points summaries");
+        return pointWeeklySummaryService.findInconsistentUsers();
     }
 }
@@ -7,6 +7,10 @@ import org.jhipster.health.repository.PreferenceRepository;
 import org.jhipster.health.repository.UserRepository;
 import org.jhipster.health.repository.search.PreferenceSearchRepository;
 import org.jhipster.health.security.SecurityUtils;
+import org.jhipster.health.service.PreferenceService;
+import org.jhipster.health.service.SearchCacheService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.web.rest.util.ETagUtil;
 import org.jhipster.health.web.rest.util.HeaderUtil;
 import org.jhipster.health.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
@@ -20,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -45,6 +50,15 @@ public class PreferenceResource {
     @Inject
     private PreferenceSearchRepository preferenceSearchRepository;
 
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    @Inject
+    private PreferenceService preferenceService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
     @Inject
     private UserRepository userRepository;
     /**
@@ -59,8 +73,7 @@ public class PreferenceResource {
         if (preference.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("preference", "idexists", "A new preference cannot already have an ID")).body(null);
         }
-        Preference result = preferenceRepository.save(preference);
-        preferenceSearchRepository.save(result);
+        Preference result = preferenceService.save(preference);
         return ResponseEntity.created(new URI("/api/preferences/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("preference", result.getId().toString()))
             .body(result);
@@ -78,8 +91,7 @@ public class PreferenceResource {
         if (preference.getId() == null) {
             return createPreference(preference);
         }
-        Preference result = preferenceRepository.save(preference);
-        preferenceSearchRepository.save(result);
+        Preference result = preferenceService.save(preference);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("preference", preference.getId().toString()))
             .body(result);
@@ -92,11 +104,20 @@ public class PreferenceResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Preference>> getAllPreferences(Pageable pageable)
+    public ResponseEntity<List<Preference>> getAllPreferences(Pageable pageable,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                              HttpServletResponse response)
         throws URISyntaxException {
+        ETagUtil.revalidate(response);
+        String etag = ETagUtil.createETag(userDataVersionService.getPreferencesVersion(), pageable.getPageNumber(),
+            pageable.getPageSize(), pageable.getSort());
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get a page of Preferences");
         Page<Preference> page = preferenceRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/preferences");
+        headers.setETag(etag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -107,13 +128,18 @@ public class PreferenceResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<Preference> getPreference(@PathVariable Long id) {
+    public ResponseEntity<Preference> getPreference(@PathVariable Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                    HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        String etag = ETagUtil.createETag(userDataVersionService.getPreferenceVersion(id), id);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get Preference : {}", id);
         Preference preference = preferenceRepository.findOne(id);
         return Optional.ofNullable(preference)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+            .map(result -> ResponseEntity.ok().eTag(etag).body(result))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -126,8 +152,7 @@ public class PreferenceResource {
     @Timed
     public ResponseEntity<Void> deletePreference(@PathVariable Long id) {
         log.debug("REST request to delete Preference : {}", id);
-        preferenceRepository.delete(id);
-        preferenceSearchRepository.delete(id);
+        preferenceService.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("preference", id.toString())).build();
     }
 
@@ -141,9 +166,9 @@ public class PreferenceResource {
     @Timed
     public List<Preference> searchPreferences(@PathVariable String query) {
         log.debug("REST request to search Preferences for query {}", query);
-        return StreamSupport
+        return searchCacheService.getForAllUsers(Preference.class, query, "all", () -> StreamSupport
             .stream(preferenceSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
     }
 
     /**
@@ -151,16 +176,22 @@ public class PreferenceResource {
      */
     @RequestMapping(value = "/my-preferences")
     @Timed
-    public ResponseEntity<Preference> getUserPreferences() {
+    public ResponseEntity<Preference> getUserPreferences(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                         HttpServletResponse response) {
+        ETagUtil.revalidate(response);
         String username = SecurityUtils.getCurrentUserLogin();
+        String etag = ETagUtil.createETag(username, userDataVersionService.getVersion(username));
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get Preferences : {}", username);
         User user = userRepository.findOneByLogin(username).get();
         if (user.getPreference() != null) {
-            return new ResponseEntity<>(user.getPreference(), HttpStatus.OK);
+            return ResponseEntity.ok().eTag(etag).body(user.getPreference());
         } else {
             Preference defaultPreferences = new Preference();
             defaultPreferences.setWeeklyGoal(10); // default
-            return new ResponseEntity<>(defaultPreferences, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(etag).body(defaultPreferences);
         }
     }
 }
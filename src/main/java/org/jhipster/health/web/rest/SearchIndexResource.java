@@ -0,0 +1,74 @@
+package org.jhipster.health.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.service.SearchReindexService;
+import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * REST controller for rebuilding the search indices.
+ */
+@RestController
+@RequestMapping("/api")
+public class SearchIndexResource {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexResource.class);
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    /**
+     * POST  /search-indices/reindex -> rebuild the given search indices, or all of them, in the background.
+     * <p>
+     * Searches are not interrupted, as the alias is swapped to the rebuilt index in one request, except on the first
+     * rebuild of an index: the index created under the name of the alias is deleted before the alias is added, and
+     * searches of that entity fail in between.
+     * </p>
+     */
+    @RequestMapping(value = "/search-indices/reindex",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Void> reindex(@RequestParam(value = "index", required = false) List<String> indexNames) {
+        log.debug("REST request to rebuild the search indices : {}", indexNames);
+        List<String> names = indexNames == null ? Collections.emptyList() : indexNames;
+        if (!searchReindexService.getIndexNames().containsAll(names)) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("searchIndex", "unknownindex", "Unknown search index"))
+                .build();
+        }
+        if (searchReindexService.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(HeaderUtil.createFailureAlert("searchIndex", "reindexrunning", "A reindex is already running"))
+                .build();
+        }
+        searchReindexService.reindexAsync(names);
+        return ResponseEntity.accepted()
+            .headers(HeaderUtil.createAlert("21pointsApp.searchIndex.reindexStarted", String.join(",", names)))
+            .build();
+    }
+
+    /**
+     * GET  /search-indices -> get the names of the search indices that can be rebuilt.
+     */
+    @RequestMapping(value = "/search-indices",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<String> getIndexNames() {
+        return searchReindexService.getIndexNames();
+    }
+}
@@ -7,7 +7,9 @@ import org.jhipster.health.repository.AuthorityRepository;
 import org.jhipster.health.repository.UserRepository;
 import org.jhipster.health.repository.search.UserSearchRepository;
 import org.jhipster.health.security.AuthoritiesConstants;
+import org.jhipster.health.security.xauth.UserDetailsCache;
 import org.jhipster.health.service.MailService;
+import org.jhipster.health.service.SearchCacheService;
 import org.jhipster.health.service.UserService;
 import org.jhipster.health.web.rest.dto.ManagedUserDTO;
 import org.jhipster.health.web.rest.dto.UserDTO;
@@ -81,6 +83,12 @@ public class UserResource {
     @Inject
     private UserSearchRepository userSearchRepository;
 
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    @Inject
+    private UserDetailsCache userDetailsCache;
+
     /**
      * POST  /users -> Creates a new user.
      * <p>
@@ -141,6 +149,8 @@ public class UserResource {
         return userRepository
             .findOneById(managedUserDTO.getId())
             .map(user -> {
+                userDetailsCache.evict(user.getLogin());
+                userDetailsCache.evict(managedUserDTO.getLogin());
                 user.setLogin(managedUserDTO.getLogin());
                 user.setFirstName(managedUserDTO.getFirstName());
                 user.setLastName(managedUserDTO.getLastName());
@@ -216,8 +226,8 @@ public class UserResource {
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
     public List<User> search(@PathVariable String query) {
-        return StreamSupport
+        return searchCacheService.getForAllUsers(User.class, query, "all", () -> StreamSupport
             .stream(userSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
     }
 }
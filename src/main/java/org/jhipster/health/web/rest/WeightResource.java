@@ -3,14 +3,24 @@ package org.jhipster.health.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import org.jhipster.health.domain.Weight;
 import org.jhipster.health.repository.WeightRepository;
-import org.jhipster.health.repository.search.WeightSearchRepository;
+import org.jhipster.health.security.AuthoritiesConstants;
 import org.jhipster.health.security.SecurityUtils;
 import org.jhipster.health.web.rest.dto.WeightByPeriod;
+import org.jhipster.health.web.rest.dto.DownsampledSeriesDTO;
+import org.jhipster.health.web.rest.dto.WeightTrendDTO;
+import org.jhipster.health.service.DownsamplingService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.service.WeightService;
+import org.jhipster.health.service.WeightTrendService;
+import org.jhipster.health.web.rest.util.ETagUtil;
 import org.jhipster.health.web.rest.util.HeaderUtil;
+import org.jhipster.health.web.rest.util.KeysetCursor;
 import org.jhipster.health.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,19 +29,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-
-import static org.elasticsearch.index.query.QueryBuilders.*;
 
 /**
  * REST controller for managing Weight.
@@ -42,11 +49,25 @@ public class WeightResource {
 
     private final Logger log = LoggerFactory.getLogger(WeightResource.class);
 
+    private static final String[] SEARCH_FIELDS = {"id", "timestamp", "weight", "user.id", "user.login"};
+
     @Inject
     private WeightRepository weightRepository;
 
     @Inject
-    private WeightSearchRepository weightSearchRepository;
+    private UserDataSearchService userDataSearchService;
+
+    @Inject
+    private WeightService weightService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private DownsamplingService downsamplingService;
+
+    @Inject
+    private WeightTrendService weightTrendService;
 
     /**
      * POST  /weights -> Create a new weight.
@@ -60,8 +81,7 @@ public class WeightResource {
         if (weight.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("weight", "idexists", "A new weight cannot already have an ID")).body(null);
         }
-        Weight result = weightRepository.save(weight);
-        weightSearchRepository.save(result);
+        Weight result = weightService.save(weight);
         return ResponseEntity.created(new URI("/api/weights/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("weight", result.getId().toString()))
             .body(result);
@@ -79,8 +99,7 @@ public class WeightResource {
         if (weight.getId() == null) {
             return createWeight(weight);
         }
-        Weight result = weightRepository.save(weight);
-        weightSearchRepository.save(result);
+        Weight result = weightService.save(weight);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("weight", weight.getId().toString()))
             .body(result);
@@ -93,14 +112,65 @@ public class WeightResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Weight>> getAllWeights(Pageable pageable)
+    public ResponseEntity<List<Weight>> getAllWeights(Pageable pageable,
+                                                  @RequestParam(value = "after", required = false) String after,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  HttpServletResponse response)
         throws URISyntaxException {
+        ETagUtil.revalidate(response);
+        // the offset pages list the weights of every user, the keyset pages those readable by the current user
+        long version = after == null ? userDataVersionService.getLatestVersion()
+            : userDataVersionService.getVersionForCurrentUser();
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            version, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), after);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        if (after != null) {
+            return getWeightsAfter(after, pageable.getPageSize(), etag);
+        }
         log.debug("REST request to get a page of Weights");
         Page<Weight> page = weightRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/weights");
+        headers.setETag(etag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /weights?after=&lt;timestamp,id&gt; -> get the weights following the cursor, newest first.
+     * Seeks on (timestamp, id) and skips the count query; an empty cursor starts from the newest weight.
+     */
+    private ResponseEntity<List<Weight>> getWeightsAfter(String after, int size, String etag) throws URISyntaxException {
+        log.debug("REST request to get Weights after : {}", after);
+        KeysetCursor<ZonedDateTime> cursor;
+        try {
+            cursor = KeysetCursor.parse(after, ZonedDateTime::parse);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("weight", "invalidcursor", e.getMessage()))
+                .body(null);
+        }
+        Pageable limit = new PageRequest(0, size + 1);
+        boolean admin = SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN);
+        List<Weight> weights;
+        if (cursor == null) {
+            weights = admin ? weightRepository.findAllByOrderByTimestampDescIdDesc(limit)
+                : weightRepository.findAllForCurrentUserOrderByTimestampDescIdDesc(limit);
+        } else {
+            weights = admin ? weightRepository.findAllBefore(cursor.getKey(), cursor.getId(), limit)
+                : weightRepository.findAllForCurrentUserBefore(cursor.getKey(), cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (weights.size() > size) {
+            weights = weights.subList(0, size);
+            Weight last = weights.get(size - 1);
+            nextCursor = KeysetCursor.format(last.getTimestamp().withZoneSameInstant(ZoneOffset.UTC), last.getId());
+        }
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(nextCursor, size, "/api/weights");
+        headers.setETag(etag);
+        return new ResponseEntity<>(weights, headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /weights/:id -> get the "id" weight.
      */
@@ -108,13 +178,20 @@ public class WeightResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<Weight> getWeight(@PathVariable Long id) {
+    public ResponseEntity<Weight> getWeight(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        // the weight changes with the data of its owner, which is not the current user for an administrator
+        String etag = ETagUtil.createETag(
+            userDataVersionService.getVersionOfOwner(weightRepository.findUserLoginById(id)), id);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         log.debug("REST request to get Weight : {}", id);
         Weight weight = weightRepository.findOne(id);
         return Optional.ofNullable(weight)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+            .map(result -> ResponseEntity.ok().eTag(etag).body(result))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -125,22 +202,77 @@ public class WeightResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<WeightByPeriod> getByDays(@PathVariable int days) {
+    public ResponseEntity<WeightByPeriod> getByDays(@PathVariable int days,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                   HttpServletResponse response) {
+        ETagUtil.revalidate(response);
         LocalDate today = LocalDate.now();
+        // the period moves with the current day
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), today, days);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         LocalDate previousDate = today.minusDays(days);
         ZonedDateTime daysAgo = ZonedDateTime.of(previousDate.atTime(LocalTime.now()), ZoneId.systemDefault());
         ZonedDateTime rightNow = today.atTime(LocalTime.now()).atZone(ZoneId.systemDefault());
 
 
-        List<Weight> weighIns = weightRepository.findAllByTimestampBetweenOrderByTimestampDesc(daysAgo, rightNow);
-        WeightByPeriod response = new WeightByPeriod("Last " + days + " Days", filterByUser(weighIns));
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        List<Weight> weighIns = weightRepository.findAllForCurrentUserByTimestampBetween(daysAgo, rightNow);
+        WeightByPeriod byPeriod = new WeightByPeriod("Last " + days + " Days", weighIns);
+        return ResponseEntity.ok().eTag(etag).body(byPeriod);
     }
 
-    private List<Weight> filterByUser(List<Weight> readings) {
-        Stream<Weight> userReadings = readings.stream()
-            .filter(bp -> bp.getUser().getLogin().equals(SecurityUtils.getCurrentUserLogin()));
-        return userReadings.collect(Collectors.toList());
+    /**
+     * GET /weight-by-days/:days/downsampled?resolution=week -> get the weigh-ins of the last x days for a chart, as
+     * min, max, average and last value per "day", "week" or "month", or as at most "points" readings selected
+     * with "lttb".
+     */
+    @RequestMapping(value = "/weight-by-days/{days}/downsampled",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<DownsampledSeriesDTO> getByDaysDownsampled(@PathVariable int days,
+                                                                     @RequestParam(value = "resolution", defaultValue = "day") String resolution,
+                                                                     @RequestParam(value = "points", defaultValue = "300") int points,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                     HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersionForCurrentUser(), LocalDate.now(), days,
+            resolution.toLowerCase(), points);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        try {
+            DownsampledSeriesDTO series = downsamplingService.getWeightsForCurrentUser(days, resolution, points);
+            return ResponseEntity.ok().eTag(etag).body(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("weight", "invaliddownsampling", e.getMessage()))
+                .body(null);
+        }
+    }
+
+    /**
+     * GET  /weight-trend -> get the trend of the weigh-ins of the current user: moving average, rolling means of
+     * the last 7 and 30 days and slope, without downloading the weigh-ins.
+     */
+    @RequestMapping(value = "/weight-trend",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<WeightTrendDTO> getWeightTrend(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                         HttpServletResponse response) {
+        ETagUtil.revalidate(response);
+        // the rolling windows move with the current day
+        String etag = ETagUtil.createETag(SecurityUtils.getCurrentUserLogin(),
+            userDataVersionService.getVersion(SecurityUtils.getCurrentUserLogin()),
+            LocalDate.now());
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(weightTrendService.getTrendForCurrentUser());
     }
 
     /**
@@ -152,23 +284,34 @@ public class WeightResource {
     @Timed
     public ResponseEntity<Void> deleteWeight(@PathVariable Long id) {
         log.debug("REST request to delete Weight : {}", id);
-        weightRepository.delete(id);
-        weightSearchRepository.delete(id);
+        weightService.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("weight", id.toString())).build();
     }
 
     /**
      * SEARCH  /_search/weights/:query -> search for the weight corresponding
      * to the query.
+     * <p>
+     * Users only get their own weights, and a page holds only the fields shown in the list, with the id
+     * and login of the user.
+     * </p>
      */
     @RequestMapping(value = "/_search/weights/{query}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<Weight> searchWeights(@PathVariable String query) {
-        log.debug("REST request to search Weights for query {}", query);
-        return StreamSupport
-            .stream(weightSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<Weight>> searchWeights(@PathVariable String query, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to search a page of Weights for query {}", query);
+        Page<Weight> page;
+        try {
+            page = userDataSearchService.search(Weight.class, query, pageable, SEARCH_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("weight", "invalidpage", e.getMessage()))
+                .body(null);
+        }
+        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/weights");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 }
@@ -0,0 +1,43 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.util.Map;
+
+/**
+ * One bucket of an aggregation: a period, such as "2016-01-04", or the lower bound of a range of values, with the
+ * number of documents in it and the values computed from them.
+ */
+public class AnalyticsBucketDTO {
+
+    private String key;
+
+    private long count;
+
+    private Map<String, Number> values;
+
+    public AnalyticsBucketDTO(String key, long count, Map<String, Number> values) {
+        this.key = key;
+        this.count = count;
+        this.values = values;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Map<String, Number> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalyticsBucketDTO{" +
+            "key='" + key + "'" +
+            ", count=" + count +
+            ", values=" + values +
+            '}';
+    }
+}
@@ -0,0 +1,36 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of an aggregation of the users' data: the buckets, in the order of their keys, and the values computed
+ * over all of them.
+ */
+public class AnalyticsDTO {
+
+    private List<AnalyticsBucketDTO> buckets;
+
+    private Map<String, Number> totals;
+
+    public AnalyticsDTO(List<AnalyticsBucketDTO> buckets, Map<String, Number> totals) {
+        this.buckets = buckets;
+        this.totals = totals;
+    }
+
+    public List<AnalyticsBucketDTO> getBuckets() {
+        return buckets;
+    }
+
+    public Map<String, Number> getTotals() {
+        return totals;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalyticsDTO{" +
+            "buckets=" + buckets +
+            ", totals=" + totals +
+            '}';
+    }
+}
@@ -0,0 +1,67 @@
+package org.jhipster.health.web.rest.dto;
+
+import org.jhipster.health.domain.Preference;
+
+/**
+ * Everything the home screen shows, read in one request.
+ */
+public class DashboardDTO {
+
+    private PointsPerWeekDTO pointsThisWeek;
+
+    private WeightByPeriod weight;
+
+    private BloodPressureByPeriod bloodPressure;
+
+    private Preference preferences;
+
+    public DashboardDTO(PointsPerWeekDTO pointsThisWeek, WeightByPeriod weight,
+                        BloodPressureByPeriod bloodPressure, Preference preferences) {
+        this.pointsThisWeek = pointsThisWeek;
+        this.weight = weight;
+        this.bloodPressure = bloodPressure;
+        this.preferences = preferences;
+    }
+
+    public PointsPerWeekDTO getPointsThisWeek() {
+        return pointsThisWeek;
+    }
+
+    public void setPointsThisWeek(PointsPerWeekDTO pointsThisWeek) {
+        this.pointsThisWeek = pointsThisWeek;
+    }
+
+    public WeightByPeriod getWeight() {
+        return weight;
+    }
+
+    public void setWeight(WeightByPeriod weight) {
+        this.weight = weight;
+    }
+
+    public BloodPressureByPeriod getBloodPressure() {
+        return bloodPressure;
+    }
+
+    public void setBloodPressure(BloodPressureByPeriod bloodPressure) {
+        this.bloodPressure = bloodPressure;
+    }
+
+    public Preference getPreferences() {
+        return preferences;
+    }
+
+    public void setPreferences(Preference preferences) {
+        this.preferences = preferences;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardDTO{" +
+            "pointsThisWeek=" + pointsThisWeek +
+            ", weight=" + weight +
+            ", bloodPressure=" + bloodPressure +
+            ", preferences=" + preferences +
+            '}';
+    }
+}
@@ -0,0 +1,65 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Readings of a period, downsampled for charts: one entry per series ("weight", or "systolic" and "diastolic"),
+ * holding either buckets or the readings selected by Largest-Triangle-Three-Buckets.
+ */
+public class DownsampledSeriesDTO {
+
+    private String period;
+
+    private String resolution;
+
+    private Map<String, List<SeriesBucketDTO>> buckets;
+
+    private Map<String, List<SeriesPointDTO>> points;
+
+    public DownsampledSeriesDTO(String period, String resolution) {
+        this.period = period;
+        this.resolution = resolution;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public Map<String, List<SeriesBucketDTO>> getBuckets() {
+        return buckets;
+    }
+
+    public void addBuckets(String series, List<SeriesBucketDTO> seriesBuckets) {
+        if (buckets == null) {
+            buckets = new LinkedHashMap<>();
+        }
+        buckets.put(series, seriesBuckets);
+    }
+
+    public Map<String, List<SeriesPointDTO>> getPoints() {
+        return points;
+    }
+
+    public void addPoints(String series, List<SeriesPointDTO> seriesPoints) {
+        if (points == null) {
+            points = new LinkedHashMap<>();
+        }
+        points.put(series, seriesPoints);
+    }
+
+    @Override
+    public String toString() {
+        return "DownsampledSeriesDTO{" +
+            "period='" + period + '\'' +
+            ", resolution='" + resolution + '\'' +
+            ", buckets=" + buckets +
+            ", points=" + points +
+            '}';
+    }
+}
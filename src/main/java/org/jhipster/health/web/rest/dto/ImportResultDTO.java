@@ -0,0 +1,68 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the result of a bulk import: how many lines were imported or rejected, and why.
+ * Only the first rejected lines are detailed, so the result stays small whatever the size of the input.
+ */
+public class ImportResultDTO {
+
+    private int imported;
+
+    private int rejected;
+
+    private List<LineError> errors = new ArrayList<>();
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void addError(int line, String message, int maxReportedErrors) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            '}';
+    }
+
+    public static class LineError {
+
+        private final int line;
+
+        private final String message;
+
+        public LineError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.util.List;
+
+/**
+ * Points of a user for each week of a range, against their weekly goal, with their goal-met streaks.
+ */
+public class PointsHistoryDTO {
+
+    private Integer weeklyGoal;
+
+    private List<PointsPerWeekDTO> weeks;
+
+    private int weeksGoalMet;
+
+    private int currentStreak;
+
+    private int longestStreak;
+
+    public PointsHistoryDTO(Integer weeklyGoal, List<PointsPerWeekDTO> weeks, int weeksGoalMet,
+                            int currentStreak, int longestStreak) {
+        this.weeklyGoal = weeklyGoal;
+        this.weeks = weeks;
+        this.weeksGoalMet = weeksGoalMet;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+    }
+
+    public Integer getWeeklyGoal() {
+        return weeklyGoal;
+    }
+
+    public List<PointsPerWeekDTO> getWeeks() {
+        return weeks;
+    }
+
+    /**
+     * Number of weeks of the range in which the goal was met.
+     */
+    public int getWeeksGoalMet() {
+        return weeksGoalMet;
+    }
+
+    /**
+     * Number of consecutive weeks in which the goal was met, up to the current week, or to the previous one while
+     * the current week is not met yet.
+     */
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    /**
+     * Largest number of consecutive weeks in which the goal was met, over the whole history.
+     */
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    @Override
+    public String toString() {
+        return "PointsHistoryDTO{" +
+            "weeklyGoal=" + weeklyGoal +
+            ", weeks=" + weeks +
+            ", weeksGoalMet=" + weeksGoalMet +
+            ", currentStreak=" + currentStreak +
+            ", longestStreak=" + longestStreak +
+            '}';
+    }
+}
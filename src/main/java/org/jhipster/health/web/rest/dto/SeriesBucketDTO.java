@@ -0,0 +1,70 @@
+package org.jhipster.health.web.rest.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.jhipster.health.domain.util.CustomLocalDateSerializer;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of the values of a series in a day, a week or a month.
+ */
+public class SeriesBucketDTO {
+
+    private LocalDate start;
+
+    private long count;
+
+    private double min;
+
+    private double max;
+
+    private double avg;
+
+    private double last;
+
+    public SeriesBucketDTO(LocalDate start, long count, double min, double max, double avg, double last) {
+        this.start = start;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.avg = avg;
+        this.last = last;
+    }
+
+    @JsonSerialize(using = CustomLocalDateSerializer.class)
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAvg() {
+        return avg;
+    }
+
+    public double getLast() {
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return "SeriesBucketDTO{" +
+            "start=" + start +
+            ", count=" + count +
+            ", min=" + min +
+            ", max=" + max +
+            ", avg=" + avg +
+            ", last=" + last +
+            '}';
+    }
+}
@@ -0,0 +1,34 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A reading of a series, kept by downsampling.
+ */
+public class SeriesPointDTO {
+
+    private ZonedDateTime timestamp;
+
+    private double value;
+
+    public SeriesPointDTO(ZonedDateTime timestamp, double value) {
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    public ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "SeriesPointDTO{" +
+            "timestamp=" + timestamp +
+            ", value=" + value +
+            '}';
+    }
+}
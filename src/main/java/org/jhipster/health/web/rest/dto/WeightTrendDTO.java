@@ -0,0 +1,88 @@
+package org.jhipster.health.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Trend of the weigh-ins of a user: exponentially weighted moving average, rolling means of the last 7 and 30 days,
+ * and slope over the last 30 days. The values are null when there are no weigh-ins to compute them from.
+ */
+public class WeightTrendDTO {
+
+    private ZonedDateTime lastTimestamp;
+
+    private Double lastWeight;
+
+    private Double ewma;
+
+    private Double mean7Days;
+
+    private int weighIns7Days;
+
+    private Double mean30Days;
+
+    private int weighIns30Days;
+
+    private Double slopePerWeek;
+
+    public WeightTrendDTO(ZonedDateTime lastTimestamp, Double lastWeight, Double ewma,
+                          Double mean7Days, int weighIns7Days, Double mean30Days, int weighIns30Days,
+                          Double slopePerWeek) {
+        this.lastTimestamp = lastTimestamp;
+        this.lastWeight = lastWeight;
+        this.ewma = ewma;
+        this.mean7Days = mean7Days;
+        this.weighIns7Days = weighIns7Days;
+        this.mean30Days = mean30Days;
+        this.weighIns30Days = weighIns30Days;
+        this.slopePerWeek = slopePerWeek;
+    }
+
+    public ZonedDateTime getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public Double getLastWeight() {
+        return lastWeight;
+    }
+
+    public Double getEwma() {
+        return ewma;
+    }
+
+    public Double getMean7Days() {
+        return mean7Days;
+    }
+
+    public int getWeighIns7Days() {
+        return weighIns7Days;
+    }
+
+    public Double getMean30Days() {
+        return mean30Days;
+    }
+
+    public int getWeighIns30Days() {
+        return weighIns30Days;
+    }
+
+    /**
+     * Change of the daily means over the last 30 days, by least squares, per week.
+     */
+    public Double getSlopePerWeek() {
+        return slopePerWeek;
+    }
+
+    @Override
+    public String toString() {
+        return "WeightTrendDTO{" +
+            "lastTimestamp=" + lastTimestamp +
+            ", lastWeight=" + lastWeight +
+            ", ewma=" + ewma +
+            ", mean7Days=" + mean7Days +
+            ", weighIns7Days=" + weighIns7Days +
+            ", mean30Days=" + mean30Days +
+            ", weighIns30Days=" + weighIns30Days +
+            ", slopePerWeek=" + slopePerWeek +
+            '}';
+    }
+}
@@ -0,0 +1,68 @@
+package org.jhipster.health.web.rest.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Utility class for entity tags and conditional requests.
+ */
+public class ETagUtil {
+
+    /**
+     * Build a strong entity tag from the given parts, for instance a data version and the request parameters.
+     * The parts are URL-encoded, so the tag only holds characters allowed in an ETag header.
+     */
+    public static String createETag(Object... parts) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                etag.append('-');
+            }
+            try {
+                etag.append(URLEncoder.encode(String.valueOf(parts[i]), "UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Whether an If-None-Match header matches the entity tag, so the response can be "304 Not Modified".
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            // weak comparison, as for GET requests
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Let the browser keep the response and revalidate it with its ETag on every use, instead of the
+     * "no-store" written by Spring Security, which leaves nothing to revalidate.
+     */
+    public static void revalidate(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+}
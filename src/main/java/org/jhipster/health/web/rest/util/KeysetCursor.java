@@ -0,0 +1,58 @@
+package org.jhipster.health.web.rest.util;
+
+import java.time.DateTimeException;
+import java.util.function.Function;
+
+/**
+ * Position of the last row of a keyset (seek) page, written as "<key>,<id>" in the "after" request parameter.
+ *
+ * <p>
+ * The key is the column the listing is sorted on (a date or a timestamp) and the id breaks ties between rows
+ * sharing the same key, so the next page can be read with an index seek instead of skipping an offset.
+ * </p>
+ */
+public final class KeysetCursor<K> {
+
+    private final K key;
+
+    private final Long id;
+
+    private KeysetCursor(K key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Parses an "after" parameter; an empty value means the first page and returns null.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static <K> KeysetCursor<K> parse(String after, Function<String, K> keyParser) {
+        if (after.isEmpty()) {
+            return null;
+        }
+        int separator = after.lastIndexOf(',');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        try {
+            K key = keyParser.apply(after.substring(0, separator));
+            Long id = Long.valueOf(after.substring(separator + 1));
+            return new KeysetCursor<>(key, id);
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after, e);
+        }
+    }
+
+    public static String format(Object key, Long id) {
+        return key + "," + id;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -2,6 +2,7 @@ package org.jhipster.health.web.rest.util;
 
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -39,4 +40,32 @@ public class PaginationUtil {
         headers.add(HttpHeaders.LINK, link);
         return headers;
     }
+
+    /**
+     * Link headers for a keyset page: there is no total count, only a "next" cursor when more rows follow
+     * and a "first" link that restarts the listing. The base URL may already carry query parameters, such as filters.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(String nextCursor, int size, String baseUrl)
+        throws URISyntaxException {
+
+        HttpHeaders headers = new HttpHeaders();
+        String separator = baseUrl.contains("?") ? "&" : "?";
+        String link = "";
+        if (nextCursor != null) {
+            link = "<" + (new URI(baseUrl + separator + "after=" + nextCursor + "&size=" + size)).toString() + ">; rel=\"next\",";
+        }
+        link += "<" + (new URI(baseUrl + separator + "after=&size=" + size)).toString() + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    /**
+     * Link headers for a page of search results, whose query is the last segment of the path.
+     */
+    public static HttpHeaders generateSearchPaginationHttpHeaders(String query, Page<?> page, String baseUrl)
+        throws URISyntaxException {
+
+        String url = UriComponentsBuilder.fromPath(baseUrl).pathSegment(query).build().encode().toUriString();
+        return generatePaginationHttpHeaders(page, url);
+    }
 }
@@ -0,0 +1,26 @@
+package org.springframework.data.elasticsearch.core;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+
+import java.io.IOException;
+
+/**
+ * Builds the mapping of an entity with the package-private MappingBuilder of Spring Data Elasticsearch.
+ * <p>
+ * ElasticsearchTemplate only puts this mapping on the index named by the entity's {@code @Document}, which is an
+ * alias once an index has been rebuilt, so the rebuild puts it on its new index itself.
+ * </p>
+ */
+public final class EntityMappingBuilder {
+
+    private EntityMappingBuilder() {
+    }
+
+    public static XContentBuilder buildMapping(ElasticsearchPersistentEntity<?> persistentEntity) throws IOException {
+        String idFieldName = persistentEntity.getIdProperty() == null ? null
+            : persistentEntity.getIdProperty().getFieldName();
+        return MappingBuilder.buildMapping(persistentEntity.getType(), persistentEntity.getIndexType(), idFieldName,
+            persistentEntity.getParentType());
+    }
+}
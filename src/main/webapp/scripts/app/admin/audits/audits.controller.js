@@ -2,16 +2,37 @@
 
 angular.module('21pointsApp')
     .controller('AuditsController', function ($scope, $filter, AuditsService) {
-        $scope.onChangeDate = function () {
+        var request = 0;
+
+        var loadPage = function (after) {
             var dateFormat = 'yyyy-MM-dd';
             var fromDate = $filter('date')($scope.fromDate, dateFormat);
             var toDate = $filter('date')($scope.toDate, dateFormat);
+            var current = ++request;
 
-            AuditsService.findByDates(fromDate, toDate).then(function (data) {
-                $scope.audits = data;
+            $scope.loading = true;
+            AuditsService.findByDates(fromDate, toDate, after).then(function (page) {
+                // the pages of previous dates are dropped
+                if (current === request) {
+                    $scope.audits = $scope.audits.concat(page.audits);
+                    $scope.next = page.next;
+                    $scope.loading = false;
+                }
             });
         };
 
+        $scope.onChangeDate = function () {
+            $scope.audits = [];
+            $scope.next = null;
+            loadPage(null);
+        };
+
+        $scope.loadNextPage = function () {
+            if ($scope.next && !$scope.loading) {
+                loadPage($scope.next);
+            }
+        };
+
         // Date picker configuration
         $scope.today = function () {
             // Today + 1 day - needed if the current day must be included
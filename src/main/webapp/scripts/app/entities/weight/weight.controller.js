@@ -7,15 +7,32 @@ angular.module('21pointsApp')
         $scope.predicate = 'id';
         $scope.reverse = true;
         $scope.page = 0;
+        var listing = 0;
         $scope.loadAll = function() {
-            Weight.query({page: $scope.page, size: 20, sort: [$scope.predicate + ',' + ($scope.reverse ? 'asc' : 'desc'), 'id']}, function(result, headers) {
+            var current = listing;
+            var onSuccess = function(result, headers) {
+                // the pages of a previous listing or search are dropped
+                if (current !== listing) {
+                    return;
+                }
                 $scope.links = ParseLinks.parse(headers('link'));
                 for (var i = 0; i < result.length; i++) {
                     $scope.weights.push(result[i]);
                 }
-            });
+            };
+            if ($scope.currentSearch) {
+                WeightSearch.query({query: $scope.currentSearch, page: $scope.page, size: 20}, onSuccess, function() {
+                    if (current === listing) {
+                        // no more pages
+                        $scope.links = {last: $scope.page};
+                    }
+                });
+            } else {
+                Weight.query({page: $scope.page, size: 20, sort: [$scope.predicate + ',' + ($scope.reverse ? 'asc' : 'desc'), 'id']}, onSuccess);
+            }
         };
         $scope.reset = function() {
+            listing++;
             $scope.page = 0;
             $scope.weights = [];
             $scope.loadAll();
@@ -28,13 +45,9 @@ angular.module('21pointsApp')
 
 
         $scope.search = function () {
-            WeightSearch.query({query: $scope.searchQuery}, function(result) {
-                $scope.weights = result;
-            }, function(response) {
-                if(response.status === 404) {
-                    $scope.loadAll();
-                }
-            });
+            // the results are paged as the list, an empty query lists everything again
+            $scope.currentSearch = $scope.searchQuery;
+            $scope.reset();
         };
 
         $scope.refresh = function () {
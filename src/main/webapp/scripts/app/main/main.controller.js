@@ -1,22 +1,18 @@
 'use strict';
 
 angular.module('21pointsApp')
-    .controller('MainController', function ($scope, Principal, Point, Preference, BloodPressure, Chart, Weight) {
+    .controller('MainController', function ($scope, $http, Principal, Chart) {
         Principal.identity().then(function(account) {
             $scope.account = account;
             $scope.isAuthenticated = Principal.isAuthenticated;
         });
 
-        Point.thisWeek(function(data) {
+        var showPointsThisWeek = function(data) {
             $scope.pointsThisWeek = data;
             $scope.pointsPercentage = (data.points / 21) * 100;
-        });
-
-        Preference.user(function(data) {
-            $scope.preferences = data;
-        });
+        };
 
-        BloodPressure.last30Days(function(bpReadings) {
+        var showBloodPressure = function(bpReadings) {
             $scope.bpReadings = bpReadings;
             if (bpReadings.readings.length) {
                 $scope.bpOptions = angular.copy(Chart.getBpChartConfig());
@@ -44,9 +40,9 @@ angular.module('21pointsApp')
                     key: 'Diastolic',
                     color: '#03a9f4'
                 }]; }
-        });
+        };
 
-        Weight.last30Days(function(weights) {
+        var showWeight = function(weights) {
             $scope.weights = weights;
             if (weights.weighIns.length) {
                 $scope.weightOptions = angular.copy(Chart.getBpChartConfig());
@@ -70,6 +66,14 @@ angular.module('21pointsApp')
                 // set y scale to be 10 more than max and min
                 $scope.weightOptions.chart.yDomain = [Math.min.apply(Math, values) - 10, Math.max.apply(Math, values) + 10];
             }
-        })
+        };
+
+        // one request for the whole home screen, answered with "304 Not Modified" when nothing changed
+        $http.get('api/dashboard', {params: {days: 30}}).then(function(response) {
+            showPointsThisWeek(response.data.pointsThisWeek);
+            $scope.preferences = response.data.preferences;
+            showBloodPressure(response.data.bloodPressure);
+            showWeight(response.data.weight);
+        });
 
     });
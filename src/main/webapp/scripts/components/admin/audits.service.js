@@ -2,13 +2,19 @@
 
 angular.module('21pointsApp')
     .factory('AuditsService', function ($http) {
+        // the audits are served one page at a time: the "next" link carries the cursor of the following page
+        var getPage = function (params) {
+            return $http.get('api/audits', {params: params}).then(function (response) {
+                var next = /<[^>]*[?&]after=([^&>]*)[^>]*>; rel="next"/.exec(response.headers('link') || '');
+                return {audits: response.data, next: next ? decodeURIComponent(next[1]) : null};
+            });
+        };
+
         return {
-            findAll: function () {
-                return $http.get('api/audits/').then(function (response) {
-                    return response.data;
-                });
+            findAll: function (after) {
+                return getPage({after: after, size: 20});
             },
-            findByDates: function (fromDate, toDate) {
+            findByDates: function (fromDate, toDate, after) {
 
                 var formatDate =  function (dateToFormat) {
                     if (dateToFormat !== undefined && !angular.isString(dateToFormat)) {
@@ -17,9 +23,7 @@ angular.module('21pointsApp')
                     return dateToFormat;
                 };
 
-                return $http.get('api/audits/', {params: {fromDate: formatDate(fromDate), toDate: formatDate(toDate)}}).then(function (response) {
-                    return response.data;
-                });
+                return getPage({fromDate: formatDate(fromDate), toDate: formatDate(toDate), after: after, size: 20});
             }
         };
     });
@@ -0,0 +1,112 @@
+package org.jhipster.health.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationContextException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the connection pool settings of the DatabaseConfiguration.
+ *
+ * @see DatabaseConfiguration
+ */
+public class DatabaseConfigurationUnitTest {
+
+    private static final String H2 = "org.h2.jdbcx.JdbcDataSource";
+
+    private static final String POSTGRESQL = "org.postgresql.ds.PGSimpleDataSource";
+
+    private JHipsterProperties.Datasource datasource;
+
+    private MetricRegistry metricRegistry;
+
+    private DatabaseConfiguration databaseConfiguration;
+
+    private HikariConfig config;
+
+    @Before
+    public void setup() {
+        datasource = new JHipsterProperties().getDatasource();
+        metricRegistry = new MetricRegistry();
+        databaseConfiguration = new DatabaseConfiguration();
+        ReflectionTestUtils.setField(databaseConfiguration, "metricRegistry", metricRegistry);
+        config = new HikariConfig();
+    }
+
+    @Test
+    public void testPoolSizeAutoTuned() {
+        databaseConfiguration.configurePool(config, H2, datasource);
+
+        int expected = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        assertThat(config.getMaximumPoolSize()).isEqualTo(expected);
+        assertThat(setting("maximumPoolSize")).isEqualTo(expected);
+    }
+
+    @Test
+    public void testPoolSizeSet() {
+        datasource.setMaximumPoolSize(7);
+        databaseConfiguration.configurePool(config, H2, datasource);
+
+        assertThat(config.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(config.getPoolName()).isEqualTo("21points");
+        assertThat(config.getConnectionTimeout()).isEqualTo(datasource.getConnectionTimeout());
+        assertThat(config.getLeakDetectionThreshold()).isEqualTo(datasource.getLeakDetectionThreshold());
+    }
+
+    @Test(expected = ApplicationContextException.class)
+    public void testNegativePoolSizeRejected() {
+        datasource.setMaximumPoolSize(-1);
+        databaseConfiguration.configurePool(config, H2, datasource);
+    }
+
+    @Test(expected = ApplicationContextException.class)
+    public void testShortConnectionTimeoutRejected() {
+        datasource.setConnectionTimeout(100);
+        databaseConfiguration.configurePool(config, H2, datasource);
+    }
+
+    @Test(expected = ApplicationContextException.class)
+    public void testShortLeakDetectionThresholdRejected() {
+        datasource.setLeakDetectionThreshold(1000);
+        databaseConfiguration.configurePool(config, H2, datasource);
+    }
+
+    @Test
+    public void testLeakDetectionDisabled() {
+        datasource.setLeakDetectionThreshold(0);
+        databaseConfiguration.configurePool(config, H2, datasource);
+
+        assertThat(config.getLeakDetectionThreshold()).isEqualTo(0);
+    }
+
+    @Test(expected = ApplicationContextException.class)
+    public void testNegativePrepareThresholdRejected() {
+        datasource.setPrepareThreshold(-1);
+        databaseConfiguration.configurePool(config, POSTGRESQL, datasource);
+    }
+
+    @Test
+    public void testStatementCacheOnlyForPostgresql() {
+        databaseConfiguration.configurePool(config, H2, datasource);
+
+        assertThat(config.getDataSourceProperties()).doesNotContainKey("prepareThreshold");
+        assertThat(metricRegistry.getGauges()).doesNotContainKey("21points.pool.settings.prepareThreshold");
+
+        config = new HikariConfig();
+        databaseConfiguration.configurePool(config, POSTGRESQL, datasource);
+
+        assertThat(config.getDataSourceProperties().get("prepareThreshold")).isEqualTo(datasource.getPrepareThreshold());
+        assertThat(config.getDataSourceProperties().get("preparedStatementCacheQueries"))
+            .isEqualTo(datasource.getPreparedStatementCacheQueries());
+        assertThat(setting("prepareThreshold")).isEqualTo(datasource.getPrepareThreshold());
+    }
+
+    private Object setting(String name) {
+        return ((Gauge<?>) metricRegistry.getGauges().get("21points.pool.settings." + name)).getValue();
+    }
+}
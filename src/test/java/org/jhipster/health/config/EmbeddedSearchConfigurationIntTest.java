@@ -0,0 +1,65 @@
+package org.jhipster.health.config;
+
+import org.elasticsearch.client.Client;
+import org.jhipster.health.Application;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.repository.search.PointSearchRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+
+/**
+ * Test class for the search engine running in the application, with the "embedded-search" profile.
+ * <p>
+ * The profile starts another application context, on a random port so it runs next to the one of the other tests.
+ * </p>
+ *
+ * @see EmbeddedSearchConfiguration
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest("server.port:0")
+@ActiveProfiles(Constants.SPRING_PROFILE_EMBEDDED_SEARCH)
+public class EmbeddedSearchConfigurationIntTest {
+
+    private static final Long ID = Long.MAX_VALUE - 200;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private PointSearchRepository pointSearchRepository;
+
+    @After
+    public void deletePoint() {
+        pointSearchRepository.delete(ID);
+    }
+
+    @Test
+    public void assertThatTheClientReachesTheEmbeddedNode() {
+        assertThat(client.settings().get("cluster.name")).isEqualTo("21points-embedded");
+    }
+
+    @Test
+    public void assertThatPointsAreIndexedAndSearched() {
+        Point point = new Point(LocalDate.of(2001, 6, 1), 1, 1, 0, null);
+        point.setId(ID);
+        point.setNotes("embeddedsearch");
+        pointSearchRepository.save(point);
+
+        assertThat(pointSearchRepository.search(queryStringQuery("embeddedsearch")))
+            .extracting("id").containsExactly(ID);
+    }
+}
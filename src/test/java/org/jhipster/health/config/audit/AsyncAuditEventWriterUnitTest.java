@@ -0,0 +1,140 @@
+package org.jhipster.health.config.audit;
+
+import com.codahale.metrics.Meter;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.config.JHipsterProperties.Audit.OverflowPolicy;
+import org.jhipster.health.domain.PersistentAuditEvent;
+import org.jhipster.health.repository.PersistenceAuditEventRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the AsyncAuditEventWriter.
+ *
+ * @see AsyncAuditEventWriter
+ */
+public class AsyncAuditEventWriterUnitTest {
+
+    private JHipsterProperties jHipsterProperties;
+
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private List<Runnable> scheduledFlushes;
+
+    private AsyncAuditEventWriter writer;
+
+    @Before
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getAudit().setBufferSize(3);
+        jHipsterProperties.getAudit().setBatchSize(2);
+        persistenceAuditEventRepository = mock(PersistenceAuditEventRepository.class);
+        scheduledFlushes = new ArrayList<>();
+        writer = new AsyncAuditEventWriter();
+        ReflectionTestUtils.setField(writer, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(writer, "persistenceAuditEventRepository", persistenceAuditEventRepository);
+        ReflectionTestUtils.setField(writer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writer, "taskExecutor", (Executor) scheduledFlushes::add);
+        writer.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushWritesBatches() {
+        writer.write(event("user1"));
+        assertThat(scheduledFlushes).isEmpty();
+        writer.write(event("user2"));
+        writer.write(event("user3"));
+        // a full batch is buffered: a flush is scheduled once
+        assertThat(scheduledFlushes).hasSize(1);
+
+        scheduledFlushes.get(0).run();
+
+        ArgumentCaptor<List> batches = ArgumentCaptor.forClass(List.class);
+        verify(persistenceAuditEventRepository, times(2)).save(batches.capture());
+        assertThat(batches.getAllValues().get(0)).hasSize(2);
+        assertThat(batches.getAllValues().get(1)).hasSize(1);
+        assertThat(writer.getLagMillis()).isZero();
+    }
+
+    @Test
+    public void testDropOldestWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            writer.write(event("user" + i));
+        }
+        List<String> principals = new ArrayList<>();
+        doAnswer(invocation -> {
+            for (Object event : (Iterable<?>) invocation.getArguments()[0]) {
+                principals.add(((PersistentAuditEvent) event).getPrincipal());
+            }
+            return null;
+        }).when(persistenceAuditEventRepository).save(anyListOf(PersistentAuditEvent.class));
+
+        writer.flush();
+
+        assertThat(principals).containsExactly("user1", "user2", "user3");
+    }
+
+    @Test
+    public void testDropNewestWhenFull() {
+        jHipsterProperties.getAudit().setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 4; i++) {
+            writer.write(event("user" + i));
+        }
+        List<String> principals = new ArrayList<>();
+        doAnswer(invocation -> {
+            for (Object event : (Iterable<?>) invocation.getArguments()[0]) {
+                principals.add(((PersistentAuditEvent) event).getPrincipal());
+            }
+            return null;
+        }).when(persistenceAuditEventRepository).save(anyListOf(PersistentAuditEvent.class));
+
+        writer.flush();
+
+        assertThat(principals).containsExactly("user0", "user1", "user2");
+    }
+
+    @Test
+    public void testFailedBatchSavedOneByOne() {
+        writer.write(event("user1"));
+        writer.write(event("user2"));
+        when(persistenceAuditEventRepository.save(anyListOf(PersistentAuditEvent.class)))
+            .thenThrow(new IllegalStateException("batch"));
+        List<String> principals = new ArrayList<>();
+        when(persistenceAuditEventRepository.save(any(PersistentAuditEvent.class))).thenAnswer(invocation -> {
+            PersistentAuditEvent event = (PersistentAuditEvent) invocation.getArguments()[0];
+            if (event.getPrincipal().equals("user2")) {
+                throw new IllegalStateException("event");
+            }
+            principals.add(event.getPrincipal());
+            return event;
+        });
+
+        writer.flush();
+
+        assertThat(principals).containsExactly("user1");
+        assertThat(((Meter) ReflectionTestUtils.getField(writer, "writtenMeter")).getCount()).isEqualTo(1);
+        assertThat(((Meter) ReflectionTestUtils.getField(writer, "failedMeter")).getCount()).isEqualTo(1);
+    }
+
+    private static PersistentAuditEvent event(String principal) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal(principal);
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        event.setAuditEventDate(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,86 @@
+package org.jhipster.health.security.xauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.codec.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of validating an x-auth-token, with and without the verified token cache, and as it was before
+ * the cache and the per-thread digests.
+ *
+ * Run with "./gradlew jmhRun".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private static final String SECRET_KEY = "myXAuthSecret";
+
+    private UserDetails user;
+
+    private TokenProvider uncachedMd5;
+    private TokenProvider cachedMd5;
+    private TokenProvider uncachedHmac;
+
+    private String md5Token;
+    private String hmacToken;
+
+    @Setup
+    public void setUp() {
+        user = new User("user", "$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K", Collections.emptyList());
+        uncachedMd5 = new TokenProvider(SECRET_KEY, 1800, TokenProvider.MD5, 0);
+        cachedMd5 = new TokenProvider(SECRET_KEY, 1800, TokenProvider.MD5, 10000);
+        uncachedHmac = new TokenProvider(SECRET_KEY, 1800, TokenProvider.HMAC_SHA256, 0);
+        md5Token = cachedMd5.createToken(user).getToken();
+        hmacToken = uncachedHmac.createToken(user).getToken();
+    }
+
+    @Benchmark
+    public boolean md5Before() throws NoSuchAlgorithmException {
+        // the validation of the tokens before the cache: a new digest and a new string on every request
+        String[] parts = md5Token.split(":");
+        long expires = Long.parseLong(parts[1]);
+        StringBuilder signatureBuilder = new StringBuilder();
+        signatureBuilder.append(user.getUsername()).append(":");
+        signatureBuilder.append(expires).append(":");
+        signatureBuilder.append(user.getPassword()).append(":");
+        signatureBuilder.append(SECRET_KEY);
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        String signature = new String(Hex.encode(digest.digest(signatureBuilder.toString().getBytes())));
+        return expires >= System.currentTimeMillis() && MessageDigest.isEqual(parts[2].getBytes(), signature.getBytes());
+    }
+
+    @Benchmark
+    public boolean md5WithoutCache() {
+        return uncachedMd5.validateToken(md5Token, user);
+    }
+
+    @Benchmark
+    public boolean md5WithCache() {
+        return cachedMd5.validateToken(md5Token, user);
+    }
+
+    @Benchmark
+    public boolean hmacWithoutCache() {
+        return uncachedHmac.validateToken(hmacToken, user);
+    }
+}
@@ -0,0 +1,69 @@
+package org.jhipster.health.security.xauth;
+
+import org.junit.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TokenProvider.
+ *
+ * @see TokenProvider
+ */
+public class TokenProviderUnitTest {
+
+    private static final String SECRET = "myXAuthSecret";
+
+    @Test
+    public void testValidatesMd5Token() {
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 60);
+        UserDetails user = user("user", "hash");
+        Token token = tokenProvider.createToken(user);
+
+        assertThat(tokenProvider.validateToken(token.getToken(), user)).isTrue();
+        // second call is answered by the verified token cache
+        assertThat(tokenProvider.validateToken(token.getToken(), user)).isTrue();
+    }
+
+    @Test
+    public void testValidatesHmacToken() {
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 60, TokenProvider.HMAC_SHA256, 10);
+        UserDetails user = user("user", "hash");
+        Token token = tokenProvider.createToken(user);
+
+        assertThat(tokenProvider.validateToken(token.getToken(), user)).isTrue();
+        assertThat(new TokenProvider(SECRET, 60).validateToken(token.getToken(), user)).isFalse();
+    }
+
+    @Test
+    public void testRejectsCachedTokenAfterPasswordChange() {
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 60);
+        Token token = tokenProvider.createToken(user("user", "hash"));
+        assertThat(tokenProvider.validateToken(token.getToken(), user("user", "hash"))).isTrue();
+
+        assertThat(tokenProvider.validateToken(token.getToken(), user("user", "newHash"))).isFalse();
+    }
+
+    @Test
+    public void testRejectsTamperedAndExpiredTokens() {
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 60);
+        UserDetails user = user("user", "hash");
+        String token = tokenProvider.createToken(user).getToken();
+        long expired = System.currentTimeMillis() - 1000L;
+        String expiredToken = "user:" + expired + ":" + tokenProvider.computeSignature(user, expired);
+
+        char last = token.charAt(token.length() - 1);
+        String tamperedToken = token.substring(0, token.length() - 1) + (last == '0' ? '1' : '0');
+
+        assertThat(tokenProvider.validateToken(tamperedToken, user)).isFalse();
+        assertThat(tokenProvider.validateToken(expiredToken, user)).isFalse();
+        assertThat(tokenProvider.validateToken("user:notanumber:abc", user)).isFalse();
+    }
+
+    private static UserDetails user(String login, String password) {
+        return new User(login, password, Collections.emptyList());
+    }
+}
@@ -0,0 +1,56 @@
+package org.jhipster.health.security.xauth;
+
+import org.junit.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the UserDetailsCache.
+ *
+ * @see UserDetailsCache
+ */
+public class UserDetailsCacheUnitTest {
+
+    private static UserDetails userDetails(String login) {
+        return new User(login, "password-hash", Collections.emptyList());
+    }
+
+    @Test
+    public void testGetCachedUser() {
+        UserDetailsCache cache = new UserDetailsCache(10, 60);
+        UserDetails details = userDetails("user");
+        cache.put("User", details);
+        assertThat(cache.get("user")).isSameAs(details);
+    }
+
+    @Test
+    public void testEvictedUserIsNotReturned() {
+        UserDetailsCache cache = new UserDetailsCache(10, 60);
+        cache.put("user", userDetails("user"));
+        cache.evict("user");
+        assertThat(cache.get("user")).isNull();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUserIsRemovedWhenFull() {
+        UserDetailsCache cache = new UserDetailsCache(2, 60);
+        cache.put("admin", userDetails("admin"));
+        cache.put("user", userDetails("user"));
+        cache.get("admin");
+        cache.put("system", userDetails("system"));
+        assertThat(cache.get("user")).isNull();
+        assertThat(cache.get("admin")).isNotNull();
+        assertThat(cache.get("system")).isNotNull();
+    }
+
+    @Test
+    public void testExpiredUserIsNotReturned() {
+        UserDetailsCache cache = new UserDetailsCache(10, 0);
+        cache.put("user", userDetails("user"));
+        assertThat(cache.get("user")).isNull();
+    }
+}
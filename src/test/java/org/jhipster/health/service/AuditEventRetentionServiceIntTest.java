@@ -0,0 +1,71 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.domain.PersistentAuditEvent;
+import org.jhipster.health.repository.PersistenceAuditEventRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the AuditEventRetentionService.
+ * <p>
+ * The service commits its own transactions, so the events are deleted after each test.
+ * </p>
+ *
+ * @see AuditEventRetentionService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class AuditEventRetentionServiceIntTest {
+
+    @Inject
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Inject
+    private AuditEventRetentionService auditEventRetentionService;
+
+    @After
+    public void deleteAuditEvents() {
+        persistenceAuditEventRepository.deleteAll();
+    }
+
+    @Test
+    public void assertThatExpiredMonthsAreRemovedWithTheirData() {
+        LocalDateTime now = LocalDateTime.now();
+        PersistentAuditEvent expired = createEvent("expired", now.minusMonths(2));
+        expired.setData(Collections.singletonMap("remoteAddress", "127.0.0.1"));
+        persistenceAuditEventRepository.save(expired);
+        persistenceAuditEventRepository.save(createEvent("kept", now));
+
+        int deleted = auditEventRetentionService.removeAuditEventsBefore(LocalDate.now().withDayOfMonth(1).minusMonths(1));
+
+        assertThat(deleted).isEqualTo(1);
+        List<PersistentAuditEvent> events = persistenceAuditEventRepository.findByPrincipal("kept");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getEventMonth()).isEqualTo(LocalDate.now().withDayOfMonth(1));
+        assertThat(persistenceAuditEventRepository.findByPrincipal("expired")).isEmpty();
+    }
+
+    private PersistentAuditEvent createEvent(String principal, LocalDateTime date) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal(principal);
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        event.setAuditEventDate(date);
+        return event;
+    }
+}
@@ -0,0 +1,184 @@
+package org.jhipster.health.service;
+
+import com.codahale.metrics.Meter;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the BloodPressureAlertService.
+ *
+ * @see BloodPressureAlertService
+ */
+public class BloodPressureAlertServiceUnitTest {
+
+    private JHipsterProperties jHipsterProperties;
+
+    private BloodPressureRepository bloodPressureRepository;
+
+    private MailService mailService;
+
+    private BloodPressureAlertService service;
+
+    @Before
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getBloodPressureAlerts().setQueueCapacity(10);
+        jHipsterProperties.getBloodPressureAlerts().setMinReadings(5);
+        jHipsterProperties.getBloodPressureAlerts().setThreshold(3);
+        bloodPressureRepository = mock(BloodPressureRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findOne(anyLong())).thenAnswer(invocation -> user((Long) invocation.getArguments()[0]));
+        mailService = mock(MailService.class);
+        service = new BloodPressureAlertService();
+        ReflectionTestUtils.setField(service, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(service, "bloodPressureRepository", bloodPressureRepository);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "mailService", mailService);
+        ReflectionTestUtils.setField(service, "taskExecutor", (Executor) Runnable::run);
+        service.init();
+    }
+
+    @Test
+    public void testOutlierBoundaries() {
+        // systolic 120 +/- 10, diastolic 80 +/- 0, so the diastolic deviation is the minimum of 5 mmHg
+        baseline(30, 120, 10, 80, 0);
+        service.added(reading(1L, 150, 80));
+        service.added(reading(2L, 151, 80));
+        service.added(reading(3L, 90, 80));
+        service.added(reading(4L, 89, 80));
+        service.added(reading(5L, 120, 95));
+        service.added(reading(6L, 120, 96));
+        service.added(reading(7L, 120, 64));
+
+        Map<Long, List<BloodPressureAlertService.Alert>> alerts = drain();
+
+        assertThat(alerts.keySet()).containsOnly(2L, 4L, 6L, 7L);
+        assertThat(alerts.values().stream().flatMap(Collection::stream)
+            .allMatch(alert -> alert.isOutlier() && !alert.isCrisis())).isTrue();
+    }
+
+    @Test
+    public void testNoOutlierBeforeMinReadings() {
+        baseline(4, 120, 0, 80, 0);
+        service.added(reading(1L, 170, 80));
+        assertThat(drain()).isEmpty();
+
+        baseline(5, 120, 0, 80, 0);
+        service.added(reading(2L, 170, 80));
+        assertThat(drain()).containsOnlyKeys(2L);
+    }
+
+    @Test
+    public void testCrisisFlagged() {
+        // no reading in the baseline period
+        when(bloodPressureRepository.findStatisticsByUserIdAndTimestampBetween(anyLong(), any(ZonedDateTime.class),
+            any(ZonedDateTime.class))).thenReturn(Collections.singletonList(new Object[]{0L, null, null, null, null}));
+        service.added(reading(1L, 180, 120));
+        service.added(reading(2L, 181, 80));
+        service.added(reading(3L, 120, 121));
+
+        Map<Long, List<BloodPressureAlertService.Alert>> alerts = drain();
+
+        assertThat(alerts.keySet()).containsOnly(2L, 3L);
+        assertThat(alerts.values().stream().flatMap(Collection::stream)
+            .allMatch(alert -> alert.isCrisis() && !alert.isOutlier()
+                && alert.getCategory() == BloodPressureCategory.CRISIS)).isTrue();
+    }
+
+    @Test
+    public void testReadingsQueuedUntilDrained() {
+        baseline(30, 120, 10, 80, 5);
+        service.added(reading(1L, 200, 80));
+        assertThat(queue()).hasSize(1);
+        verifyZeroInteractions(mailService);
+
+        service.requestDrain();
+
+        assertThat(queue()).isEmpty();
+        verify(mailService).sendBloodPressureAlertEmail(any(User.class),
+            anyListOf(BloodPressureAlertService.Alert.class));
+    }
+
+    @Test
+    public void testReadingDroppedWhenQueueIsFull() {
+        jHipsterProperties.getBloodPressureAlerts().setQueueCapacity(2);
+        service.init();
+        for (long userId = 1; userId <= 3; userId++) {
+            service.added(reading(userId, 200, 80));
+        }
+
+        assertThat(queue()).hasSize(2);
+        assertThat(((Meter) ReflectionTestUtils.getField(service, "droppedMeter")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReadingNotQueuedWhenDisabled() {
+        jHipsterProperties.getBloodPressureAlerts().setEnabled(false);
+        service.added(reading(1L, 200, 80));
+
+        assertThat(queue()).isEmpty();
+    }
+
+    private void baseline(long count, double systolicMean, double systolicDeviation,
+                          double diastolicMean, double diastolicDeviation) {
+        Object[] statistics = {count,
+            systolicMean, systolicMean * systolicMean + systolicDeviation * systolicDeviation,
+            diastolicMean, diastolicMean * diastolicMean + diastolicDeviation * diastolicDeviation};
+        when(bloodPressureRepository.findStatisticsByUserIdAndTimestampBetween(anyLong(), any(ZonedDateTime.class),
+            any(ZonedDateTime.class))).thenReturn(Collections.singletonList(statistics));
+    }
+
+    /**
+     * Check the queued readings, and get the alerts mailed to each user.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<BloodPressureAlertService.Alert>> drain() {
+        reset(mailService);
+        service.drain();
+        ArgumentCaptor<User> users = ArgumentCaptor.forClass(User.class);
+        ArgumentCaptor<List> alerts = ArgumentCaptor.forClass(List.class);
+        verify(mailService, atLeast(0)).sendBloodPressureAlertEmail(users.capture(), alerts.capture());
+        List<Long> userIds = users.getAllValues().stream().map(User::getId).collect(Collectors.toList());
+        return userIds.stream().collect(Collectors.toMap(id -> id,
+            id -> new ArrayList<>(alerts.getAllValues().get(userIds.indexOf(id)))));
+    }
+
+    private Collection<?> queue() {
+        return (Collection<?>) ReflectionTestUtils.getField(service, "queue");
+    }
+
+    private static BloodPressure reading(Long userId, int systolic, int diastolic) {
+        return new BloodPressure(ZonedDateTime.now(), systolic, diastolic, user(userId));
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        user.setEmail("user" + id + "@localhost");
+        return user;
+    }
+}
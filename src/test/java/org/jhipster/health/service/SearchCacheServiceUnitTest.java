@@ -0,0 +1,157 @@
+package org.jhipster.health.service;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.security.AuthoritiesConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SearchCacheService.
+ *
+ * @see SearchCacheService
+ */
+public class SearchCacheServiceUnitTest {
+
+    private JHipsterProperties jHipsterProperties;
+
+    private CacheManager cacheManager;
+
+    private SearchCacheService service;
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        cacheManager = CacheManager.newInstance(new Configuration().name("searchCacheServiceUnitTest"));
+        cacheManager.addCache(new Cache(new CacheConfiguration(SearchCacheService.CACHE_NAME, 3)));
+        EhCacheCacheManager ehCacheManager = new EhCacheCacheManager(cacheManager);
+        ehCacheManager.afterPropertiesSet();
+        service = new SearchCacheService();
+        ReflectionTestUtils.setField(service, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(service, "cacheManager", ehCacheManager);
+        service.init();
+        login("user", AuthoritiesConstants.USER);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        cacheManager.shutdown();
+    }
+
+    @Test
+    public void testResultsKept() {
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(1);
+        assertThat(service.get(Point.class, "  run ", "0", search())).isEqualTo(1);
+        assertThat(service.get(Point.class, "run", "1", search())).isEqualTo(2);
+        assertThat(service.get(Weight.class, "run", "0", search())).isEqualTo(3);
+
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testResultsOfOtherUsersNotShared() {
+        service.get(Point.class, "run", "0", search());
+        login("other", AuthoritiesConstants.USER);
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(2);
+    }
+
+    @Test
+    public void testWrittenInvalidatesTheUserAndAdministrators() {
+        service.get(Point.class, "run", "0", search());
+        login("other", AuthoritiesConstants.USER);
+        service.get(Point.class, "run", "0", search());
+        login("admin", AuthoritiesConstants.ADMIN);
+        service.get(Point.class, "run", "0", search());
+
+        service.written(Point.class, Collections.singletonList("USER"));
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(4);
+        login("other", AuthoritiesConstants.USER);
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(2);
+        login("user", AuthoritiesConstants.USER);
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(5);
+    }
+
+    @Test
+    public void testWrittenAllInvalidatesTheIndex() {
+        service.get(Point.class, "run", "0", search());
+        service.get(Weight.class, "run", "0", search());
+
+        service.writtenAll(Point.class);
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(3);
+        assertThat(service.get(Weight.class, "run", "0", search())).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultsBoundedByTheCacheRegion() {
+        service.get(Point.class, "a", "0", search());
+        service.get(Point.class, "b", "0", search());
+        service.get(Point.class, "c", "0", search());
+        service.get(Point.class, "d", "0", search());
+
+        assertThat(cacheManager.getCache(SearchCacheService.CACHE_NAME).getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void testResultsExpired() {
+        jHipsterProperties.getSearch().getCache().setTimeToLiveInSeconds(0);
+        service.get(Point.class, "run", "0", search());
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultsNotKeptWhenDisabled() {
+        jHipsterProperties.getSearch().getCache().setEnabled(false);
+        service.get(Point.class, "run", "0", search());
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultsNotKeptWithoutTheCacheRegion() {
+        ReflectionTestUtils.setField(service, "cacheManager", null);
+        service.init();
+        service.get(Point.class, "run", "0", search());
+
+        assertThat(service.get(Point.class, "run", "0", search())).isEqualTo(2);
+    }
+
+    /**
+     * A search returning the number of searches done so far.
+     */
+    private Supplier<Integer> search() {
+        return searches::incrementAndGet;
+    }
+
+    private static void login(String login, String authority) {
+        User user = new User(login, login, Collections.singletonList(new SimpleGrantedAuthority(authority)));
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(user, login, user.getAuthorities()));
+        SecurityContextHolder.setContext(securityContext);
+    }
+}
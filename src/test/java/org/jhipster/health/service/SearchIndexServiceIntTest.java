@@ -0,0 +1,117 @@
+package org.jhipster.health.service;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.SearchOutboxEntry;
+import org.jhipster.health.repository.SearchOutboxEntryRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SearchIndexService.
+ * <p>
+ * The outbox is drained in its own transactions, so the entries are deleted after each test.
+ * </p>
+ *
+ * @see SearchIndexService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class SearchIndexServiceIntTest {
+
+    @Inject
+    private SearchOutboxEntryRepository searchOutboxEntryRepository;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @After
+    public void deleteOutboxEntries() {
+        jHipsterProperties.getSearch().getOutbox().setDrain(true);
+        searchIndexService.resume(Point.class);
+        searchOutboxEntryRepository.deleteAll();
+    }
+
+    @Test
+    public void assertThatDueEntriesAreSynchronizedAndRemoved() {
+        SearchOutboxEntry due = searchOutboxEntryRepository.save(
+            new SearchOutboxEntry(Point.class.getSimpleName(), Long.MAX_VALUE));
+
+        searchIndexService.processOutbox();
+
+        assertThat(searchOutboxEntryRepository.findOne(due.getId())).isNull();
+    }
+
+    @Test
+    public void assertThatEntriesClaimedByAnotherNodeAreNotDrained() {
+        SearchOutboxEntry claimed = new SearchOutboxEntry(Point.class.getSimpleName(), Long.MAX_VALUE);
+        claimed.setClaimToken("another-node");
+        claimed.setNextAttemptDate(ZonedDateTime.now().plusMinutes(5));
+        claimed = searchOutboxEntryRepository.save(claimed);
+
+        searchIndexService.processOutbox();
+
+        SearchOutboxEntry kept = searchOutboxEntryRepository.findOne(claimed.getId());
+        assertThat(kept).isNotNull();
+        assertThat(kept.getClaimToken()).isEqualTo("another-node");
+    }
+
+    @Test
+    public void assertThatDeadLettersAreNotRetried() {
+        SearchOutboxEntry deadLetter = new SearchOutboxEntry(Point.class.getSimpleName(), Long.MAX_VALUE);
+        deadLetter.setAttempts(10);
+        deadLetter.setDeadLetter(true);
+        deadLetter = searchOutboxEntryRepository.save(deadLetter);
+
+        searchIndexService.processOutbox();
+
+        SearchOutboxEntry kept = searchOutboxEntryRepository.findOne(deadLetter.getId());
+        assertThat(kept).isNotNull();
+        assertThat(kept.getAttempts()).isEqualTo(10);
+    }
+
+    @Test
+    public void assertThatPausedEntriesAreDrainedOnceResumed() {
+        SearchOutboxEntry paused = searchOutboxEntryRepository.save(
+            new SearchOutboxEntry(Point.class.getSimpleName(), Long.MAX_VALUE));
+        searchIndexService.pause(Point.class, 60);
+
+        searchIndexService.processOutbox();
+
+        assertThat(searchOutboxEntryRepository.findOne(paused.getId())).isNotNull();
+
+        searchIndexService.resume(Point.class);
+        searchIndexService.processOutbox();
+
+        assertThat(searchOutboxEntryRepository.findOne(paused.getId())).isNull();
+    }
+
+    @Test
+    public void assertThatANodeThatDoesNotDrainKeepsTheEntries() {
+        SearchOutboxEntry due = searchOutboxEntryRepository.save(
+            new SearchOutboxEntry(Point.class.getSimpleName(), Long.MAX_VALUE));
+        jHipsterProperties.getSearch().getOutbox().setDrain(false);
+
+        searchIndexService.processOutbox();
+
+        SearchOutboxEntry kept = searchOutboxEntryRepository.findOne(due.getId());
+        assertThat(kept).isNotNull();
+        assertThat(kept.getClaimToken()).isNull();
+    }
+}
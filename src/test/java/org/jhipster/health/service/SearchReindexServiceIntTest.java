@@ -0,0 +1,143 @@
+package org.jhipster.health.service;
+
+import org.elasticsearch.client.Client;
+import org.jhipster.health.Application;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.repository.PointRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SearchReindexService.
+ * <p>
+ * The points index is rebuilt in its own transactions, so the point saved for each test is deleted afterwards. Each
+ * test starts from a points index created by the search repository, under the name of the alias.
+ * </p>
+ *
+ * @see SearchReindexService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class SearchReindexServiceIntTest {
+
+    private static final String ALIAS = "point";
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    private Point point;
+
+    @Before
+    public void setup() {
+        indices().forEach(elasticsearchTemplate::deleteIndex);
+        if (elasticsearchTemplate.indexExists(ALIAS)) {
+            elasticsearchTemplate.deleteIndex(ALIAS);
+        }
+        elasticsearchTemplate.createIndex(Point.class);
+        elasticsearchTemplate.putMapping(Point.class);
+
+        point = pointRepository.saveAndFlush(new Point(LocalDate.of(2001, 7, 1), 1, 1, 1,
+            userRepository.findOneByLogin("user").get()));
+    }
+
+    @After
+    public void deletePoint() {
+        pointRepository.delete(point);
+    }
+
+    @Test
+    public void assertThatTheFirstReindexReplacesTheIndexWithAnAlias() {
+        assertThat(searchReindexService.reindex(Collections.singletonList(ALIAS))).isTrue();
+
+        List<String> indices = indices();
+        assertThat(indices).hasSize(1);
+        assertThat(indices.get(0)).startsWith(ALIAS + "_");
+        assertThat(client.prepareCount(ALIAS).get().getCount()).isEqualTo(pointRepository.count());
+    }
+
+    @Test
+    public void assertThatTheAliasIsSwappedAndTheOldIndexDeleted() {
+        searchReindexService.reindex(Collections.singletonList(ALIAS));
+        String oldIndex = indices().get(0);
+
+        assertThat(searchReindexService.reindex(Collections.singletonList(ALIAS))).isTrue();
+
+        List<String> indices = indices();
+        assertThat(indices).hasSize(1).doesNotContain(oldIndex);
+        assertThat(elasticsearchTemplate.indexExists(oldIndex)).isFalse();
+        assertThat(client.prepareCount(ALIAS).get().getCount()).isEqualTo(pointRepository.count());
+        assertThat(client.admin().indices().prepareGetMappings(indices.get(0)).setTypes(ALIAS).get().getMappings()
+            .get(indices.get(0)).get(ALIAS)).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void assertThatTheRebuiltIndexGetsTheMappingOfTheEntity() throws Exception {
+        // the current index maps a field as an older version of the entity did
+        elasticsearchTemplate.deleteIndex(ALIAS);
+        elasticsearchTemplate.createIndex(Point.class);
+        elasticsearchTemplate.putMapping(ALIAS, ALIAS,
+            "{\"point\":{\"properties\":{\"exercise\":{\"type\":\"string\",\"index\":\"not_analyzed\"}}}}");
+
+        assertThat(searchReindexService.reindex(Collections.singletonList(ALIAS))).isTrue();
+
+        String newIndex = indices().get(0);
+        Map<String, Object> mapping = client.admin().indices().prepareGetMappings(newIndex).setTypes(ALIAS).get()
+            .getMappings().get(newIndex).get(ALIAS).sourceAsMap();
+        Map<String, Object> exercise = (Map<String, Object>) ((Map<String, Object>) mapping.get("properties"))
+            .get("exercise");
+        assertThat(exercise.get("type")).isEqualTo("long");
+        assertThat(exercise).doesNotContainKey("index");
+    }
+
+    @Test
+    public void assertThatOnlyTheGivenIndicesAreRebuilt() {
+        assertThat(searchReindexService.reindex(Collections.singletonList("weight"))).isTrue();
+
+        assertThat(indices()).isEmpty();
+        assertThat(elasticsearchTemplate.indexExists(ALIAS)).isTrue();
+    }
+
+    /**
+     * The indices the alias points to.
+     */
+    private List<String> indices() {
+        List<String> indices = new ArrayList<>();
+        if (client.admin().indices().prepareAliasesExist(ALIAS).get().exists()) {
+            client.admin().indices().prepareGetAliases(ALIAS).get().getAliases().keysIt()
+                .forEachRemaining(indices::add);
+        }
+        return indices;
+    }
+}
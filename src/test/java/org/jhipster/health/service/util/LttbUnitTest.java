@@ -0,0 +1,40 @@
+package org.jhipster.health.service.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the Lttb utility class.
+ *
+ * @see Lttb
+ */
+public class LttbUnitTest {
+
+    @Test
+    public void testSelectAllWhenFewerPointsThanThreshold() {
+        long[] x = {0, 1, 2};
+        double[] y = {1, 2, 3};
+        assertThat(Lttb.select(x, y, 3, 5)).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void testSelectKeepsEndsAndPeaks() {
+        long[] x = new long[100];
+        double[] y = new double[100];
+        for (int i = 0; i < 100; i++) {
+            x[i] = i;
+            y[i] = i == 42 ? 1000 : i == 77 ? -1000 : 0;
+        }
+        int[] selected = Lttb.select(x, y, 100, 10);
+        assertThat(selected).hasSize(10);
+        assertThat(selected[0]).isEqualTo(0);
+        assertThat(selected[9]).isEqualTo(99);
+        assertThat(selected).contains(42, 77);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectRejectsThresholdBelowThree() {
+        Lttb.select(new long[]{0, 1, 2}, new double[]{0, 1, 2}, 3, 2);
+    }
+}
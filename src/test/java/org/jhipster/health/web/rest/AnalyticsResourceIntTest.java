@@ -0,0 +1,229 @@
+package org.jhipster.health.web.rest;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.repository.search.BloodPressureSearchRepository;
+import org.jhipster.health.repository.search.PointSearchRepository;
+import org.jhipster.health.repository.search.WeightSearchRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the AnalyticsResource REST controller.
+ *
+ * @see AnalyticsResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class AnalyticsResourceIntTest {
+
+    // far from the documents of the other tests, which are deleted after each test
+    private static final long FIRST_ID = Long.MAX_VALUE - 100;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PointSearchRepository pointSearchRepository;
+
+    @Inject
+    private WeightSearchRepository weightSearchRepository;
+
+    @Inject
+    private BloodPressureSearchRepository bloodPressureSearchRepository;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc restAnalyticsMockMvc;
+
+    private User user;
+
+    private User admin;
+
+    private long id;
+
+    private int maxBuckets;
+
+    @Before
+    public void setup() {
+        restAnalyticsMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        user = userRepository.findOneByLogin("user").get();
+        admin = userRepository.findOneByLogin("admin").get();
+        id = FIRST_ID;
+        maxBuckets = jHipsterProperties.getAnalytics().getMaxBuckets();
+    }
+
+    @After
+    public void deleteDocuments() {
+        for (long documentId = FIRST_ID; documentId < id; documentId++) {
+            pointSearchRepository.delete(documentId);
+            weightSearchRepository.delete(documentId);
+            bloodPressureSearchRepository.delete(documentId);
+        }
+        jHipsterProperties.getAnalytics().setMaxBuckets(maxBuckets);
+    }
+
+    @Test
+    public void getPointsPerWeek() throws Exception {
+        point(LocalDate.of(2001, 1, 1), 1, 1, 1, user);
+        point(LocalDate.of(2001, 1, 3), 2, 0, 1, user);
+        point(LocalDate.of(2001, 1, 8), 1, 1, 0, user);
+        // not counted for the user
+        point(LocalDate.of(2001, 1, 2), 1, 1, 1, admin);
+
+        restAnalyticsMockMvc.perform(get("/api/analytics/points?interval=week&from=2001-01-01&to=2001-01-14")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.buckets", hasSize(2)))
+            .andExpect(jsonPath("$.buckets[0].key").value("2001-01-01"))
+            .andExpect(jsonPath("$.buckets[0].count").value(2))
+            .andExpect(jsonPath("$.buckets[0].values.points").value(6))
+            .andExpect(jsonPath("$.buckets[0].values.users").value(1))
+            .andExpect(jsonPath("$.buckets[1].key").value("2001-01-08"))
+            .andExpect(jsonPath("$.buckets[1].count").value(1))
+            .andExpect(jsonPath("$.buckets[1].values.points").value(2))
+            .andExpect(jsonPath("$.totals.points").value(8))
+            .andExpect(jsonPath("$.totals.users").value(1))
+            .andExpect(jsonPath("$.totals.pointsPerUser").value(8D));
+    }
+
+    @Test
+    public void getWeightDistribution() throws Exception {
+        weight(ZonedDateTime.of(2001, 2, 5, 10, 0, 0, 0, ZoneOffset.UTC), 80.5);
+        weight(ZonedDateTime.of(2001, 2, 6, 10, 0, 0, 0, ZoneOffset.UTC), 81D);
+        weight(ZonedDateTime.of(2001, 2, 7, 10, 0, 0, 0, ZoneOffset.UTC), 95D);
+
+        restAnalyticsMockMvc.perform(get("/api/analytics/weights?width=1&from=2001-02-01&to=2001-02-28")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.buckets", hasSize(3)))
+            .andExpect(jsonPath("$.buckets[0].key").value("80"))
+            .andExpect(jsonPath("$.buckets[0].count").value(1))
+            .andExpect(jsonPath("$.buckets[1].key").value("81"))
+            .andExpect(jsonPath("$.buckets[2].key").value("95"))
+            .andExpect(jsonPath("$.totals.count").value(3))
+            .andExpect(jsonPath("$.totals.min").value(80.5))
+            .andExpect(jsonPath("$.totals.max").value(95D))
+            .andExpect(jsonPath("$.totals.width").value(1));
+    }
+
+    @Test
+    public void getWeightDistributionWidened() throws Exception {
+        weight(ZonedDateTime.of(2001, 3, 5, 10, 0, 0, 0, ZoneOffset.UTC), 80.5);
+        weight(ZonedDateTime.of(2001, 3, 6, 10, 0, 0, 0, ZoneOffset.UTC), 81D);
+        weight(ZonedDateTime.of(2001, 3, 7, 10, 0, 0, 0, ZoneOffset.UTC), 95D);
+        jHipsterProperties.getAnalytics().setMaxBuckets(5);
+
+        // 80 to 95 by 2 would be 8 ranges, by 4 it is 80, 84, 88 and 92
+        restAnalyticsMockMvc.perform(get("/api/analytics/weights?width=2&from=2001-03-01&to=2001-03-31")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.buckets", hasSize(2)))
+            .andExpect(jsonPath("$.buckets[0].key").value("80"))
+            .andExpect(jsonPath("$.buckets[0].count").value(2))
+            .andExpect(jsonPath("$.buckets[1].key").value("92"))
+            .andExpect(jsonPath("$.buckets[1].count").value(1))
+            .andExpect(jsonPath("$.totals.count").value(3))
+            .andExpect(jsonPath("$.totals.width").value(4));
+    }
+
+    @Test
+    public void getBloodPressuresPerMonth() throws Exception {
+        bloodPressure(ZonedDateTime.of(2001, 4, 10, 8, 0, 0, 0, ZoneOffset.UTC), 120, 80);
+        bloodPressure(ZonedDateTime.of(2001, 4, 20, 8, 0, 0, 0, ZoneOffset.UTC), 185, 85);
+        bloodPressure(ZonedDateTime.of(2001, 5, 10, 8, 0, 0, 0, ZoneOffset.UTC), 110, 70);
+
+        restAnalyticsMockMvc.perform(get("/api/analytics/blood-pressures?interval=month&from=2001-04-01&to=2001-05-31")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.buckets", hasSize(2)))
+            .andExpect(jsonPath("$.buckets[0].key").value("2001-04-01"))
+            .andExpect(jsonPath("$.buckets[0].count").value(2))
+            .andExpect(jsonPath("$.buckets[0].values.CRISIS").value(1))
+            .andExpect(jsonPath("$.buckets[0].values.STAGE_1").value(1))
+            .andExpect(jsonPath("$.buckets[0].values.systolic").value(152.5))
+            .andExpect(jsonPath("$.buckets[1].key").value("2001-05-01"))
+            .andExpect(jsonPath("$.buckets[1].values.NORMAL").value(1))
+            .andExpect(jsonPath("$.totals.CRISIS").value(1))
+            .andExpect(jsonPath("$.totals.diastolic").value(78.33333333333333));
+    }
+
+    @Test
+    public void getPointsWithUnknownInterval() throws Exception {
+        restAnalyticsMockMvc.perform(get("/api/analytics/points?interval=fortnight")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-21pointsApp-error", "error.invalidanalytics"));
+    }
+
+    @Test
+    public void getWeightsWithReversedRange() throws Exception {
+        restAnalyticsMockMvc.perform(get("/api/analytics/weights?from=2016-02-01&to=2016-01-01")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getBloodPressuresWithTooManyPeriods() throws Exception {
+        restAnalyticsMockMvc.perform(get("/api/analytics/blood-pressures?interval=day&from=2000-01-01&to=2016-01-01")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void point(LocalDate date, int exercise, int meals, int alcohol, User owner) {
+        Point point = new Point(date, exercise, meals, alcohol, owner);
+        point.setId(id++);
+        pointSearchRepository.save(point);
+    }
+
+    private void weight(ZonedDateTime timestamp, Double value) {
+        Weight weight = new Weight(timestamp, value, user);
+        weight.setId(id++);
+        weightSearchRepository.save(weight);
+    }
+
+    private void bloodPressure(ZonedDateTime timestamp, int systolic, int diastolic) {
+        BloodPressure bloodPressure = new BloodPressure(timestamp, systolic, diastolic, user);
+        bloodPressure.setId(id++);
+        bloodPressure.setCategory(BloodPressureCategory.classify(systolic, diastolic));
+        bloodPressureSearchRepository.save(bloodPressure);
+    }
+}
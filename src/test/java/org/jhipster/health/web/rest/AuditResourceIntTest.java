@@ -1,5 +1,6 @@
 package org.jhipster.health.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jhipster.health.Application;
 import org.jhipster.health.config.audit.AuditEventConverter;
 import org.jhipster.health.domain.PersistentAuditEvent;
@@ -19,9 +20,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,6 +52,12 @@ public class AuditResourceIntTest {
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
     private PersistentAuditEvent auditEvent;
 
     private MockMvc restAuditMockMvc;
@@ -55,8 +66,8 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-                new AuditEventService(auditEventRepository, auditEventConverter);
-        AuditResource auditResource = new AuditResource(auditEventService);
+                new AuditEventService(auditEventRepository, auditEventConverter, entityManager);
+        AuditResource auditResource = new AuditResource(auditEventService, objectMapper);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource).build();
     }
 
@@ -83,6 +94,76 @@ public class AuditResourceIntTest {
                 .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)));
     }
 
+    @Test
+    public void getAuditsByDates() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent nextMonthEvent = new PersistentAuditEvent();
+        nextMonthEvent.setAuditEventType(SAMPLE_TYPE);
+        nextMonthEvent.setPrincipal("NEXT_MONTH_PRINCIPAL");
+        nextMonthEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusMonths(1));
+        auditEventRepository.save(nextMonthEvent);
+
+        // Get the audits of the sample month only
+        restAuditMockMvc.perform(get("/api/audits?fromDate=2015-08-01&toDate=2015-08-31"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)));
+    }
+
+    @Test
+    public void getAuditsAfterCursor() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent laterEvent = new PersistentAuditEvent();
+        laterEvent.setAuditEventType(SAMPLE_TYPE);
+        laterEvent.setPrincipal(SAMPLE_PRINCIPAL);
+        laterEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusHours(1));
+        auditEventRepository.save(laterEvent);
+        PersistentAuditEvent otherEvent = new PersistentAuditEvent();
+        otherEvent.setAuditEventType(SAMPLE_TYPE);
+        otherEvent.setPrincipal("OTHER_PRINCIPAL");
+        otherEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusHours(2));
+        auditEventRepository.save(otherEvent);
+
+        // The first page holds the latest event of the principal and links to the next one
+        restAuditMockMvc.perform(get("/api/audits?principal={principal}&size=1", SAMPLE_PRINCIPAL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].timestamp").exists())
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andExpect(header().string("Link", containsString("principal=" + SAMPLE_PRINCIPAL)));
+
+        // The last page holds the earliest event and has no next link
+        String cursor = SAMPLE_TIMESTAMP.plusHours(1) + "," + laterEvent.getId();
+        restAuditMockMvc.perform(get("/api/audits?principal={principal}&size=1&after={after}", SAMPLE_PRINCIPAL, cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)))
+                .andExpect(header().string("Link", not(containsString("rel=\"next\""))));
+
+        restAuditMockMvc.perform(get("/api/audits?after=invalid"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamAudits() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent otherTypeEvent = new PersistentAuditEvent();
+        otherTypeEvent.setAuditEventType("OTHER_TYPE");
+        otherTypeEvent.setPrincipal("OTHER_PRINCIPAL");
+        otherTypeEvent.setAuditEventDate(SAMPLE_TIMESTAMP);
+        auditEventRepository.save(otherTypeEvent);
+
+        // Stream the audits of the sample type
+        restAuditMockMvc.perform(get("/api/audits/stream?type={type}", SAMPLE_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(SAMPLE_PRINCIPAL)))
+                .andExpect(content().string(not(containsString("OTHER_PRINCIPAL"))));
+    }
+
     @Test
     public void getAudit() throws Exception {
         // Initialize the database
@@ -2,15 +2,21 @@ package org.jhipster.health.web.rest;
 
 import org.jhipster.health.Application;
 import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.enumeration.BloodPressureCategory;
 import org.jhipster.health.domain.User;
 import org.jhipster.health.repository.BloodPressureRepository;
 import org.jhipster.health.repository.UserRepository;
-import org.jhipster.health.repository.search.BloodPressureSearchRepository;
+import org.jhipster.health.service.BloodPressureService;
+import org.jhipster.health.service.DownsamplingService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.IntegrationTest;
@@ -31,6 +37,7 @@ import javax.inject.Inject;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -71,7 +78,13 @@ public class BloodPressureResourceIntTest {
     private BloodPressureRepository bloodPressureRepository;
 
     @Inject
-    private BloodPressureSearchRepository bloodPressureSearchRepository;
+    private UserDataSearchService userDataSearchService;
+
+    @Inject
+    private BloodPressureService bloodPressureService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
 
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
@@ -82,6 +95,9 @@ public class BloodPressureResourceIntTest {
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private DownsamplingService downsamplingService;
+
     private MockMvc restBloodPressureMockMvc;
 
     private BloodPressure bloodPressure;
@@ -93,8 +109,11 @@ public class BloodPressureResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         BloodPressureResource bloodPressureResource = new BloodPressureResource();
-        ReflectionTestUtils.setField(bloodPressureResource, "bloodPressureSearchRepository", bloodPressureSearchRepository);
+        ReflectionTestUtils.setField(bloodPressureResource, "userDataSearchService", userDataSearchService);
         ReflectionTestUtils.setField(bloodPressureResource, "bloodPressureRepository", bloodPressureRepository);
+        ReflectionTestUtils.setField(bloodPressureResource, "bloodPressureService", bloodPressureService);
+        ReflectionTestUtils.setField(bloodPressureResource, "userDataVersionService", userDataVersionService);
+        ReflectionTestUtils.setField(bloodPressureResource, "downsamplingService", downsamplingService);
         this.restBloodPressureMockMvc = MockMvcBuilders.standaloneSetup(bloodPressureResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -127,6 +146,7 @@ public class BloodPressureResourceIntTest {
         assertThat(testBloodPressure.getTimestamp()).isEqualTo(DEFAULT_TIMESTAMP);
         assertThat(testBloodPressure.getSystolic()).isEqualTo(DEFAULT_SYSTOLIC);
         assertThat(testBloodPressure.getDiastolic()).isEqualTo(DEFAULT_DIASTOLIC);
+        assertThat(testBloodPressure.getCategory()).isEqualTo(BloodPressureCategory.NORMAL);
     }
 
     @Test
@@ -265,4 +285,82 @@ public class BloodPressureResourceIntTest {
             .andExpect(jsonPath("$.readings.[*].systolic").value(hasItem(120)))
             .andExpect(jsonPath("$.readings.[*].diastolic").value(hasItem(75)));
     }
+
+    @Test
+    @Transactional
+    public void getBloodPressuresAfterCursor() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        ZonedDateTime monday = ZonedDateTime.of(2016, 1, 4, 8, 0, 0, 0, ZoneOffset.UTC);
+        BloodPressure oldest = bloodPressureRepository.saveAndFlush(new BloodPressure(monday, 120, 80, user));
+        // two readings at the same time, ordered by their ids
+        BloodPressure first = bloodPressureRepository.saveAndFlush(new BloodPressure(monday.plusDays(1), 125, 75, user));
+        BloodPressure second = bloodPressureRepository.saveAndFlush(new BloodPressure(monday.plusDays(1), 130, 85, user));
+        BloodPressure newest = bloodPressureRepository.saveAndFlush(new BloodPressure(monday.plusDays(2), 115, 75, user));
+        String cursor = monday.plusDays(1) + "," + second.getId();
+
+        // create security-aware mockMvc
+        restBloodPressureMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // First keyset page, newest first, without a total count
+        restBloodPressureMockMvc.perform(get("/api/bloodPressures?after=&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + cursor + "&size=2>; rel=\"next\"")))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$[1].id").value(second.getId().intValue()));
+
+        // Following the cursor returns the reading with the same timestamp and a lower id, then the older one
+        restBloodPressureMockMvc.perform(get("/api/bloodPressures?after=" + cursor + "&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$[1].id").value(oldest.getId().intValue()));
+
+        // The key of the cursor is a timestamp with its offset
+        restBloodPressureMockMvc.perform(get("/api/bloodPressures?after=2016-01-05," + second.getId() + "&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+
+        restBloodPressureMockMvc.perform(get("/api/bloodPressures?after=yesterday&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getByCategory() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        ZonedDateTime now = ZonedDateTime.now();
+        bloodPressureRepository.saveAndFlush(new BloodPressure(now.minusDays(3), 115, 75, user));
+        bloodPressureRepository.saveAndFlush(new BloodPressure(now.minusDays(2), 135, 85, user));
+        bloodPressureRepository.saveAndFlush(new BloodPressure(now.minusDays(1), 150, 95, user));
+
+        // create security-aware mockMvc
+        restBloodPressureMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // The hypertensive readings by default, newest first
+        restBloodPressureMockMvc.perform(get("/api/bp-by-category")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].category").value("STAGE_2"))
+            .andExpect(jsonPath("$.[1].category").value("STAGE_1"));
+
+        restBloodPressureMockMvc.perform(get("/api/bp-by-category")
+            .param("category", "NORMAL")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].systolic").value(115));
+    }
 }
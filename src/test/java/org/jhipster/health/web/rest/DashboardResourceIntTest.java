@@ -0,0 +1,162 @@
+package org.jhipster.health.web.rest;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.config.JHipsterProperties;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.service.DashboardService;
+import org.jhipster.health.service.UserDataVersionService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the DashboardResource REST controller.
+ * <p>
+ * The lookups run on other threads, outside of the test transaction, so the weigh-in is committed and
+ * deleted after each test.
+ * </p>
+ *
+ * @see DashboardResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class DashboardResourceIntTest {
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private DashboardService dashboardService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc restDashboardMockMvc;
+
+    private Weight weight;
+
+    @Before
+    public void setup() {
+        restDashboardMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        User user = userRepository.findOneByLogin("user").get();
+        weight = weightRepository.save(new Weight(ZonedDateTime.now().minusDays(1), 80.5, user));
+    }
+
+    @After
+    public void deleteWeight() {
+        weightRepository.delete(weight.getId());
+    }
+
+    @Test
+    public void getDashboard() throws Exception {
+        restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("user")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+            .andExpect(jsonPath("$.pointsThisWeek.points").exists())
+            .andExpect(jsonPath("$.weight.period").value("Last 30 Days"))
+            .andExpect(jsonPath("$.weight.weighIns[*].weight").value(hasItem(80.5)))
+            .andExpect(jsonPath("$.bloodPressure.readings").isArray())
+            .andExpect(jsonPath("$.preferences.weeklyGoal").exists());
+    }
+
+    @Test
+    public void getDashboardNotModified() throws Exception {
+        String etag = restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("user")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("user"))
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // a write makes the cached dashboard stale
+        userDataVersionService.bump("user");
+        restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("user"))
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getDashboardNotModifiedForAnotherUser() throws Exception {
+        String etag = restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("user")))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // without any write in between, the dashboard of another user is still not the same
+        restDashboardMockMvc.perform(get("/api/dashboard")
+            .with(user("admin"))
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void getDashboardTimedOut() throws Exception {
+        Executor executor = (Executor) ReflectionTestUtils.getField(dashboardService, "executor");
+        long timeout = jHipsterProperties.getDashboard().getTimeout();
+        jHipsterProperties.getDashboard().setTimeout(100);
+        // the lookups are queued but never run, so the dashboard times out
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(dashboardService, "executor", (Executor) queued::add);
+        try {
+            restDashboardMockMvc.perform(get("/api/dashboard")
+                .with(user("user")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("error.serviceUnavailable"));
+        } finally {
+            ReflectionTestUtils.setField(dashboardService, "executor", executor);
+            jHipsterProperties.getDashboard().setTimeout(timeout);
+        }
+    }
+}
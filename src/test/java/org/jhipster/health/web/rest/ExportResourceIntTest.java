@@ -0,0 +1,155 @@
+package org.jhipster.health.web.rest;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.domain.Point;
+import org.jhipster.health.domain.User;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.PointRepository;
+import org.jhipster.health.repository.UserRepository;
+import org.jhipster.health.repository.WeightRepository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the ExportResource REST controller.
+ *
+ * @see ExportResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ExportResourceIntTest {
+
+    @Inject
+    private PointRepository pointRepository;
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc restExportMockMvc;
+
+    private Point point;
+
+    private Weight weight;
+
+    @Before
+    public void setup() {
+        restExportMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        User user = userRepository.findOneByLogin("user").get();
+        point = new Point(LocalDate.ofEpochDay(0L), 1, 1, 0, user);
+        point.setNotes("walked, then \"ran\"");
+        weight = new Weight(ZonedDateTime.of(2016, 1, 1, 8, 0, 0, 0, ZoneId.of("UTC")), 80.5, user);
+    }
+
+    @Test
+    @Transactional
+    public void exportAsNdjson() throws Exception {
+        pointRepository.saveAndFlush(point);
+        weightRepository.saveAndFlush(weight);
+
+        restExportMockMvc.perform(get("/api/export")
+            .with(user("user")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("application/x-ndjson")))
+            .andExpect(content().string(containsString(
+                "{\"type\":\"points\",\"id\":" + point.getId() + ",\"date\":\"1970-01-01\",\"exercise\":1,\"meals\":1,\"alcohol\":0,")))
+            .andExpect(content().string(containsString("{\"type\":\"weights\",\"id\":" + weight.getId() + ",")));
+    }
+
+    @Test
+    @Transactional
+    public void exportAsCsv() throws Exception {
+        pointRepository.saveAndFlush(point);
+        weightRepository.saveAndFlush(weight);
+
+        restExportMockMvc.perform(get("/api/export?format=csv&types=points")
+            .with(user("user")))
+            .andExpect(status().isOk())
+            .andExpect(content().string("id,date,exercise,meals,alcohol,notes\n" +
+                point.getId() + ",1970-01-01,1,1,0,\"walked, then \"\"ran\"\"\"\n"));
+    }
+
+    @Test
+    @Transactional
+    public void exportAsGzip() throws Exception {
+        weightRepository.saveAndFlush(weight);
+
+        byte[] body = restExportMockMvc.perform(get("/api/export?format=csv&types=weights")
+            .with(user("user"))
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        StringBuilder csv = new StringBuilder();
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8)) {
+            for (int c = reader.read(); c >= 0; c = reader.read()) {
+                csv.append((char) c);
+            }
+        }
+        assertThat(csv.toString()).startsWith("id,timestamp,weight\n" + weight.getId() + ",");
+    }
+
+    @Test
+    @Transactional
+    public void exportWithoutGzipWhenRefused() throws Exception {
+        weightRepository.saveAndFlush(weight);
+
+        restExportMockMvc.perform(get("/api/export?format=csv&types=weights")
+            .with(user("user"))
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(content().string(startsWith("id,timestamp,weight\n" + weight.getId() + ",")));
+    }
+
+    @Test
+    public void exportUnknownType() throws Exception {
+        restExportMockMvc.perform(get("/api/export?types=steps")
+            .with(user("user")))
+            .andExpect(status().isBadRequest());
+    }
+}
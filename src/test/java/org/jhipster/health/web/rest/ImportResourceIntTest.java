@@ -0,0 +1,147 @@
+package org.jhipster.health.web.rest;
+
+import org.jhipster.health.Application;
+import org.jhipster.health.domain.BloodPressure;
+import org.jhipster.health.domain.Weight;
+import org.jhipster.health.repository.BloodPressureRepository;
+import org.jhipster.health.repository.WeightRepository;
+import org.jhipster.health.service.util.DataFormat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the ImportResource REST controller.
+ * <p>
+ * The import commits its own transactions, so the imported readings are deleted after each test.
+ * </p>
+ *
+ * @see ImportResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ImportResourceIntTest {
+
+    @Inject
+    private WeightRepository weightRepository;
+
+    @Inject
+    private BloodPressureRepository bloodPressureRepository;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc restImportMockMvc;
+
+    @Before
+    public void setup() {
+        restImportMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+    }
+
+    @After
+    public void deleteImportedReadings() {
+        weightRepository.delete(weightRepository.findAll().stream()
+            .filter(weight -> weight.getUser() != null && "user".equals(weight.getUser().getLogin()))
+            .collect(Collectors.toList()));
+        bloodPressureRepository.delete(bloodPressureRepository.findAll().stream()
+            .filter(bloodPressure -> bloodPressure.getUser() != null && "user".equals(bloodPressure.getUser().getLogin()))
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void importWeightsAsNdjson() throws Exception {
+        int databaseSizeBeforeImport = weightRepository.findAll().size();
+        String body = "{\"timestamp\":\"2016-01-01T08:00:00Z\",\"weight\":80.5}\n" +
+            "{\"timestamp\":\"2016-01-02T08:00:00Z\"}\n" +
+            "not json\n" +
+            "\n" +
+            "{\"id\":42,\"timestamp\":\"2016-01-03T08:00:00Z\",\"weight\":80.1}\n";
+
+        restImportMockMvc.perform(post("/api/import/weights")
+            .with(user("user"))
+            .contentType(DataFormat.APPLICATION_NDJSON_VALUE)
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[1].line").value(3));
+
+        List<Weight> weights = weightRepository.findAll();
+        assertThat(weights).hasSize(databaseSizeBeforeImport + 2);
+        Weight imported = weights.stream().filter(weight -> weight.getWeight() == 80.1).findFirst().get();
+        assertThat(imported.getId()).isNotEqualTo(42L);
+        assertThat(imported.getUser().getLogin()).isEqualTo("user");
+    }
+
+    @Test
+    public void importRejectsTooLongLines() throws Exception {
+        int databaseSizeBeforeImport = weightRepository.findAll().size();
+        char[] padding = new char[10000];
+        Arrays.fill(padding, ' ');
+        String body = "{\"timestamp\":\"2016-01-01T08:00:00Z\",\"weight\":80.5}\n" +
+            "{\"timestamp\":\"2016-01-02T08:00:00Z\"," + new String(padding) + "\"weight\":80.3}\n" +
+            "{\"timestamp\":\"2016-01-03T08:00:00Z\",\"weight\":80.1}";
+
+        restImportMockMvc.perform(post("/api/import/weights")
+            .with(user("user"))
+            .contentType(DataFormat.APPLICATION_NDJSON_VALUE)
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        assertThat(weightRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    public void importBloodPressuresAsCsv() throws Exception {
+        int databaseSizeBeforeImport = bloodPressureRepository.findAll().size();
+        String body = "timestamp,systolic,diastolic\n" +
+            "2016-01-01T08:00:00Z,120,80\n" +
+            "2016-01-02T08:00:00Z,high,80\n" +
+            "\"2016-01-03T08:00:00Z\",118,79\n";
+
+        restImportMockMvc.perform(post("/api/import/bloodPressures")
+            .with(user("user"))
+            .contentType(DataFormat.TEXT_CSV_VALUE)
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        List<BloodPressure> bloodPressures = bloodPressureRepository.findAll();
+        assertThat(bloodPressures).hasSize(databaseSizeBeforeImport + 2);
+    }
+}
@@ -1,11 +1,18 @@
 package org.jhipster.health.web.rest;
 
 import org.jhipster.health.Application;
+import org.jhipster.health.config.JHipsterProperties;
 import org.jhipster.health.domain.Point;
 import org.jhipster.health.domain.User;
 import org.jhipster.health.repository.PointRepository;
 import org.jhipster.health.repository.UserRepository;
 import org.jhipster.health.repository.search.PointSearchRepository;
+import org.jhipster.health.service.PointService;
+import org.jhipster.health.service.PointWeeklySummaryService;
+import org.jhipster.health.service.PointsHistoryService;
+import org.jhipster.health.service.SearchCacheService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
 
 
 import org.junit.Before;
@@ -15,7 +22,10 @@ import org.junit.runner.RunWith;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static java.time.temporal.ChronoField.DAY_OF_WEEK;
 import static java.util.Calendar.MONDAY;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.IntegrationTest;
@@ -75,17 +85,38 @@ public class PointResourceIntTest {
     private PointRepository pointRepository;
 
     @Inject
-    private PointSearchRepository pointSearchRepository;
+    private UserDataSearchService userDataSearchService;
 
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private PointService pointService;
+
+    @Inject
+    private PointWeeklySummaryService pointWeeklySummaryService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private PointsHistoryService pointsHistoryService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private PointSearchRepository pointSearchRepository;
+
+    @Inject
+    private SearchCacheService searchCacheService;
+
     private MockMvc restPointMockMvc;
 
     private Point point;
@@ -97,9 +128,13 @@ public class PointResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         PointResource pointResource = new PointResource();
-        ReflectionTestUtils.setField(pointResource, "pointSearchRepository", pointSearchRepository);
+        ReflectionTestUtils.setField(pointResource, "userDataSearchService", userDataSearchService);
         ReflectionTestUtils.setField(pointResource, "pointRepository", pointRepository);
         ReflectionTestUtils.setField(pointResource, "userRepository", userRepository);
+        ReflectionTestUtils.setField(pointResource, "pointService", pointService);
+        ReflectionTestUtils.setField(pointResource, "pointWeeklySummaryService", pointWeeklySummaryService);
+        ReflectionTestUtils.setField(pointResource, "userDataVersionService", userDataVersionService);
+        ReflectionTestUtils.setField(pointResource, "pointsHistoryService", pointsHistoryService);
         this.restPointMockMvc = MockMvcBuilders.standaloneSetup(pointResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -226,6 +261,29 @@ public class PointResourceIntTest {
         assertThat(testPoint.getNotes()).isEqualTo(UPDATED_NOTES);
     }
 
+    @Test
+    @Transactional
+    public void updatePointOfAnotherUserChangesOnlyTheOwnersVersions() throws Exception {
+        point.setUser(userRepository.findOneByLogin("user").get());
+        pointRepository.saveAndFlush(point);
+        long userVersion = userDataVersionService.getVersion("user");
+        long systemVersion = userDataVersionService.getVersion("system");
+
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        point.setNotes(UPDATED_NOTES);
+        restPointMockMvc.perform(put("/api/points")
+                .with(user("admin").roles("ADMIN"))
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(point)))
+                .andExpect(status().isOk());
+
+        assertThat(userDataVersionService.getVersion("user")).isGreaterThan(userVersion);
+        assertThat(userDataVersionService.getVersion("system")).isEqualTo(systemVersion);
+    }
+
     @Test
     @Transactional
     public void deletePoint() throws Exception {
@@ -248,13 +306,13 @@ public class PointResourceIntTest {
         User user = userRepository.findOneByLogin("user").get();
         // Create points in two separate weeks
         point = new Point(thisMonday.plusDays(2), 1, 1, 1, user);
-        pointRepository.saveAndFlush(point);
+        pointService.save(point);
         point = new Point(thisMonday.plusDays(3), 1, 1, 0, user);
-        pointRepository.saveAndFlush(point);
+        pointService.save(point);
         point = new Point(lastMonday.plusDays(3), 0, 0, 1, user);
-        pointRepository.saveAndFlush(point);
+        pointService.save(point);
         point = new Point(lastMonday.plusDays(4), 1, 1, 0, user);
-        pointRepository.saveAndFlush(point);
+        pointService.save(point);
     }
     @Test
     @Transactional
@@ -285,4 +343,250 @@ public class PointResourceIntTest {
             .andExpect(jsonPath("$.week").value(thisMonday.format(ISO_LOCAL_DATE)))
             .andExpect(jsonPath("$.points").value(5));
     }
+
+    @Test
+    @Transactional
+    public void getPointsByWeek() throws Exception {
+        LocalDate today = LocalDate.now();
+        LocalDate thisMonday = today.with(DAY_OF_WEEK, 1);
+        LocalDate lastMonday = thisMonday.minusWeeks(1);
+        createPointsByWeek(thisMonday, lastMonday);
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // Get the points for the last three weeks, oldest first
+        restPointMockMvc.perform(get("/api/points-by-week?weeks=3")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].week").value(thisMonday.minusWeeks(2).format(ISO_LOCAL_DATE)))
+            .andExpect(jsonPath("$[0].points").value(0))
+            .andExpect(jsonPath("$[1].week").value(lastMonday.format(ISO_LOCAL_DATE)))
+            .andExpect(jsonPath("$[1].points").value(3))
+            .andExpect(jsonPath("$[2].week").value(thisMonday.format(ISO_LOCAL_DATE)))
+            .andExpect(jsonPath("$[2].points").value(5));
+    }
+
+    @Test
+    @Transactional
+    public void getPointsByWeekOutOfRange() throws Exception {
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        restPointMockMvc.perform(get("/api/points-by-week?weeks=0")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+        restPointMockMvc.perform(get("/api/points-by-week?weeks=521")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+        restPointMockMvc.perform(get("/api/points-by-week?weeks=520")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(520)));
+    }
+
+    @Test
+    @Transactional
+    public void getPointsAfterCursor() throws Exception {
+        LocalDate thisMonday = LocalDate.now().with(DAY_OF_WEEK, 1);
+        LocalDate lastMonday = thisMonday.minusWeeks(1);
+        createPointsByWeek(thisMonday, lastMonday);
+        String cursor = lastMonday.plusDays(4) + "," + point.getId();
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // First keyset page, newest first, without a total count
+        restPointMockMvc.perform(get("/api/points?after=&size=3")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + cursor + "&size=3>; rel=\"next\"")))
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].date").value(thisMonday.plusDays(3).toString()))
+            .andExpect(jsonPath("$[2].date").value(lastMonday.plusDays(4).toString()));
+
+        // Following the cursor returns the remaining point and no next link
+        restPointMockMvc.perform(get("/api/points?after=" + cursor + "&size=3")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].date").value(lastMonday.plusDays(3).toString()));
+
+        restPointMockMvc.perform(get("/api/points?after=yesterday&size=3")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getPointsAfterCursorSkipsPointsWithoutDate() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        Point dated = pointRepository.saveAndFlush(new Point(LocalDate.now(), 1, 1, 1, user));
+        pointRepository.saveAndFlush(new Point(null, 1, 0, 0, user));
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // The point without a date is not listed, so no cursor is written without a date
+        restPointMockMvc.perform(get("/api/points?after=&size=1")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(dated.getId().intValue()));
+
+        restPointMockMvc.perform(get("/api/points?after=&size=20")
+            .with(user("admin").roles("ADMIN")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].date").value(not(hasItem(nullValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void updatePointMovesWeeklySummary() throws Exception {
+        LocalDate thisMonday = LocalDate.now().with(DAY_OF_WEEK, 1);
+        User user = userRepository.findOneByLogin("user").get();
+        point = pointService.save(new Point(thisMonday, 1, 1, 1, user));
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // Move the point to last week
+        Point movedPoint = new Point(thisMonday.minusWeeks(1), 1, 1, 1, user);
+        movedPoint.setId(point.getId());
+        restPointMockMvc.perform(put("/api/points")
+            .with(user("user").roles("USER"))
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(movedPoint)))
+            .andExpect(status().isOk());
+
+        restPointMockMvc.perform(get("/api/points-by-week?weeks=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].points").value(3))
+            .andExpect(jsonPath("$[1].points").value(0));
+    }
+
+    @Test
+    @Transactional
+    public void getPointsHistory() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        LocalDate thisMonday = LocalDate.now().with(DAY_OF_WEEK, 1);
+        // the default goal of 10 points is met two weeks in a row, not yet this week
+        for (int week = 2; week >= 1; week--) {
+            for (int day = 0; day < 4; day++) {
+                pointService.save(new Point(thisMonday.minusWeeks(week).plusDays(day), 1, 1, 1, user));
+            }
+        }
+        pointService.save(new Point(thisMonday, 1, 1, 1, user));
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        int timeToLive = jHipsterProperties.getPointsHistory().getTimeToLiveInSeconds();
+
+        try {
+            restPointMockMvc.perform(get("/api/points-history")
+                .param("from", thisMonday.minusWeeks(3).format(ISO_LOCAL_DATE))
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weeklyGoal").value(10))
+                .andExpect(jsonPath("$.weeks", hasSize(4)))
+                .andExpect(jsonPath("$.weeks[0].points").value(0))
+                .andExpect(jsonPath("$.weeks[1].points").value(12))
+                .andExpect(jsonPath("$.weeks[2].points").value(12))
+                .andExpect(jsonPath("$.weeks[3].week").value(thisMonday.format(ISO_LOCAL_DATE)))
+                .andExpect(jsonPath("$.weeks[3].points").value(3))
+                .andExpect(jsonPath("$.weeksGoalMet").value(2))
+                .andExpect(jsonPath("$.currentStreak").value(2))
+                .andExpect(jsonPath("$.longestStreak").value(2));
+
+            restPointMockMvc.perform(get("/api/points-history")
+                .param("from", thisMonday.format(ISO_LOCAL_DATE))
+                .param("to", thisMonday.minusWeeks(1).format(ISO_LOCAL_DATE))
+                .with(user("user").roles("USER")))
+                .andExpect(status().isBadRequest());
+
+            // a point written on another node does not drop the history, which is read again once expired
+            pointWeeklySummaryService.add(pointRepository.save(new Point(thisMonday, 1, 1, 1, user)));
+            restPointMockMvc.perform(get("/api/points-history")
+                .param("from", thisMonday.format(ISO_LOCAL_DATE))
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weeks[0].points").value(3));
+            jHipsterProperties.getPointsHistory().setTimeToLiveInSeconds(0);
+            restPointMockMvc.perform(get("/api/points-history")
+                .param("from", thisMonday.format(ISO_LOCAL_DATE))
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weeks[0].points").value(6));
+        } finally {
+            jHipsterProperties.getPointsHistory().setTimeToLiveInSeconds(timeToLive);
+            // the history is kept in memory, outside of the test transaction
+            pointsHistoryService.evict(user);
+        }
+    }
+
+    @Test
+    public void searchPointsOfCurrentUserOnly() throws Exception {
+        Point userPoint = new Point(DEFAULT_DATE, 1, 1, 1, userRepository.findOneByLogin("user").get());
+        userPoint.setId(Long.MAX_VALUE - 1);
+        userPoint.setNotes("crossusersearch");
+        Point adminPoint = new Point(DEFAULT_DATE, 1, 1, 1, userRepository.findOneByLogin("admin").get());
+        adminPoint.setId(Long.MAX_VALUE - 2);
+        adminPoint.setNotes("crossusersearch");
+        pointSearchRepository.save(userPoint);
+        pointSearchRepository.save(adminPoint);
+        searchCacheService.writtenAll(Point.class);
+
+        // create security-aware mockMvc
+        restPointMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        try {
+            restPointMockMvc.perform(get("/api/_search/points/{query}", "notes:crossusersearch")
+                .with(user("user")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(userPoint.getId())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(adminPoint.getId()))));
+
+            // results are sorted on the returned fields only
+            restPointMockMvc.perform(get("/api/_search/points/{query}", "notes:crossusersearch")
+                .param("sort", "date,desc")
+                .with(user("user")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"));
+            restPointMockMvc.perform(get("/api/_search/points/{query}", "notes:crossusersearch")
+                .param("sort", "unmapped")
+                .with(user("user")))
+                .andExpect(status().isBadRequest());
+        } finally {
+            pointSearchRepository.delete(userPoint.getId());
+            pointSearchRepository.delete(adminPoint.getId());
+            searchCacheService.writtenAll(Point.class);
+        }
+    }
 }
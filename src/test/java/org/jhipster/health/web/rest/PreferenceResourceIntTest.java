@@ -3,7 +3,11 @@ package org.jhipster.health.web.rest;
 import org.jhipster.health.Application;
 import org.jhipster.health.domain.Preference;
 import org.jhipster.health.repository.PreferenceRepository;
+import org.jhipster.health.repository.UserRepository;
 import org.jhipster.health.repository.search.PreferenceSearchRepository;
+import org.jhipster.health.service.PreferenceService;
+import org.jhipster.health.service.SearchCacheService;
+import org.jhipster.health.service.UserDataVersionService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +16,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -57,12 +62,24 @@ public class PreferenceResourceIntTest {
     @Inject
     private PreferenceSearchRepository preferenceSearchRepository;
 
+    @Inject
+    private SearchCacheService searchCacheService;
+
+    @Inject
+    private PreferenceService preferenceService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Inject
+    private UserDataVersionService userDataVersionService;
+
+    @Inject
+    private UserRepository userRepository;
+
     private MockMvc restPreferenceMockMvc;
 
     private Preference preference;
@@ -73,6 +90,10 @@ public class PreferenceResourceIntTest {
         PreferenceResource preferenceResource = new PreferenceResource();
         ReflectionTestUtils.setField(preferenceResource, "preferenceSearchRepository", preferenceSearchRepository);
         ReflectionTestUtils.setField(preferenceResource, "preferenceRepository", preferenceRepository);
+        ReflectionTestUtils.setField(preferenceResource, "searchCacheService", searchCacheService);
+        ReflectionTestUtils.setField(preferenceResource, "preferenceService", preferenceService);
+        ReflectionTestUtils.setField(preferenceResource, "userDataVersionService", userDataVersionService);
+        ReflectionTestUtils.setField(preferenceResource, "userRepository", userRepository);
         this.restPreferenceMockMvc = MockMvcBuilders.standaloneSetup(preferenceResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -153,6 +174,44 @@ public class PreferenceResourceIntTest {
             .andExpect(jsonPath("$.weightUnits").value(DEFAULT_WEIGHT_UNITS.toString()));
     }
 
+    @Test
+    @Transactional
+    public void getPreferenceNotModified() throws Exception {
+        // Initialize the database
+        preferenceRepository.saveAndFlush(preference);
+        userDataVersionService.writtenPreference(preference.getId(), null);
+
+        String etag = restPreferenceMockMvc.perform(get("/api/preferences/{id}", preference.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String pageEtag = restPreferenceMockMvc.perform(get("/api/preferences?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A write to the readings of a user keeps the tags
+        userDataVersionService.bump("user");
+        restPreferenceMockMvc.perform(get("/api/preferences/{id}", preference.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+        restPreferenceMockMvc.perform(get("/api/preferences?sort=id,desc")
+            .header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+            .andExpect(status().isNotModified());
+
+        // An update of the preference changes them
+        preference.setWeeklyGoal(UPDATED_WEEKLY_GOAL);
+        restPreferenceMockMvc.perform(put("/api/preferences")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(preference)))
+            .andExpect(status().isOk());
+        restPreferenceMockMvc.perform(get("/api/preferences/{id}", preference.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+        restPreferenceMockMvc.perform(get("/api/preferences?sort=id,desc")
+            .header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     public void getNonExistingPreference() throws Exception {
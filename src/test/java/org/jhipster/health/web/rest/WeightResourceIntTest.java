@@ -1,22 +1,31 @@
 package org.jhipster.health.web.rest;
 
 import org.jhipster.health.Application;
+import org.jhipster.health.config.JHipsterProperties;
 import org.jhipster.health.domain.User;
 import org.jhipster.health.domain.Weight;
 import org.jhipster.health.repository.UserRepository;
 import org.jhipster.health.repository.WeightRepository;
-import org.jhipster.health.repository.search.WeightSearchRepository;
+import org.jhipster.health.service.DownsamplingService;
+import org.jhipster.health.service.UserDataSearchService;
+import org.jhipster.health.service.UserDataVersionService;
+import org.jhipster.health.service.WeightService;
+import org.jhipster.health.service.WeightTrendService;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -33,6 +42,7 @@ import javax.inject.Inject;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -72,7 +82,13 @@ public class WeightResourceIntTest {
     private WeightRepository weightRepository;
 
     @Inject
-    private WeightSearchRepository weightSearchRepository;
+    private UserDataSearchService userDataSearchService;
+
+    @Inject
+    private WeightService weightService;
+
+    @Inject
+    private UserDataVersionService userDataVersionService;
 
     @Inject
     private UserRepository userRepository;
@@ -83,6 +99,15 @@ public class WeightResourceIntTest {
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Inject
+    private DownsamplingService downsamplingService;
+
+    @Inject
+    private WeightTrendService weightTrendService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     private MockMvc restWeightMockMvc;
 
     private Weight weight;
@@ -94,8 +119,12 @@ public class WeightResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         WeightResource weightResource = new WeightResource();
-        ReflectionTestUtils.setField(weightResource, "weightSearchRepository", weightSearchRepository);
+        ReflectionTestUtils.setField(weightResource, "userDataSearchService", userDataSearchService);
         ReflectionTestUtils.setField(weightResource, "weightRepository", weightRepository);
+        ReflectionTestUtils.setField(weightResource, "weightService", weightService);
+        ReflectionTestUtils.setField(weightResource, "userDataVersionService", userDataVersionService);
+        ReflectionTestUtils.setField(weightResource, "downsamplingService", downsamplingService);
+        ReflectionTestUtils.setField(weightResource, "weightTrendService", weightTrendService);
         this.restWeightMockMvc = MockMvcBuilders.standaloneSetup(weightResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -149,6 +178,82 @@ public class WeightResourceIntTest {
                 .andExpect(jsonPath("$.[*].weight").value(hasItem(DEFAULT_WEIGHT)));
     }
 
+    @Test
+    @Transactional
+    public void getAllWeightsNotModified() throws Exception {
+        // Initialize the database
+        weightRepository.saveAndFlush(weight);
+
+        String etag = restWeightMockMvc.perform(get("/api/weights?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Nothing was written since: the cached page is still valid
+        restWeightMockMvc.perform(get("/api/weights?sort=id,desc")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Another page has another tag
+        restWeightMockMvc.perform(get("/api/weights?sort=id,asc")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // A write changes the tag
+        userDataVersionService.bump("user");
+        restWeightMockMvc.perform(get("/api/weights?sort=id,desc")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void getWeightsAfterCursor() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        ZonedDateTime monday = ZonedDateTime.of(2016, 1, 4, 8, 0, 0, 0, ZoneOffset.UTC);
+        Weight oldest = weightRepository.saveAndFlush(new Weight(monday, 80D, user));
+        // two weights at the same time, ordered by their ids
+        Weight first = weightRepository.saveAndFlush(new Weight(monday.plusDays(1), 81D, user));
+        Weight second = weightRepository.saveAndFlush(new Weight(monday.plusDays(1), 82D, user));
+        Weight newest = weightRepository.saveAndFlush(new Weight(monday.plusDays(2), 83D, user));
+        String cursor = monday.plusDays(1) + "," + second.getId();
+
+        // create security-aware mockMvc
+        restWeightMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // First keyset page, newest first, without a total count
+        restWeightMockMvc.perform(get("/api/weights?after=&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + cursor + "&size=2>; rel=\"next\"")))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$[1].id").value(second.getId().intValue()));
+
+        // Following the cursor returns the weight with the same timestamp and a lower id, then the older one
+        restWeightMockMvc.perform(get("/api/weights?after=" + cursor + "&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$[1].id").value(oldest.getId().intValue()));
+
+        // The key of the cursor is a timestamp with its offset
+        restWeightMockMvc.perform(get("/api/weights?after=2016-01-05," + second.getId() + "&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+
+        restWeightMockMvc.perform(get("/api/weights?after=yesterday&size=2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getWeight() throws Exception {
@@ -164,6 +269,31 @@ public class WeightResourceIntTest {
             .andExpect(jsonPath("$.weight").value(DEFAULT_WEIGHT));
     }
 
+    @Test
+    @Transactional
+    public void getWeightNotModified() throws Exception {
+        // Initialize the database
+        weight.setUser(userRepository.findOneByLogin("user").get());
+        weightRepository.saveAndFlush(weight);
+
+        String etag = restWeightMockMvc.perform(get("/api/weights/{id}", weight.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A write to the data of another user keeps the tag
+        userDataVersionService.bump("admin");
+        restWeightMockMvc.perform(get("/api/weights/{id}", weight.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // A write to the data of the owner changes it
+        userDataVersionService.bump("user");
+        restWeightMockMvc.perform(get("/api/weights/{id}", weight.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     public void getNonExistingWeight() throws Exception {
@@ -270,4 +400,172 @@ public class WeightResourceIntTest {
             .andExpect(jsonPath("$.period").value("Last 30 Days"))
             .andExpect(jsonPath("$.weighIns.[*].weight").value(hasItem(206D)));
     }
+
+    @Test
+    @Transactional
+    public void getForLast30DaysDownsampled() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        LocalDate twoDaysAgo = LocalDate.now().minusDays(2);
+        weightRepository.saveAndFlush(new Weight(twoDaysAgo.atTime(8, 0).atZone(ZoneId.systemDefault()), 80D, user));
+        weightRepository.saveAndFlush(new Weight(twoDaysAgo.atTime(12, 0).atZone(ZoneId.systemDefault()), 82D, user));
+        weightRepository.saveAndFlush(new Weight(twoDaysAgo.atTime(18, 0).atZone(ZoneId.systemDefault()), 81D, user));
+
+        // create security-aware mockMvc
+        restWeightMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        // One bucket for the day
+        restWeightMockMvc.perform(get("/api/weight-by-days/{days}/downsampled", 30)
+            .param("resolution", "day")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+            .andExpect(jsonPath("$.period").value("Last 30 Days"))
+            .andExpect(jsonPath("$.resolution").value("day"))
+            .andExpect(jsonPath("$.buckets.weight", hasSize(1)))
+            .andExpect(jsonPath("$.buckets.weight[0].start").value(twoDaysAgo.toString()))
+            .andExpect(jsonPath("$.buckets.weight[0].count").value(3))
+            .andExpect(jsonPath("$.buckets.weight[0].min").value(80D))
+            .andExpect(jsonPath("$.buckets.weight[0].max").value(82D))
+            .andExpect(jsonPath("$.buckets.weight[0].avg").value(81D))
+            .andExpect(jsonPath("$.buckets.weight[0].last").value(81D));
+
+        // Fewer readings than points are all kept
+        restWeightMockMvc.perform(get("/api/weight-by-days/{days}/downsampled", 30)
+            .param("resolution", "lttb")
+            .param("points", "3")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.points.weight", hasSize(3)))
+            .andExpect(jsonPath("$.points.weight[*].value").value(hasItem(82D)));
+
+        restWeightMockMvc.perform(get("/api/weight-by-days/{days}/downsampled", 30)
+            .param("resolution", "year")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+
+        restWeightMockMvc.perform(get("/api/weight-by-days/{days}/downsampled", 30)
+            .param("resolution", "lttb")
+            .param("points", "2")
+            .with(user("user").roles("USER")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getWeightTrend() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        LocalDate today = LocalDate.now();
+        weightRepository.saveAndFlush(new Weight(today.minusDays(3).atStartOfDay(ZoneId.systemDefault()), 80D, user));
+        weightRepository.saveAndFlush(new Weight(today.minusDays(1).atStartOfDay(ZoneId.systemDefault()), 82D, user));
+        // the trend is kept in memory, outside of the test transaction
+        weightTrendService.evict("user");
+
+        // create security-aware mockMvc
+        restWeightMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        try {
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                .andExpect(jsonPath("$.lastWeight").value(82D))
+                .andExpect(jsonPath("$.weighIns7Days").value(2))
+                .andExpect(jsonPath("$.mean7Days").value(81D))
+                .andExpect(jsonPath("$.weighIns30Days").value(2))
+                .andExpect(jsonPath("$.mean30Days").value(81D))
+                .andExpect(jsonPath("$.slopePerWeek").value(7D));
+        } finally {
+            weightTrendService.evict("user");
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getWeightTrendFromRecentWeighIns() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        LocalDate today = LocalDate.now();
+        // older than 10 half-lives of 7 days: not read
+        weightRepository.saveAndFlush(new Weight(today.minusDays(200).atStartOfDay(ZoneId.systemDefault()), 50D, user));
+        weightTrendService.evict("user");
+        restWeightMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+
+        try {
+            // without a recent weigh-in, the trend is built from the last one
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastWeight").value(50D))
+                .andExpect(jsonPath("$.ewma").value(50D))
+                .andExpect(jsonPath("$.weighIns30Days").value(0));
+
+            weightRepository.saveAndFlush(new Weight(today.minusDays(60).atStartOfDay(ZoneId.systemDefault()), 80D, user));
+            weightTrendService.evict("user");
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastWeight").value(80D))
+                .andExpect(jsonPath("$.ewma").value(80D));
+        } finally {
+            weightTrendService.evict("user");
+        }
+    }
+
+    @Test
+    public void getWeightTrendAfterNewWeighIn() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        LocalDate today = LocalDate.now();
+        Weight read = weightRepository.save(new Weight(today.minusDays(2).atStartOfDay(ZoneId.systemDefault()), 80D, user));
+        weightTrendService.evict("user");
+        restWeightMockMvc = MockMvcBuilders
+            .webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        int timeToLive = jHipsterProperties.getWeightTrend().getTimeToLiveInSeconds();
+
+        try {
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weighIns30Days").value(1));
+
+            // ids are allocated by blocks on each node, a later weigh-in may have a smaller id than the ones already read
+            Weight later = new Weight(today.minusDays(1).atStartOfDay(ZoneId.systemDefault()), 84D, user);
+            later.setId(read.getId() - 1);
+            weightTrendService.added(later);
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastWeight").value(84D))
+                .andExpect(jsonPath("$.weighIns30Days").value(2));
+
+            // a weigh-in that is not later than the last one drops the trend, which is rebuilt without the weigh-in
+            // that was not saved
+            weightTrendService.added(read);
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weighIns30Days").value(1));
+
+            // an expired trend is rebuilt from the weight table, without the weigh-in that was not saved
+            weightTrendService.added(later);
+            jHipsterProperties.getWeightTrend().setTimeToLiveInSeconds(0);
+            restWeightMockMvc.perform(get("/api/weight-trend")
+                .with(user("user").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weighIns30Days").value(1));
+        } finally {
+            jHipsterProperties.getWeightTrend().setTimeToLiveInSeconds(timeToLive);
+            weightRepository.delete(read.getId());
+            weightTrendService.evict("user");
+        }
+    }
 }